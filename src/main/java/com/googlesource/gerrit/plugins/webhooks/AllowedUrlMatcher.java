@@ -0,0 +1,97 @@
+// Copyright (C) 2026 The Android Open Source Project
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.googlesource.gerrit.plugins.webhooks;
+
+import static com.google.common.collect.ImmutableList.toImmutableList;
+import static java.util.stream.Collectors.joining;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.collect.ImmutableList;
+import com.google.common.flogger.FluentLogger;
+import com.google.inject.Inject;
+import com.google.inject.Singleton;
+import java.util.List;
+import java.util.Optional;
+import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
+
+/**
+ * Matches remote URLs against the configured {@code allowedUrlPattern}s. The patterns are combined
+ * into a single alternation that is compiled once and the verdict for each URL is memoized.
+ */
+@Singleton
+class AllowedUrlMatcher {
+  private static final FluentLogger log = FluentLogger.forEnclosingClass();
+
+  private static final int MAX_CACHED_VERDICTS = 1024;
+  // numbered back references would point to another group once the patterns are combined
+  private static final Pattern NUMBERED_BACK_REFERENCE = Pattern.compile("\\\\[1-9]");
+
+  private final boolean allowAll;
+  private final Optional<Pattern> combined;
+  private final ImmutableList<Pattern> separate;
+  private final Cache<String, Boolean> verdicts =
+      CacheBuilder.newBuilder().maximumSize(MAX_CACHED_VERDICTS).build();
+
+  @Inject
+  AllowedUrlMatcher(Configuration global) {
+    List<Pattern> patterns = global.getAllowedUrlPatterns();
+    this.allowAll = patterns.isEmpty();
+    ImmutableList<Pattern> combinable =
+        patterns.stream().filter(AllowedUrlMatcher::isCombinable).collect(toImmutableList());
+    Optional<Pattern> combined = combine(combinable);
+    this.combined = combined;
+    this.separate =
+        patterns.stream()
+            .filter(p -> combined.isEmpty() || !combinable.contains(p))
+            .collect(toImmutableList());
+  }
+
+  boolean isAllowed(String url) {
+    if (allowAll) {
+      return true;
+    }
+    Boolean allowed = verdicts.getIfPresent(url);
+    if (allowed == null) {
+      allowed = matches(url);
+      verdicts.put(url, allowed);
+    }
+    return allowed;
+  }
+
+  private boolean matches(String url) {
+    return combined.map(p -> p.matcher(url).matches()).orElse(false)
+        || separate.stream().anyMatch(p -> p.matcher(url).matches());
+  }
+
+  private static boolean isCombinable(Pattern pattern) {
+    return pattern.flags() == 0 && !NUMBERED_BACK_REFERENCE.matcher(pattern.pattern()).find();
+  }
+
+  private static Optional<Pattern> combine(List<Pattern> patterns) {
+    if (patterns.isEmpty()) {
+      return Optional.empty();
+    }
+    String regex = patterns.stream().map(p -> "(?:" + p.pattern() + ")").collect(joining("|"));
+    try {
+      return Optional.of(Pattern.compile(regex));
+    } catch (PatternSyntaxException e) {
+      // e.g. the same named group is used in several patterns
+      log.atFine().withCause(e).log("Allowed URL patterns cannot be combined, matching separately");
+      return Optional.empty();
+    }
+  }
+}
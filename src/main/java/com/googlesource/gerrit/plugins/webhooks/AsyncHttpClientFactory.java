@@ -0,0 +1,107 @@
+// Copyright (C) 2026 The Android Open Source Project
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.googlesource.gerrit.plugins.webhooks;
+
+import com.google.common.flogger.FluentLogger;
+import com.google.gerrit.common.Nullable;
+import com.google.gerrit.extensions.events.LifecycleListener;
+import com.google.inject.Inject;
+import com.google.inject.Singleton;
+import java.lang.reflect.InvocationTargetException;
+import java.net.http.HttpClient;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledExecutorService;
+import javax.net.ssl.SSLContext;
+
+/**
+ * Provides the non-blocking JDK HTTP clients used by the {@link DeliveryEngine#ASYNC} engine and by
+ * the remotes posting over HTTP/2.
+ */
+@Singleton
+class AsyncHttpClientFactory implements LifecycleListener {
+  private static final FluentLogger log = FluentLogger.forEnclosingClass();
+
+  private final Configuration cfg;
+  private final ScheduledExecutorService executor;
+  private final Map<List<Boolean>, HttpClient> clients = new ConcurrentHashMap<>();
+
+  @Inject
+  AsyncHttpClientFactory(Configuration cfg, @WebHooksExecutor ScheduledExecutorService executor) {
+    this.cfg = cfg;
+    this.executor = executor;
+  }
+
+  @Override
+  public void start() {
+    // do nothing
+  }
+
+  /**
+   * Shuts the clients down, aborting their in-flight posts. The JVMs without {@code
+   * HttpClient.shutdownNow()} stop the selector thread of a client once it is no longer referenced.
+   */
+  @Override
+  public void stop() {
+    for (HttpClient client : clients.values()) {
+      shutdownNow(client);
+    }
+    clients.clear();
+  }
+
+  /**
+   * Returns the client for the given settings, created on first use. HTTP/2 clients multiplex the
+   * concurrent posts to a remote over a single connection and fall back to HTTP/1.1 when the
+   * remote doesn't negotiate HTTP/2.
+   */
+  HttpClient get(boolean sslVerify, boolean http2) {
+    return clients.computeIfAbsent(
+        List.of(sslVerify, http2),
+        k ->
+            create(
+                // the default SSL context of the JDK verifies the certificates
+                sslVerify ? null : DefaultHttpClientProvider.buildSslContext(),
+                http2 ? HttpClient.Version.HTTP_2 : HttpClient.Version.HTTP_1_1));
+  }
+
+  private HttpClient create(@Nullable SSLContext sslContext, HttpClient.Version version) {
+    // the client multiplexes all the connections on its selector thread and runs the
+    // completions of the posts on the webhooks executor
+    HttpClient.Builder builder =
+        HttpClient.newBuilder()
+            .version(version)
+            .followRedirects(HttpClient.Redirect.NEVER)
+            .connectTimeout(Duration.ofMillis(cfg.getConnectionTimeout()))
+            .executor(executor);
+    if (sslContext != null) {
+      builder.sslContext(sslContext);
+    }
+    return builder.build();
+  }
+
+  private static void shutdownNow(HttpClient client) {
+    // looked up reflectively as the plugin is still compiled for Java versions without it
+    try {
+      HttpClient.class.getMethod("shutdownNow").invoke(client);
+    } catch (NoSuchMethodException e) {
+      log.atFine().log("HttpClient.shutdownNow() is not available");
+    } catch (ReflectiveOperationException e) {
+      Throwable cause = e instanceof InvocationTargetException ? e.getCause() : e;
+      log.atWarning().withCause(cause).log("Failed to shut down the HTTP client");
+    }
+  }
+}
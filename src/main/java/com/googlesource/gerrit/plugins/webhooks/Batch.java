@@ -0,0 +1,101 @@
+// Copyright (C) 2026 The Android Open Source Project
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.googlesource.gerrit.plugins.webhooks;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.io.ByteSource;
+import com.google.common.net.HttpHeaders;
+import com.google.common.net.MediaType;
+import com.google.gerrit.server.events.ProjectEvent;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/** Events posted to a remote together, in a single request. */
+class Batch {
+  private static final MediaType NDJSON = MediaType.create("application", "x-ndjson");
+
+  private final BatchFormat format;
+  private final ImmutableList<ProjectEvent> events;
+  private final ImmutableList<EventProcessor.Request> requests;
+
+  Batch(
+      BatchFormat format,
+      ImmutableList<ProjectEvent> events,
+      ImmutableList<EventProcessor.Request> requests) {
+    this.format = format;
+    this.events = events;
+    this.requests = requests;
+  }
+
+  int size() {
+    return events.size();
+  }
+
+  ProjectEvent getFirstEvent() {
+    return events.get(0);
+  }
+
+  ImmutableList<EventProcessor.Request> getRequests() {
+    return requests;
+  }
+
+  /** Returns the highest priority the remote assigns to any of the events. */
+  Priority getPriority(RemoteConfig remote) {
+    Priority highest = Priority.LOW;
+    for (ProjectEvent event : events) {
+      Priority priority = remote.getPriority(event.getType());
+      if (priority.compareTo(highest) < 0) {
+        highest = priority;
+      }
+    }
+    return highest;
+  }
+
+  /** Combines the requests of the events, they must all have the same headers. */
+  EventProcessor.Request toRequest() {
+    List<ByteSource> payload = new ArrayList<>(2 * requests.size() + 1);
+    payload.add(bytes(format.prefix));
+    ByteSource separator = bytes(format.separator);
+    for (int i = 0; i < requests.size(); i++) {
+      if (i > 0) {
+        payload.add(separator);
+      }
+      payload.add(requests.get(i).getPayload());
+    }
+    payload.add(bytes(format.suffix));
+    Map<String, String> headers = requests.get(0).headers;
+    if (format == BatchFormat.NDJSON) {
+      headers = new HashMap<>(headers);
+      headers.put(HttpHeaders.CONTENT_TYPE, NDJSON.withCharset(UTF_8).toString());
+    }
+    return new EventProcessor.Request(ByteSource.concat(payload), headers);
+  }
+
+  /** Splits the batch in two halves, to isolate the events a remote rejects. */
+  ImmutableList<Batch> split() {
+    int half = size() / 2;
+    return ImmutableList.of(
+        new Batch(format, events.subList(0, half), requests.subList(0, half)),
+        new Batch(format, events.subList(half, size()), requests.subList(half, size())));
+  }
+
+  private static ByteSource bytes(String s) {
+    return ByteSource.wrap(s.getBytes(UTF_8));
+  }
+}
@@ -0,0 +1,37 @@
+// Copyright (C) 2026 The Android Open Source Project
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.googlesource.gerrit.plugins.webhooks;
+
+/** How the events posted to a remote are combined into a single request. */
+public enum BatchFormat {
+  /** Post each event on its own. */
+  NONE("", "", ""),
+
+  /** Post a JSON array of events. */
+  JSON_ARRAY("[", ",", "]"),
+
+  /** Post newline delimited JSON, one event per line. */
+  NDJSON("", "\n", "\n");
+
+  final String prefix;
+  final String separator;
+  final String suffix;
+
+  BatchFormat(String prefix, String separator, String suffix) {
+    this.prefix = prefix;
+    this.separator = separator;
+    this.suffix = suffix;
+  }
+}
@@ -0,0 +1,176 @@
+// Copyright (C) 2026 The Android Open Source Project
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.googlesource.gerrit.plugins.webhooks;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.flogger.FluentLogger;
+import com.google.gerrit.extensions.events.LifecycleListener;
+import com.google.gerrit.server.events.ProjectEvent;
+import com.google.inject.Inject;
+import com.google.inject.Singleton;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Accumulates the requests posted to the remotes in batch mode and posts them in a single {@link
+ * PostTask} per remote once {@code maxBatchSize} or {@code maxBatchBytes} is reached, or {@code
+ * batchLinger} elapsed since the first request of the batch. The lingering batches are posted when
+ * the plugin stops, so that the outbox keeps them until the next start.
+ */
+@Singleton
+class Batcher implements LifecycleListener {
+  private static final FluentLogger log = FluentLogger.forEnclosingClass();
+
+  private class Pending {
+    final RemoteConfig remote;
+    final Map<String, String> headers;
+    final ImmutableList.Builder<ProjectEvent> events = ImmutableList.builder();
+    final ImmutableList.Builder<EventProcessor.Request> requests = ImmutableList.builder();
+    final List<PendingPayloads.Held> held = new ArrayList<>();
+    int size;
+    long bytes;
+
+    Pending(RemoteConfig remote, Map<String, String> headers) {
+      this.remote = remote;
+      this.headers = headers;
+    }
+
+    boolean accepts(EventProcessor.Request request) {
+      return headers.equals(request.headers)
+          && (size == 0 || bytes + length(request) <= remote.getMaxBatchBytes());
+    }
+
+    void add(ProjectEvent event, EventProcessor.Request request) {
+      // the payloads lingering in the batch count towards the pending payload budget
+      PendingPayloads.Held payload = payloads.hold(request);
+      events.add(event);
+      requests.add(payload.getRequest());
+      held.add(payload);
+      size++;
+      bytes += length(request);
+    }
+
+    boolean isFull() {
+      return size >= remote.getMaxBatchSize() || bytes >= remote.getMaxBatchBytes();
+    }
+
+    Batch toBatch() {
+      return new Batch(remote.getBatchFormat(), events.build(), requests.build());
+    }
+  }
+
+  private final ScheduledExecutorService executor;
+  private final PostTask.Factory taskFactory;
+  private final PendingPayloads payloads;
+  // keyed by remote rather than by url, the remotes of several projects may post to the same url
+  // with different settings
+  private final Map<RemoteConfig, Pending> pending = new IdentityHashMap<>();
+
+  @Inject
+  Batcher(
+      @WebHooksExecutor ScheduledExecutorService executor,
+      PostTask.Factory taskFactory,
+      PendingPayloads payloads) {
+    this.executor = executor;
+    this.taskFactory = taskFactory;
+    this.payloads = payloads;
+  }
+
+  @Override
+  public void start() {
+    // do nothing
+  }
+
+  @Override
+  public void stop() {
+    List<Pending> lingering;
+    synchronized (this) {
+      lingering = new ArrayList<>(pending.values());
+      pending.clear();
+    }
+    for (Pending batch : lingering) {
+      try {
+        post(batch);
+      } catch (RuntimeException e) {
+        log.atWarning().withCause(e).log(
+            "Failed to flush the batch of remote %s", batch.remote.getUrl());
+      }
+    }
+  }
+
+  void add(ProjectEvent event, RemoteConfig remote, EventProcessor.Request request) {
+    List<Pending> ready = new ArrayList<>(2);
+    Pending batch = null;
+    synchronized (this) {
+      Pending current = pending.get(remote);
+      if (current != null && !current.accepts(request)) {
+        pending.remove(remote);
+        ready.add(current);
+        current = null;
+      }
+      if (current == null) {
+        current = new Pending(remote, request.headers);
+        pending.put(remote, current);
+        batch = current;
+      }
+      current.add(event, request);
+      if (current.isFull()) {
+        pending.remove(remote);
+        ready.add(current);
+        batch = null;
+      }
+    }
+    if (batch != null) {
+      Pending lingering = batch;
+      @SuppressWarnings("unused")
+      ScheduledFuture<?> ignored =
+          executor.schedule(
+              () -> flush(lingering), remote.getBatchLinger(), TimeUnit.MILLISECONDS);
+    }
+    ready.forEach(this::post);
+  }
+
+  private void flush(Pending batch) {
+    synchronized (this) {
+      // the batch may have been posted already because it was full
+      if (!pending.remove(batch.remote, batch)) {
+        return;
+      }
+    }
+    post(batch);
+  }
+
+  private void post(Pending batch) {
+    taskFactory.create(batch.toBatch(), batch.remote).schedule();
+    // the task holds the payloads from now on
+    batch.held.forEach(PendingPayloads.Held::release);
+  }
+
+  private static long length(EventProcessor.Request request) {
+    try {
+      // counts the bytes of the payload only if its size isn't known already
+      return request.getPayload().size();
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+}
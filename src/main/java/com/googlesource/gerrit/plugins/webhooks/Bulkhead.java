@@ -0,0 +1,138 @@
+// Copyright (C) 2026 The Android Open Source Project
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.googlesource.gerrit.plugins.webhooks;
+
+import com.google.common.flogger.FluentLogger;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.ToIntFunction;
+
+/**
+ * Limits the number of posts in flight to a single remote URL. Posts beyond the limit wait in a
+ * bounded queue of the remote and are handed over to the shared executor one by one as the posts
+ * in flight complete, so that a slow remote cannot occupy all the delivery threads. The queue is
+ * drained by {@link Priority}, with the same weights as the delivery threads.
+ */
+class Bulkhead {
+  private static final FluentLogger log = FluentLogger.forEnclosingClass();
+
+  private final String url;
+  private final Executor executor;
+  private final WebhooksMetrics metrics;
+  private final PriorityQueues<Queued> queued;
+  private int inFlight;
+  private int maxConcurrentPosts;
+  private int queueSize;
+  private OverflowPolicy overflowPolicy;
+
+  Bulkhead(
+      String url,
+      Executor executor,
+      ToIntFunction<Priority> weights,
+      WebhooksMetrics metrics) {
+    this.url = url;
+    this.executor = executor;
+    this.queued = new PriorityQueues<>(weights);
+    this.metrics = metrics;
+  }
+
+  /** Applies the limits resolved from the remotes of all the projects posting to the URL. */
+  synchronized void configure(int maxConcurrentPosts, int queueSize, OverflowPolicy policy) {
+    this.maxConcurrentPosts = maxConcurrentPosts;
+    this.queueSize = queueSize;
+    this.overflowPolicy = policy;
+  }
+
+  private static class Queued {
+    final Runnable post;
+    final Runnable onDrop;
+
+    Queued(Runnable post, Runnable onDrop) {
+      this.post = post;
+      this.onDrop = onDrop;
+    }
+  }
+
+  boolean admit(Runnable post) {
+    return admit(Priority.NORMAL, post, () -> {});
+  }
+
+  /**
+   * Returns true if the post may start right away on the calling thread, in which case {@link
+   * #release()} must be called once it completes. Otherwise the post is queued and started on the
+   * executor later, or dropped if the queue is full, in which case {@code onDrop} is run.
+   */
+  boolean admit(Priority priority, Runnable post, Runnable onDrop) {
+    Queued offered = new Queued(post, onDrop);
+    Queued dropped = null;
+    synchronized (this) {
+      if (maxConcurrentPosts <= 0 || inFlight < maxConcurrentPosts) {
+        inFlight++;
+        return true;
+      }
+      if (queued.size() >= queueSize) {
+        switch (overflowPolicy) {
+          case CALLER_RUNS:
+            inFlight++;
+            return true;
+          case DISCARD_OLDEST:
+            // makes room at the expense of the lowest priority
+            dropped = queued.pollLowest(priority);
+            if (dropped == null) {
+              dropped = offered;
+              break;
+            }
+            queued.add(priority, offered);
+            break;
+          case DISCARD_NEWEST:
+          default:
+            dropped = offered;
+            break;
+        }
+      } else {
+        queued.add(priority, offered);
+      }
+    }
+    if (dropped != null) {
+      metrics.incrementBulkheadDropped();
+      log.atWarning().atMostEvery(1, TimeUnit.MINUTES).log(
+          "Queue of remote %s is full (%d posts), dropped a post", url, queueSize);
+      dropped.onDrop.run();
+    }
+    return false;
+  }
+
+  /** Releases the slot of a completed post and starts the next queued post, if any. */
+  void release() {
+    Queued next;
+    synchronized (this) {
+      inFlight--;
+      if (maxConcurrentPosts > 0 && inFlight >= maxConcurrentPosts) {
+        // the limit was lowered in the meantime
+        return;
+      }
+      next = queued.poll();
+      if (next == null) {
+        return;
+      }
+      inFlight++;
+    }
+    executor.execute(next.post);
+  }
+
+  synchronized int getQueued() {
+    return queued.size();
+  }
+}
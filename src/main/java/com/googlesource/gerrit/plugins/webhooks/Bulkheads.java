@@ -0,0 +1,75 @@
+// Copyright (C) 2026 The Android Open Source Project
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.googlesource.gerrit.plugins.webhooks;
+
+import com.google.common.collect.ImmutableList;
+import com.google.inject.Inject;
+import com.google.inject.Singleton;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledExecutorService;
+
+/**
+ * Keeps one {@link Bulkhead} per remote URL, shared by all the projects posting to it. When the
+ * remotes of several projects post to the same URL with different limits, the highest ones apply.
+ */
+@Singleton
+class Bulkheads {
+  private final ScheduledExecutorService executor;
+  private final Configuration cfg;
+  private final WebhooksMetrics metrics;
+  private final Map<String, Bulkhead> bulkheads = new ConcurrentHashMap<>();
+  private final SharedRemotes.Resolver<String> remotes;
+
+  @Inject
+  Bulkheads(
+      @WebHooksExecutor ScheduledExecutorService executor,
+      Configuration cfg,
+      WebhooksMetrics metrics,
+      SharedRemotes sharedRemotes) {
+    this.executor = executor;
+    this.cfg = cfg;
+    this.metrics = metrics;
+    this.remotes = sharedRemotes.resolver(RemoteConfig::getUrl);
+    metrics.registerBulkheadQueued(
+        () -> bulkheads.values().stream().mapToInt(Bulkhead::getQueued).sum());
+  }
+
+  Bulkhead get(RemoteConfig remote) {
+    Bulkhead bulkhead =
+        bulkheads.computeIfAbsent(
+            remote.getUrl(),
+            url -> new Bulkhead(url, executor, cfg::getPriorityWeight, metrics));
+    remotes.resolve(remote.getUrl(), remote, shared -> configure(bulkhead, remote, shared));
+    return bulkhead;
+  }
+
+  private static void configure(
+      Bulkhead bulkhead, RemoteConfig latest, ImmutableList<RemoteConfig> shared) {
+    boolean unlimited = false;
+    int maxConcurrentPosts = 0;
+    int queueSize = 0;
+    for (RemoteConfig remote : shared) {
+      unlimited |= remote.getMaxConcurrentPosts() <= 0;
+      maxConcurrentPosts = Math.max(maxConcurrentPosts, remote.getMaxConcurrentPosts());
+      queueSize = Math.max(queueSize, remote.getQueueSize());
+    }
+    if (unlimited) {
+      bulkhead.configure(0, 0, latest.getOverflowPolicy());
+    } else {
+      bulkhead.configure(maxConcurrentPosts, queueSize, latest.getOverflowPolicy());
+    }
+  }
+}
@@ -0,0 +1,55 @@
+// Copyright (C) 2026 The Android Open Source Project
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.googlesource.gerrit.plugins.webhooks;
+
+import com.google.common.io.ByteSource;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import org.apache.http.entity.AbstractHttpEntity;
+
+/** Repeatable HTTP entity that streams a shared payload without copying it. */
+class ByteSourceEntity extends AbstractHttpEntity {
+  private final ByteSource payload;
+
+  ByteSourceEntity(ByteSource payload) {
+    this.payload = payload;
+  }
+
+  @Override
+  public boolean isRepeatable() {
+    return true;
+  }
+
+  @Override
+  public long getContentLength() {
+    return payload.sizeIfKnown().or(-1L);
+  }
+
+  @Override
+  public InputStream getContent() throws IOException {
+    return payload.openStream();
+  }
+
+  @Override
+  public void writeTo(OutputStream out) throws IOException {
+    payload.copyTo(out);
+  }
+
+  @Override
+  public boolean isStreaming() {
+    return false;
+  }
+}
@@ -0,0 +1,126 @@
+// Copyright (C) 2026 The Android Open Source Project
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.googlesource.gerrit.plugins.webhooks;
+
+import com.google.common.base.Ticker;
+import com.google.common.flogger.FluentLogger;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Sheds the posts to a remote URL that keeps failing. After {@code circuitBreakerThreshold}
+ * consecutive failures the circuit opens and posts fail fast without connecting to the remote.
+ * Once {@code circuitBreakerOpenInterval} elapsed the circuit is half-open and a single post probes
+ * the remote: the circuit closes if it succeeds and opens again otherwise.
+ */
+public class CircuitBreaker {
+  private static final FluentLogger log = FluentLogger.forEnclosingClass();
+
+  public enum State {
+    CLOSED,
+    OPEN,
+    HALF_OPEN
+  }
+
+  private final String url;
+  private final WebhooksMetrics metrics;
+  private final Ticker ticker;
+  private int threshold;
+  private long openIntervalNanos;
+  private State state = State.CLOSED;
+  private int consecutiveFailures;
+  private long openedAtNanos;
+  private boolean probing;
+
+  CircuitBreaker(String url, WebhooksMetrics metrics, Ticker ticker) {
+    this.url = url;
+    this.metrics = metrics;
+    this.ticker = ticker;
+  }
+
+  /** Applies the thresholds configured for the remote, they may differ between projects. */
+  synchronized void configure(int threshold, int openIntervalMs) {
+    this.threshold = threshold;
+    this.openIntervalNanos = TimeUnit.MILLISECONDS.toNanos(openIntervalMs);
+    if (threshold <= 0 && state != State.CLOSED) {
+      transition(State.CLOSED);
+    }
+  }
+
+  /**
+   * Returns true if a post may be sent to the remote, in which case its outcome must be recorded
+   * with {@link #onSuccess()} or {@link #onFailure()}.
+   */
+  synchronized boolean tryAcquire() {
+    switch (state) {
+      case OPEN:
+        if (ticker.read() - openedAtNanos < openIntervalNanos) {
+          return false;
+        }
+        transition(State.HALF_OPEN);
+        probing = true;
+        return true;
+      case HALF_OPEN:
+        if (probing) {
+          return false;
+        }
+        probing = true;
+        return true;
+      case CLOSED:
+      default:
+        return true;
+    }
+  }
+
+  synchronized void onSuccess() {
+    consecutiveFailures = 0;
+    probing = false;
+    if (state != State.CLOSED) {
+      transition(State.CLOSED);
+    }
+  }
+
+  synchronized void onFailure() {
+    consecutiveFailures++;
+    probing = false;
+    if (state == State.HALF_OPEN
+        || (state == State.CLOSED && threshold > 0 && consecutiveFailures >= threshold)) {
+      openedAtNanos = ticker.read();
+      transition(State.OPEN);
+    }
+  }
+
+  private void transition(State next) {
+    log.atInfo().log("Circuit breaker of remote %s moved from %s to %s", url, state, next);
+    state = next;
+    metrics.recordCircuitTransition(next);
+  }
+
+  public synchronized State getState() {
+    return state;
+  }
+
+  public synchronized int getConsecutiveFailures() {
+    return consecutiveFailures;
+  }
+
+  /** Returns the milliseconds until an open circuit lets a probe through, 0 otherwise. */
+  public synchronized long getRemainingOpenMillis() {
+    if (state != State.OPEN) {
+      return 0;
+    }
+    long remaining = openIntervalNanos - (ticker.read() - openedAtNanos);
+    return Math.max(0, TimeUnit.NANOSECONDS.toMillis(remaining));
+  }
+}
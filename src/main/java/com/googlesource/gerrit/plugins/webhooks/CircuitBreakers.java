@@ -0,0 +1,77 @@
+// Copyright (C) 2026 The Android Open Source Project
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.googlesource.gerrit.plugins.webhooks;
+
+import com.google.common.base.Ticker;
+import com.google.common.collect.ImmutableList;
+import com.google.inject.Inject;
+import com.google.inject.Singleton;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Keeps one {@link CircuitBreaker} per remote URL, shared by all the projects posting to it. When
+ * the remotes of several projects post to the same URL with different settings, the most tolerant
+ * ones apply: the highest threshold and the shortest open interval, or no circuit breaking at all
+ * if one of the remotes disables it.
+ */
+@Singleton
+public class CircuitBreakers {
+  private final WebhooksMetrics metrics;
+  private final Map<String, CircuitBreaker> breakers = new ConcurrentHashMap<>();
+  private final SharedRemotes.Resolver<String> remotes;
+
+  @Inject
+  CircuitBreakers(WebhooksMetrics metrics, SharedRemotes sharedRemotes) {
+    this.metrics = metrics;
+    this.remotes = sharedRemotes.resolver(RemoteConfig::getUrl);
+    metrics.registerOpenCircuits(
+        () ->
+            (int)
+                breakers.values().stream()
+                    .filter(b -> b.getState() != CircuitBreaker.State.CLOSED)
+                    .count());
+  }
+
+  CircuitBreaker get(RemoteConfig remote) {
+    CircuitBreaker breaker =
+        breakers.computeIfAbsent(
+            remote.getUrl(), url -> new CircuitBreaker(url, metrics, Ticker.systemTicker()));
+    remotes.resolve(remote.getUrl(), remote, shared -> configure(breaker, shared));
+    return breaker;
+  }
+
+  private static void configure(CircuitBreaker breaker, ImmutableList<RemoteConfig> shared) {
+    boolean disabled = false;
+    int threshold = 0;
+    int openInterval = Integer.MAX_VALUE;
+    for (RemoteConfig remote : shared) {
+      disabled |= remote.getCircuitBreakerThreshold() <= 0;
+      threshold = Math.max(threshold, remote.getCircuitBreakerThreshold());
+      openInterval = Math.min(openInterval, remote.getCircuitBreakerOpenInterval());
+    }
+    if (disabled) {
+      breaker.configure(0, 0);
+    } else {
+      breaker.configure(threshold, openInterval);
+    }
+  }
+
+  /** Returns the circuit breaker of the remote URL, if anything was posted to it yet. */
+  public Optional<CircuitBreaker> find(String url) {
+    return Optional.ofNullable(breakers.get(url));
+  }
+}
@@ -0,0 +1,212 @@
+// Copyright (C) 2026 The Android Open Source Project
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.googlesource.gerrit.plugins.webhooks;
+
+import com.google.common.flogger.FluentLogger;
+import com.google.gerrit.extensions.events.LifecycleListener;
+import com.google.gerrit.server.events.ChangeEvent;
+import com.google.gerrit.server.events.ProjectEvent;
+import com.google.gerrit.server.events.RefEvent;
+import com.google.inject.Inject;
+import com.google.inject.Singleton;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Holds the events posted to the remotes that coalesce events for {@code coalesceWindow} and only
+ * delivers the newest event of each of the {@code coalesceEvent} types per project and change, or
+ * per project and ref for the events that don't relate to a change. The window starts with the
+ * first event of the key so that a steady stream of updates is still delivered regularly. The
+ * held events are delivered when the plugin stops, so that the outbox keeps them until the next
+ * start.
+ */
+@Singleton
+class Coalescer implements LifecycleListener {
+  private static final FluentLogger log = FluentLogger.forEnclosingClass();
+
+  interface Delivery {
+    void deliver(ProjectEvent event, RemoteConfig remote, EventProcessor.Request request);
+  }
+
+  private static class Key {
+    final String url;
+    final String project;
+    final String type;
+    final String subject;
+
+    Key(String url, String project, String type, String subject) {
+      this.url = url;
+      this.project = project;
+      this.type = type;
+      this.subject = subject;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (o instanceof Key) {
+        Key k = (Key) o;
+        return url.equals(k.url)
+            && project.equals(k.project)
+            && type.equals(k.type)
+            && subject.equals(k.subject);
+      }
+      return false;
+    }
+
+    @Override
+    public int hashCode() {
+      return Objects.hash(url, project, type, subject);
+    }
+  }
+
+  private static class Pending {
+    ProjectEvent event;
+    RemoteConfig remote;
+    PendingPayloads.Held payload;
+    Delivery delivery;
+  }
+
+  private final ScheduledExecutorService executor;
+  private final WebhooksMetrics metrics;
+  private final PendingPayloads payloads;
+  private final Map<Key, Pending> pending = new HashMap<>();
+  private boolean stopped;
+
+  @Inject
+  Coalescer(
+      @WebHooksExecutor ScheduledExecutorService executor,
+      WebhooksMetrics metrics,
+      PendingPayloads payloads) {
+    this.executor = executor;
+    this.metrics = metrics;
+    this.payloads = payloads;
+  }
+
+  @Override
+  public void start() {
+    // do nothing
+  }
+
+  @Override
+  public void stop() {
+    List<Pending> held;
+    synchronized (this) {
+      stopped = true;
+      held = new ArrayList<>(pending.values());
+      pending.clear();
+    }
+    for (Pending event : held) {
+      try {
+        deliver(event);
+      } catch (RuntimeException e) {
+        log.atWarning().withCause(e).log(
+            "Failed to deliver the event held for remote %s", event.remote.getUrl());
+      }
+    }
+  }
+
+  /**
+   * Holds the event until the coalescing window of its key elapsed, replacing the event of the
+   * same key that is held already. Returns false if the event can't be coalesced, e.g. once the
+   * plugin stopped, in which case it must be delivered right away.
+   */
+  boolean add(
+      ProjectEvent event,
+      RemoteConfig remote,
+      EventProcessor.Request request,
+      Delivery delivery) {
+    if (!remote.getCoalesceEvents().contains(event.getType())) {
+      // e.g. two comments on the same change are separate facts
+      return false;
+    }
+    Optional<String> subject = subject(event);
+    if (subject.isEmpty()) {
+      return false;
+    }
+    Key key =
+        new Key(
+            remote.getUrl(), event.getProjectNameKey().get(), event.getType(), subject.get());
+    // the payloads held for the window count towards the pending payload budget
+    PendingPayloads.Held payload = payloads.hold(request);
+    PendingPayloads.Held superseded = null;
+    boolean held;
+    synchronized (this) {
+      held = !stopped;
+      if (held) {
+        Pending current = pending.get(key);
+        if (current == null) {
+          current = new Pending();
+          pending.put(key, current);
+        }
+        superseded = current.payload;
+        current.event = event;
+        current.remote = remote;
+        current.payload = payload;
+        current.delivery = delivery;
+      }
+    }
+    if (!held) {
+      // nothing would deliver the event once the plugin stopped
+      payload.release();
+      return false;
+    }
+    if (superseded != null) {
+      superseded.release();
+      metrics.incrementCoalesced();
+    } else {
+      @SuppressWarnings("unused")
+      ScheduledFuture<?> ignored =
+          executor.schedule(() -> flush(key), remote.getCoalesceWindow(), TimeUnit.MILLISECONDS);
+    }
+    return true;
+  }
+
+  private void flush(Key key) {
+    Pending held;
+    synchronized (this) {
+      held = pending.remove(key);
+    }
+    if (held != null) {
+      deliver(held);
+    }
+  }
+
+  private static void deliver(Pending held) {
+    held.delivery.deliver(held.event, held.remote, held.payload.getRequest());
+    // the delivery holds the payload from now on
+    held.payload.release();
+  }
+
+  private static Optional<String> subject(ProjectEvent event) {
+    if (event instanceof ChangeEvent) {
+      ChangeEvent changeEvent = (ChangeEvent) event;
+      if (changeEvent.getChangeKey() != null) {
+        // the same Change-Id may be used by a change on each branch, e.g. cherry-picks
+        return Optional.of(changeEvent.getChangeKey().get() + " " + changeEvent.getRefName());
+      }
+    }
+    if (event instanceof RefEvent) {
+      return Optional.ofNullable(((RefEvent) event).getRefName());
+    }
+    return Optional.empty();
+  }
+}
@@ -0,0 +1,67 @@
+// Copyright (C) 2026 The Android Open Source Project
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.googlesource.gerrit.plugins.webhooks;
+
+import com.google.common.io.ByteSource;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.zip.GZIPOutputStream;
+
+/** How the body posted to a remote is compressed. */
+public enum Compression {
+  /** Post the body as is. */
+  NONE(null) {
+    @Override
+    OutputStream wrap(OutputStream out) {
+      return out;
+    }
+  },
+
+  /** Post the body compressed with gzip. */
+  GZIP("gzip") {
+    @Override
+    OutputStream wrap(OutputStream out) throws IOException {
+      return new GZIPOutputStream(out);
+    }
+  };
+
+  private final String contentEncoding;
+
+  Compression(String contentEncoding) {
+    this.contentEncoding = contentEncoding;
+  }
+
+  /** Returns the value of the {@code Content-Encoding} header, null if not compressed. */
+  String getContentEncoding() {
+    return contentEncoding;
+  }
+
+  ByteSource compress(ByteSource payload) {
+    if (this == NONE) {
+      return payload;
+    }
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    try (OutputStream out = wrap(bytes)) {
+      payload.copyTo(out);
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+    return ByteSource.wrap(bytes.toByteArray());
+  }
+
+  abstract OutputStream wrap(OutputStream out) throws IOException;
+}
@@ -14,14 +14,17 @@
 
 package com.googlesource.gerrit.plugins.webhooks;
 
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
 import com.google.common.flogger.FluentLogger;
 import com.google.gerrit.extensions.annotations.PluginName;
 import com.google.gerrit.server.config.PluginConfig;
 import com.google.gerrit.server.config.PluginConfigFactory;
 import com.google.inject.Inject;
 import com.google.inject.Singleton;
-import java.util.ArrayList;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
 import java.util.regex.Pattern;
 import java.util.regex.PatternSyntaxException;
 
@@ -36,12 +39,45 @@ public class Configuration {
   public static final String MAX_ALLOWED_SOCKET_TIMEOUT = "maxAllowedSocketTimeout";
   public static final String MAX_ALLOWED_TRIES = "maxAllowedTries";
   public static final String MAX_ALLOWED_RETRY_INTERVAL = "maxAllowedRetryInterval";
+  public static final String INGEST_QUEUE_SIZE = "ingestQueueSize";
+  public static final String INGEST_OVERFLOW_POLICY = "ingestOverflowPolicy";
+  public static final String INGEST_THREADS = "ingestThreads";
+  public static final String DELIVERY_ENGINE = "deliveryEngine";
+  public static final String VIRTUAL_THREADS = "virtualThreads";
+  public static final String RESPONSE_CAPTURE_SIZE = "responseCaptureSize";
+  public static final String MAX_CONNECTIONS = "maxConnections";
+  public static final String CONNECTION_IDLE_TIMEOUT = "connectionIdleTimeout";
+  public static final String PRIORITY_WEIGHT_SUFFIX = "PriorityWeight";
+  public static final String OUTBOX = "outbox";
+  public static final String OUTBOX_SEGMENT_SIZE = "outboxSegmentSize";
+  public static final String MAX_DEAD_LETTERS = "maxDeadLetters";
+  public static final String DEAD_LETTER_REPLAY_RATE = "deadLetterReplayRate";
+  public static final String PENDING_PAYLOAD_BUDGET = "pendingPayloadBudget";
 
   public static final int UNSET_CONFIG_INT = -1;
   public static final int DEFAULT_TIMEOUT_MS = 5000;
   public static final int DEFAULT_MAX_TRIES = 5;
   public static final int DEFAULT_RETRY_INTERVAL = 1000;
   private static final int DEFAULT_THREAD_POOL_SIZE = 2;
+  private static final int DEFAULT_INGEST_QUEUE_SIZE = 10000;
+  private static final int DEFAULT_INGEST_THREADS = 2;
+  private static final int DEFAULT_QUEUE_SIZE = 1000;
+  private static final int DEFAULT_MAX_RETRY_INTERVAL = 60000;
+  private static final int DEFAULT_CIRCUIT_BREAKER_THRESHOLD = 10;
+  private static final int DEFAULT_CIRCUIT_BREAKER_OPEN_INTERVAL = 30000;
+  private static final int DEFAULT_MAX_BATCH_SIZE = 100;
+  private static final int DEFAULT_MAX_BATCH_BYTES = 1024 * 1024;
+  private static final int DEFAULT_BATCH_LINGER = 100;
+  private static final int DEFAULT_COALESCE_WINDOW = 0;
+  // later events of these types make the earlier ones of the same change or ref moot
+  private static final String[] DEFAULT_COALESCE_EVENTS = {"ref-updated", "patchset-created"};
+  private static final int DEFAULT_RESPONSE_CAPTURE_SIZE = 1024;
+  private static final int DEFAULT_MAX_CONNECTIONS_PER_ROUTE = 100;
+  private static final int DEFAULT_MAX_CONNECTIONS = 200;
+  private static final int DEFAULT_CONNECTION_IDLE_TIMEOUT = 30000;
+  private static final long DEFAULT_OUTBOX_SEGMENT_SIZE = 16 * 1024 * 1024;
+  private static final int DEFAULT_MAX_DEAD_LETTERS = 1000;
+  private static final int DEFAULT_DEAD_LETTER_REPLAY_RATE = 10;
   public static final boolean DEFAULT_SSL_VERIFY = false;
 
   private final int connectionTimeout;
@@ -51,11 +87,45 @@ public class Configuration {
   private final int threadPoolSize;
   private final boolean sslVerify;
   private final String[] allowedEvents;
-  private final String[] allowedUrlPatterns;
+  private final ImmutableList<Pattern> allowedUrlPatterns;
   private final int maxAllowedConnectionTimeout;
   private final int maxAllowedSocketTimeout;
   private final int maxAllowedTries;
   private final int maxAllowedRetryInterval;
+  private final int ingestQueueSize;
+  private final OverflowPolicy ingestOverflowPolicy;
+  private final int ingestThreads;
+  private final DeliveryEngine deliveryEngine;
+  private final boolean virtualThreads;
+  private final int maxConcurrentPosts;
+  private final int queueSize;
+  private final OverflowPolicy overflowPolicy;
+  private final RetryBackoff retryBackoff;
+  private final int maxRetryInterval;
+  private final int circuitBreakerThreshold;
+  private final int circuitBreakerOpenInterval;
+  private final BatchFormat batchFormat;
+  private final int maxBatchSize;
+  private final int maxBatchBytes;
+  private final int batchLinger;
+  private final int coalesceWindow;
+  private final String[] coalesceEvents;
+  private final String[] highPriorityEvents;
+  private final String[] lowPriorityEvents;
+  private final Map<Priority, Integer> priorityWeights;
+  private final Compression compression;
+  private final boolean http2;
+  private final int responseCaptureSize;
+  private final int maxConnectionsPerRoute;
+  private final int maxConnections;
+  private final int connectionIdleTimeout;
+  private final int rateLimit;
+  private final int rateLimitBurst;
+  private final boolean outbox;
+  private final long outboxSegmentSize;
+  private final int maxDeadLetters;
+  private final int deadLetterReplayRate;
+  private final long pendingPayloadBudget;
 
   @Inject
   protected Configuration(PluginConfigFactory config, @PluginName String pluginName) {
@@ -67,11 +137,56 @@ public class Configuration {
     threadPoolSize = cfg.getInt(THREAD_POOL_SIZE, DEFAULT_THREAD_POOL_SIZE);
     sslVerify = cfg.getBoolean(RemoteConfig.SSL_VERIFY, DEFAULT_SSL_VERIFY);
     allowedEvents = cfg.getStringList(ALLOWED_EVENT);
-    allowedUrlPatterns = cfg.getStringList(ALLOWED_URL_PATTERN);
+    allowedUrlPatterns = compile(cfg.getStringList(ALLOWED_URL_PATTERN));
     maxAllowedConnectionTimeout = cfg.getInt(MAX_ALLOWED_CONNECTION_TIMEOUT, 0);
     maxAllowedSocketTimeout = cfg.getInt(MAX_ALLOWED_SOCKET_TIMEOUT, 0);
     maxAllowedTries = cfg.getInt(MAX_ALLOWED_TRIES, UNSET_CONFIG_INT);
     maxAllowedRetryInterval = cfg.getInt(MAX_ALLOWED_RETRY_INTERVAL, 0);
+    ingestQueueSize = cfg.getInt(INGEST_QUEUE_SIZE, DEFAULT_INGEST_QUEUE_SIZE);
+    ingestOverflowPolicy = cfg.getEnum(INGEST_OVERFLOW_POLICY, OverflowPolicy.CALLER_RUNS);
+    ingestThreads = Math.max(1, cfg.getInt(INGEST_THREADS, DEFAULT_INGEST_THREADS));
+    deliveryEngine = cfg.getEnum(DELIVERY_ENGINE, DeliveryEngine.BLOCKING);
+    virtualThreads = cfg.getBoolean(VIRTUAL_THREADS, false);
+    // unlimited by default, the remotes of a url are only bounded once they set a limit
+    maxConcurrentPosts = cfg.getInt(RemoteConfig.MAX_CONCURRENT_POSTS, 0);
+    queueSize = cfg.getInt(RemoteConfig.QUEUE_SIZE, DEFAULT_QUEUE_SIZE);
+    overflowPolicy = cfg.getEnum(RemoteConfig.OVERFLOW_POLICY, OverflowPolicy.CALLER_RUNS);
+    retryBackoff = cfg.getEnum(RemoteConfig.RETRY_BACKOFF, RetryBackoff.FIXED);
+    maxRetryInterval = cfg.getInt(RemoteConfig.MAX_RETRY_INTERVAL, DEFAULT_MAX_RETRY_INTERVAL);
+    circuitBreakerThreshold =
+        cfg.getInt(RemoteConfig.CIRCUIT_BREAKER_THRESHOLD, DEFAULT_CIRCUIT_BREAKER_THRESHOLD);
+    circuitBreakerOpenInterval =
+        cfg.getInt(
+            RemoteConfig.CIRCUIT_BREAKER_OPEN_INTERVAL, DEFAULT_CIRCUIT_BREAKER_OPEN_INTERVAL);
+    batchFormat = cfg.getEnum(RemoteConfig.BATCH_FORMAT, BatchFormat.NONE);
+    maxBatchSize = cfg.getInt(RemoteConfig.MAX_BATCH_SIZE, DEFAULT_MAX_BATCH_SIZE);
+    maxBatchBytes = cfg.getInt(RemoteConfig.MAX_BATCH_BYTES, DEFAULT_MAX_BATCH_BYTES);
+    batchLinger = cfg.getInt(RemoteConfig.BATCH_LINGER, DEFAULT_BATCH_LINGER);
+    coalesceWindow = cfg.getInt(RemoteConfig.COALESCE_WINDOW, DEFAULT_COALESCE_WINDOW);
+    String[] coalesce = cfg.getStringList(RemoteConfig.COALESCE_EVENT);
+    coalesceEvents = coalesce.length > 0 ? coalesce : DEFAULT_COALESCE_EVENTS;
+    highPriorityEvents = cfg.getStringList(RemoteConfig.HIGH_PRIORITY_EVENT);
+    lowPriorityEvents = cfg.getStringList(RemoteConfig.LOW_PRIORITY_EVENT);
+    ImmutableMap.Builder<Priority, Integer> weights = ImmutableMap.builder();
+    for (Priority priority : Priority.values()) {
+      String key = priority.name().toLowerCase(Locale.US) + PRIORITY_WEIGHT_SUFFIX;
+      weights.put(priority, cfg.getInt(key, priority.getDefaultWeight()));
+    }
+    priorityWeights = weights.build();
+    compression = cfg.getEnum(RemoteConfig.COMPRESSION, Compression.NONE);
+    http2 = cfg.getBoolean(RemoteConfig.HTTP2, false);
+    responseCaptureSize = cfg.getInt(RESPONSE_CAPTURE_SIZE, DEFAULT_RESPONSE_CAPTURE_SIZE);
+    maxConnectionsPerRoute =
+        cfg.getInt(RemoteConfig.MAX_CONNECTIONS_PER_ROUTE, DEFAULT_MAX_CONNECTIONS_PER_ROUTE);
+    maxConnections = cfg.getInt(MAX_CONNECTIONS, DEFAULT_MAX_CONNECTIONS);
+    connectionIdleTimeout = cfg.getInt(CONNECTION_IDLE_TIMEOUT, DEFAULT_CONNECTION_IDLE_TIMEOUT);
+    rateLimit = cfg.getInt(RemoteConfig.RATE_LIMIT, 0);
+    rateLimitBurst = cfg.getInt(RemoteConfig.RATE_LIMIT_BURST, 0);
+    outbox = cfg.getBoolean(OUTBOX, false);
+    outboxSegmentSize = cfg.getLong(OUTBOX_SEGMENT_SIZE, DEFAULT_OUTBOX_SEGMENT_SIZE);
+    maxDeadLetters = cfg.getInt(MAX_DEAD_LETTERS, DEFAULT_MAX_DEAD_LETTERS);
+    deadLetterReplayRate = cfg.getInt(DEAD_LETTER_REPLAY_RATE, DEFAULT_DEAD_LETTER_REPLAY_RATE);
+    pendingPayloadBudget = cfg.getLong(PENDING_PAYLOAD_BUDGET, 0);
   }
 
   public int getConnectionTimeout() {
@@ -103,7 +218,11 @@ public class Configuration {
   }
 
   public List<Pattern> getAllowedUrlPatterns() {
-    List<Pattern> patterns = new ArrayList<>();
+    return allowedUrlPatterns;
+  }
+
+  private static ImmutableList<Pattern> compile(String[] allowedUrlPatterns) {
+    ImmutableList.Builder<Pattern> patterns = ImmutableList.builder();
     for (String regex : allowedUrlPatterns) {
       try {
         patterns.add(Pattern.compile(regex));
@@ -112,7 +231,7 @@ public class Configuration {
             "Invalid webhook allowed URL pattern '%s' configured", regex);
       }
     }
-    return patterns;
+    return patterns.build();
   }
 
   public int getMaxAllowedConnectionTimeout() {
@@ -130,4 +249,140 @@ public class Configuration {
   public int getMaxAllowedRetryInterval() {
     return maxAllowedRetryInterval;
   }
+
+  public int getIngestQueueSize() {
+    return ingestQueueSize;
+  }
+
+  public OverflowPolicy getIngestOverflowPolicy() {
+    return ingestOverflowPolicy;
+  }
+
+  public int getIngestThreads() {
+    return ingestThreads;
+  }
+
+  public DeliveryEngine getDeliveryEngine() {
+    return deliveryEngine;
+  }
+
+  public boolean getVirtualThreads() {
+    return virtualThreads;
+  }
+
+  public int getMaxConcurrentPosts() {
+    return maxConcurrentPosts;
+  }
+
+  public int getQueueSize() {
+    return queueSize;
+  }
+
+  public OverflowPolicy getOverflowPolicy() {
+    return overflowPolicy;
+  }
+
+  public RetryBackoff getRetryBackoff() {
+    return retryBackoff;
+  }
+
+  public int getMaxRetryInterval() {
+    return maxRetryInterval;
+  }
+
+  public int getCircuitBreakerThreshold() {
+    return circuitBreakerThreshold;
+  }
+
+  public int getCircuitBreakerOpenInterval() {
+    return circuitBreakerOpenInterval;
+  }
+
+  public BatchFormat getBatchFormat() {
+    return batchFormat;
+  }
+
+  public int getMaxBatchSize() {
+    return maxBatchSize;
+  }
+
+  public int getMaxBatchBytes() {
+    return maxBatchBytes;
+  }
+
+  public int getBatchLinger() {
+    return batchLinger;
+  }
+
+  public int getCoalesceWindow() {
+    return coalesceWindow;
+  }
+
+  public String[] getCoalesceEvents() {
+    return coalesceEvents.clone();
+  }
+
+  public String[] getHighPriorityEvents() {
+    return highPriorityEvents.clone();
+  }
+
+  public String[] getLowPriorityEvents() {
+    return lowPriorityEvents.clone();
+  }
+
+  public int getPriorityWeight(Priority priority) {
+    return priorityWeights.get(priority);
+  }
+
+  public Compression getCompression() {
+    return compression;
+  }
+
+  public boolean getHttp2() {
+    return http2;
+  }
+
+  public int getResponseCaptureSize() {
+    return responseCaptureSize;
+  }
+
+  public int getMaxConnectionsPerRoute() {
+    return maxConnectionsPerRoute;
+  }
+
+  public int getMaxConnections() {
+    return maxConnections;
+  }
+
+  public int getConnectionIdleTimeout() {
+    return connectionIdleTimeout;
+  }
+
+  public int getRateLimit() {
+    return rateLimit;
+  }
+
+  public int getRateLimitBurst() {
+    return rateLimitBurst;
+  }
+
+  public boolean getOutbox() {
+    return outbox;
+  }
+
+  public long getOutboxSegmentSize() {
+    return outboxSegmentSize;
+  }
+
+  public int getMaxDeadLetters() {
+    return maxDeadLetters;
+  }
+
+  public int getDeadLetterReplayRate() {
+    return deadLetterReplayRate;
+  }
+
+  public long getPendingPayloadBudget() {
+    return pendingPayloadBudget;
+  }
 }
@@ -0,0 +1,181 @@
+// Copyright (C) 2026 The Android Open Source Project
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.googlesource.gerrit.plugins.webhooks;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.flogger.FluentLogger;
+import com.google.gerrit.common.Nullable;
+import com.google.gerrit.extensions.events.LifecycleListener;
+import com.google.inject.Inject;
+import com.google.inject.Singleton;
+import java.net.URI;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import org.apache.http.HttpHost;
+import org.apache.http.config.Registry;
+import org.apache.http.conn.routing.HttpRoute;
+import org.apache.http.conn.socket.ConnectionSocketFactory;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+import org.apache.http.pool.PoolStats;
+
+/**
+ * Creates the connection pools of the blocking HTTP clients, applies the per-remote limits to
+ * them, evicts their idle and expired connections in the background and exports their statistics.
+ */
+@Singleton
+class ConnectionPools implements LifecycleListener {
+  private static final FluentLogger log = FluentLogger.forEnclosingClass();
+  private static final int MAX_CONNECTION_INACTIVITY = 10000;
+  private static final long EVICTION_INTERVAL_MS = 5000;
+
+  private final Configuration cfg;
+  private final ScheduledExecutorService executor;
+  private final List<PoolingHttpClientConnectionManager> pools = new CopyOnWriteArrayList<>();
+  private final Map<HttpRoute, Integer> maxPerRoute = new ConcurrentHashMap<>();
+  private final Map<String, HttpRoute> routes = new ConcurrentHashMap<>();
+  private final SharedRemotes.Resolver<HttpRoute> remotes;
+  private ScheduledFuture<?> evictor;
+
+  @Inject
+  ConnectionPools(
+      Configuration cfg,
+      @WebHooksExecutor ScheduledExecutorService executor,
+      WebhooksMetrics metrics,
+      SharedRemotes sharedRemotes) {
+    this.cfg = cfg;
+    this.executor = executor;
+    this.remotes = sharedRemotes.resolver(this::route);
+    metrics.registerConnectionPoolStats(this::getStats);
+    metrics.registerConnectionRouteStats(this::getRouteStats);
+  }
+
+  @Override
+  public void start() {
+    if (cfg.getConnectionIdleTimeout() > 0) {
+      evictor =
+          executor.scheduleWithFixedDelay(
+              this::evict, EVICTION_INTERVAL_MS, EVICTION_INTERVAL_MS, TimeUnit.MILLISECONDS);
+    }
+  }
+
+  @Override
+  public void stop() {
+    if (evictor != null) {
+      evictor.cancel(false);
+      evictor = null;
+    }
+    pools.forEach(PoolingHttpClientConnectionManager::shutdown);
+    pools.clear();
+  }
+
+  PoolingHttpClientConnectionManager create(Registry<ConnectionSocketFactory> registry) {
+    PoolingHttpClientConnectionManager pool = new PoolingHttpClientConnectionManager(registry);
+    pool.setDefaultMaxPerRoute(cfg.getMaxConnectionsPerRoute());
+    pool.setMaxTotal(cfg.getMaxConnections());
+    pool.setValidateAfterInactivity(MAX_CONNECTION_INACTIVITY);
+    maxPerRoute.forEach(pool::setMaxPerRoute);
+    pools.add(pool);
+    return pool;
+  }
+
+  /**
+   * Applies the {@code maxConnectionsPerRoute} set for the remote, if any, to its host. The limit
+   * is resolved again whenever the remotes of a project changed: when several remotes set a limit
+   * for the same host, the highest one applies, and the default of the pools applies again when
+   * none of them sets one anymore.
+   */
+  void configure(RemoteConfig remote) {
+    HttpRoute route = route(remote);
+    if (route != null) {
+      remotes.resolve(route, remote, shared -> configure(route, shared));
+    }
+  }
+
+  private void configure(HttpRoute route, ImmutableList<RemoteConfig> shared) {
+    int max = shared.stream().mapToInt(RemoteConfig::getMaxConnectionsPerRoute).max().orElse(0);
+    if (max <= 0) {
+      if (maxPerRoute.remove(route) != null) {
+        pools.forEach(pool -> pool.setMaxPerRoute(route, cfg.getMaxConnectionsPerRoute()));
+      }
+      return;
+    }
+    Integer previous = maxPerRoute.put(route, max);
+    if (previous == null || previous != max) {
+      pools.forEach(pool -> pool.setMaxPerRoute(route, max));
+    }
+  }
+
+  /** Returns the route planned by the HTTP client when posting to the url. */
+  static HttpRoute route(String url) {
+    URI uri = URI.create(url);
+    boolean secure = "https".equalsIgnoreCase(uri.getScheme());
+    int port = uri.getPort() > 0 ? uri.getPort() : (secure ? 443 : 80);
+    return new HttpRoute(new HttpHost(uri.getHost(), port, uri.getScheme()), null, secure);
+  }
+
+  @Nullable
+  private HttpRoute route(RemoteConfig remote) {
+    return routes.computeIfAbsent(remote.getUrl(), ConnectionPools::routeOrNull);
+  }
+
+  @Nullable
+  private static HttpRoute routeOrNull(String url) {
+    try {
+      return route(url);
+    } catch (IllegalArgumentException e) {
+      log.atFine().withCause(e).log("Cannot apply the connection limit of %s", url);
+      return null;
+    }
+  }
+
+  private void evict() {
+    for (PoolingHttpClientConnectionManager pool : pools) {
+      pool.closeExpiredConnections();
+      pool.closeIdleConnections(cfg.getConnectionIdleTimeout(), TimeUnit.MILLISECONDS);
+    }
+  }
+
+  private PoolStats getStats() {
+    return pools.stream()
+        .map(PoolingHttpClientConnectionManager::getTotalStats)
+        .reduce(new PoolStats(0, 0, 0, 0), ConnectionPools::sum);
+  }
+
+  /** Returns the statistics of the connections to each host, e.g. {@code foo.org:443}. */
+  Map<String, PoolStats> getRouteStats() {
+    Map<String, PoolStats> stats = new HashMap<>();
+    for (PoolingHttpClientConnectionManager pool : pools) {
+      for (HttpRoute route : pool.getRoutes()) {
+        stats.merge(
+            route.getTargetHost().toHostString(), pool.getStats(route), ConnectionPools::sum);
+      }
+    }
+    return stats;
+  }
+
+  private static PoolStats sum(PoolStats a, PoolStats b) {
+    return new PoolStats(
+        a.getLeased() + b.getLeased(),
+        a.getPending() + b.getPending(),
+        a.getAvailable() + b.getAvailable(),
+        a.getMax() + b.getMax());
+  }
+}
@@ -0,0 +1,54 @@
+// Copyright (C) 2026 The Android Open Source Project
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.googlesource.gerrit.plugins.webhooks;
+
+import java.time.Instant;
+
+/** Delivery that was given up, kept to be inspected and replayed. */
+public class DeadLetter {
+  private final long id;
+  private final Instant failedOn;
+  private final int attempts;
+  private final String reason;
+  private final RecordedDelivery delivery;
+
+  DeadLetter(long id, Instant failedOn, int attempts, String reason, RecordedDelivery delivery) {
+    this.id = id;
+    this.failedOn = failedOn;
+    this.attempts = attempts;
+    this.reason = reason;
+    this.delivery = delivery;
+  }
+
+  public long getId() {
+    return id;
+  }
+
+  public Instant getFailedOn() {
+    return failedOn;
+  }
+
+  public int getAttempts() {
+    return attempts;
+  }
+
+  public String getReason() {
+    return reason;
+  }
+
+  public RecordedDelivery getDelivery() {
+    return delivery;
+  }
+}
@@ -0,0 +1,315 @@
+// Copyright (C) 2026 The Android Open Source Project
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.googlesource.gerrit.plugins.webhooks;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.flogger.FluentLogger;
+import com.google.common.hash.Hashing;
+import com.google.gerrit.common.Nullable;
+import com.google.gerrit.entities.Project;
+import com.google.gerrit.extensions.annotations.PluginData;
+import com.google.gerrit.extensions.events.LifecycleListener;
+import com.google.gerrit.server.events.ProjectEvent;
+import com.google.gerrit.server.project.NoSuchProjectException;
+import com.google.inject.Inject;
+import com.google.inject.Provider;
+import com.google.inject.Singleton;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.OptionalInt;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Keeps the deliveries that were given up in a journal per project and remote, up to {@code
+ * maxDeadLetters} of them, so that they can be inspected, purged and replayed. Replayed deliveries
+ * are spread according to {@code deadLetterReplayRate} so that a remote that just recovered is not
+ * flooded.
+ */
+@Singleton
+public class DeadLetters implements LifecycleListener {
+  private static final FluentLogger log = FluentLogger.forEnclosingClass();
+
+  private static final String DIRECTORY = "dead-letters";
+  private static final long SEGMENT_SIZE = 4 * 1024 * 1024;
+  // writeUTF is limited to 64KiB, the reason is only kept to be displayed
+  private static final int MAX_REASON_LENGTH = 1024;
+
+  private final Path dir;
+  private final int maxDeadLetters;
+  private final long replayIntervalNanos;
+  private final ScheduledExecutorService executor;
+  private final RemotesCache remotesCache;
+  private final Provider<PostTask.Factory> taskFactory;
+  private final WebhooksMetrics metrics;
+  private final Map<String, OutboxJournal> journals = new ConcurrentHashMap<>();
+  // the replays are paced per remote URL
+  private final Map<String, AtomicLong> nextReplay = new ConcurrentHashMap<>();
+
+  @Inject
+  DeadLetters(
+      Configuration cfg,
+      @PluginData Path dataDir,
+      @WebHooksExecutor ScheduledExecutorService executor,
+      RemotesCache remotesCache,
+      Provider<PostTask.Factory> taskFactory,
+      WebhooksMetrics metrics) {
+    this.dir = dataDir.resolve(DIRECTORY);
+    this.maxDeadLetters = cfg.getMaxDeadLetters();
+    this.replayIntervalNanos =
+        cfg.getDeadLetterReplayRate() > 0
+            ? TimeUnit.SECONDS.toNanos(1) / cfg.getDeadLetterReplayRate()
+            : 0;
+    this.executor = executor;
+    this.remotesCache = remotesCache;
+    this.taskFactory = taskFactory;
+    this.metrics = metrics;
+  }
+
+  @Override
+  public void start() {
+    // journals are opened when they are first used
+  }
+
+  @Override
+  public void stop() {
+    for (OutboxJournal journal : journals.values()) {
+      try {
+        journal.close();
+      } catch (IOException e) {
+        log.atWarning().withCause(e).log("Failed to close dead letters journal");
+      }
+    }
+    journals.clear();
+  }
+
+  /** Keeps a delivery that was given up, dropping the oldest one of the remote if needed. */
+  void add(
+      ProjectEvent event,
+      RemoteConfig remote,
+      EventProcessor.Request content,
+      int attempts,
+      String reason) {
+    if (maxDeadLetters <= 0) {
+      return;
+    }
+    try {
+      OutboxJournal journal = journal(event.getProjectNameKey(), remote.getName(), true).get();
+      journal.append(encode(event, remote, content, attempts, reason));
+      metrics.incrementDeadLetters();
+      ImmutableList<Long> ids = journal.getPendingIds();
+      if (ids.size() > maxDeadLetters) {
+        for (long id : ids.subList(0, ids.size() - maxDeadLetters)) {
+          journal.ack(id);
+        }
+        journal.compact();
+      }
+    } catch (IOException | UncheckedIOException e) {
+      log.atSevere().withCause(e).log(
+          "Failed to keep the dead letter of %s for remote %s", event, remote.getUrl());
+    }
+  }
+
+  /** Returns the dead letters of the remote, oldest first. */
+  public ImmutableList<DeadLetter> list(Project.NameKey project, String remoteName)
+      throws IOException {
+    Optional<OutboxJournal> journal = journal(project, remoteName, false);
+    if (journal.isEmpty()) {
+      return ImmutableList.of();
+    }
+    ImmutableList.Builder<DeadLetter> letters = ImmutableList.builder();
+    for (long id : journal.get().getPendingIds()) {
+      Optional<byte[]> data = journal.get().read(id);
+      if (data.isPresent()) {
+        letters.add(decode(id, data.get()));
+      }
+    }
+    return letters.build();
+  }
+
+  public Optional<DeadLetter> get(Project.NameKey project, String remoteName, long id)
+      throws IOException {
+    Optional<OutboxJournal> journal = journal(project, remoteName, false);
+    if (journal.isEmpty()) {
+      return Optional.empty();
+    }
+    Optional<byte[]> data = journal.get().read(id);
+    if (data.isEmpty()) {
+      return Optional.empty();
+    }
+    return Optional.of(decode(id, data.get()));
+  }
+
+  /** Removes the given dead letters of the remote, or all of them, and returns how many. */
+  public int purge(Project.NameKey project, String remoteName, @Nullable List<Long> ids)
+      throws IOException {
+    Optional<OutboxJournal> journal = journal(project, remoteName, false);
+    if (journal.isEmpty()) {
+      return 0;
+    }
+    int purged = 0;
+    for (long id : ids != null ? ids : journal.get().getPendingIds()) {
+      if (journal.get().read(id).isPresent()) {
+        journal.get().ack(id);
+        purged++;
+      }
+    }
+    journal.get().compact();
+    return purged;
+  }
+
+  /**
+   * Schedules the given dead letters of the remote, or all of them, to be posted again and returns
+   * how many. A dead letter is removed once its delivery is scheduled and is kept again if it
+   * fails again. Returns empty if the remote isn't one of the remotes of the project anymore.
+   */
+  public OptionalInt replay(Project.NameKey project, String remoteName, @Nullable List<Long> ids)
+      throws IOException, NoSuchProjectException {
+    Optional<RemoteConfig> remote = remotesCache.get(project).getRemote(remoteName);
+    if (remote.isEmpty()) {
+      return OptionalInt.empty();
+    }
+    Optional<OutboxJournal> journal = journal(project, remoteName, false);
+    if (journal.isEmpty()) {
+      return OptionalInt.of(0);
+    }
+    int scheduled = 0;
+    for (long id : ids != null ? ids : journal.get().getPendingIds()) {
+      if (journal.get().read(id).isEmpty()) {
+        continue;
+      }
+      @SuppressWarnings("unused")
+      ScheduledFuture<?> ignored =
+          executor.schedule(
+              () -> replay(journal.get(), remote.get(), id),
+              nextReplayDelay(remote.get().getUrl()),
+              TimeUnit.NANOSECONDS);
+      scheduled++;
+    }
+    return OptionalInt.of(scheduled);
+  }
+
+  private long nextReplayDelay(String url) {
+    long now = System.nanoTime();
+    long previous =
+        nextReplay
+            .computeIfAbsent(url, u -> new AtomicLong(now))
+            .getAndAccumulate(now, (next, n) -> Math.max(next, n) + replayIntervalNanos);
+    return Math.max(previous, now) - now;
+  }
+
+  private void replay(OutboxJournal journal, RemoteConfig remote, long id) {
+    try {
+      // the dead letter may have been purged or replayed in the meantime
+      Optional<byte[]> data = journal.read(id);
+      if (data.isEmpty()) {
+        return;
+      }
+      RecordedDelivery delivery = decode(id, data.get()).getDelivery();
+      // removed before it is scheduled, so that a concurrent replay doesn't post it twice
+      if (!journal.ack(id)) {
+        return;
+      }
+      journal.compact();
+      try {
+        taskFactory.get().create(delivery.toEvent(), remote, delivery.getContent()).schedule();
+      } catch (RuntimeException e) {
+        journal.append(data.get());
+        throw e;
+      }
+    } catch (IOException | RuntimeException e) {
+      log.atSevere().withCause(e).log(
+          "Failed to replay dead letter %d of remote %s", id, remote.getUrl());
+    }
+  }
+
+  private Optional<OutboxJournal> journal(
+      Project.NameKey project, String remoteName, boolean create) {
+    String key =
+        Hashing.murmur3_128().hashString(project.get() + "\n" + remoteName, UTF_8).toString();
+    OutboxJournal journal = journals.get(key);
+    if (journal != null) {
+      return Optional.of(journal);
+    }
+    Path journalDir = dir.resolve(key);
+    if (!create && !Files.isDirectory(journalDir)) {
+      return Optional.empty();
+    }
+    try {
+      return Optional.of(
+          journals.computeIfAbsent(
+              key,
+              k -> {
+                OutboxJournal opened = new OutboxJournal(journalDir, SEGMENT_SIZE);
+                try {
+                  opened.open();
+                } catch (IOException e) {
+                  throw new UncheckedIOException(e);
+                }
+                return opened;
+              }));
+    } catch (UncheckedIOException e) {
+      if (create) {
+        throw e;
+      }
+      // the dead letters of the remote can't be read, report them as missing
+      log.atSevere().withCause(e.getCause()).log(
+          "Failed to open the dead letters journal %s", journalDir);
+      return Optional.empty();
+    }
+  }
+
+  private static byte[] encode(
+      ProjectEvent event,
+      RemoteConfig remote,
+      EventProcessor.Request content,
+      int attempts,
+      String reason)
+      throws IOException {
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    try (DataOutputStream out = new DataOutputStream(bytes)) {
+      out.writeLong(Instant.now().toEpochMilli());
+      out.writeInt(attempts);
+      out.writeUTF(
+          reason.length() > MAX_REASON_LENGTH ? reason.substring(0, MAX_REASON_LENGTH) : reason);
+      RecordedDelivery.write(out, event, remote, content);
+    }
+    return bytes.toByteArray();
+  }
+
+  private static DeadLetter decode(long id, byte[] data) throws IOException {
+    try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(data))) {
+      Instant failedOn = Instant.ofEpochMilli(in.readLong());
+      int attempts = in.readInt();
+      String reason = in.readUTF();
+      return new DeadLetter(id, failedOn, attempts, reason, RecordedDelivery.read(in));
+    }
+  }
+}
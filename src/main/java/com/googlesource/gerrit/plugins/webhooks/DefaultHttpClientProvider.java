@@ -18,12 +18,14 @@ import com.google.common.flogger.FluentLogger;
 import com.google.gerrit.common.Nullable;
 import com.google.inject.Inject;
 import com.google.inject.Provider;
+import java.net.Socket;
 import java.security.KeyManagementException;
 import java.security.NoSuchAlgorithmException;
 import java.security.cert.X509Certificate;
 import javax.net.ssl.SSLContext;
+import javax.net.ssl.SSLEngine;
 import javax.net.ssl.TrustManager;
-import javax.net.ssl.X509TrustManager;
+import javax.net.ssl.X509ExtendedTrustManager;
 import org.apache.http.config.Registry;
 import org.apache.http.config.RegistryBuilder;
 import org.apache.http.conn.socket.ConnectionSocketFactory;
@@ -38,8 +40,8 @@ class DefaultHttpClientProvider extends HttpClientProvider {
   static final String DEFAULT = "default";
 
   @Inject
-  protected DefaultHttpClientProvider(Configuration cfg) {
-    super(cfg, socketFactoryProvider());
+  protected DefaultHttpClientProvider(Configuration cfg, ConnectionPools pools) {
+    super(cfg, pools, socketFactoryProvider());
   }
 
   private static Provider<Registry<ConnectionSocketFactory>> socketFactoryProvider() {
@@ -53,7 +55,7 @@ class DefaultHttpClientProvider extends HttpClientProvider {
   }
 
   @Nullable
-  private static SSLContext buildSslContext() {
+  static SSLContext buildSslContext() {
     try {
       TrustManager[] trustAllCerts = new TrustManager[] {new DummyX509TrustManager()};
       SSLContext context = SSLContext.getInstance("TLS");
@@ -65,7 +67,8 @@ class DefaultHttpClientProvider extends HttpClientProvider {
     }
   }
 
-  private static class DummyX509TrustManager implements X509TrustManager {
+  // extends X509ExtendedTrustManager so that also the JDK HTTP client skips the host name check
+  private static class DummyX509TrustManager extends X509ExtendedTrustManager {
     @Override
     public X509Certificate[] getAcceptedIssuers() {
       return new X509Certificate[0];
@@ -80,5 +83,25 @@ class DefaultHttpClientProvider extends HttpClientProvider {
     public void checkServerTrusted(X509Certificate[] certs, String authType) {
       // no check
     }
+
+    @Override
+    public void checkClientTrusted(X509Certificate[] certs, String authType, Socket socket) {
+      // no check
+    }
+
+    @Override
+    public void checkServerTrusted(X509Certificate[] certs, String authType, Socket socket) {
+      // no check
+    }
+
+    @Override
+    public void checkClientTrusted(X509Certificate[] certs, String authType, SSLEngine engine) {
+      // no check
+    }
+
+    @Override
+    public void checkServerTrusted(X509Certificate[] certs, String authType, SSLEngine engine) {
+      // no check
+    }
   }
 }
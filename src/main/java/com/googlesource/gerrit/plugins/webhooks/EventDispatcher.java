@@ -0,0 +1,85 @@
+// Copyright (C) 2026 The Android Open Source Project
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.googlesource.gerrit.plugins.webhooks;
+
+import com.google.common.flogger.FluentLogger;
+import com.google.gerrit.server.events.ProjectEvent;
+import com.google.gerrit.server.project.NoSuchProjectException;
+import com.google.inject.Inject;
+import com.google.inject.Singleton;
+import java.util.Optional;
+
+/**
+ * Resolves the remotes subscribed to an event, processes the event for each of them and schedules
+ * the resulting {@link PostTask}s. Runs on the {@link IngestQueue} thread.
+ */
+@Singleton
+class EventDispatcher {
+  private static final FluentLogger log = FluentLogger.forEnclosingClass();
+
+  private final RemotesCache remotesCache;
+  private final PostTask.Factory taskFactory;
+  private final Batcher batcher;
+  private final Coalescer coalescer;
+  private final EventProcessor processor;
+
+  @Inject
+  EventDispatcher(
+      RemotesCache remotesCache,
+      PostTask.Factory taskFactory,
+      Batcher batcher,
+      Coalescer coalescer,
+      EventProcessor processor) {
+    this.remotesCache = remotesCache;
+    this.taskFactory = taskFactory;
+    this.batcher = batcher;
+    this.coalescer = coalescer;
+    this.processor = processor;
+  }
+
+  void dispatch(ProjectEvent projectEvent) {
+    ProjectRemotes remotes;
+    try {
+      remotes = remotesCache.get(projectEvent.getProjectNameKey());
+    } catch (NoSuchProjectException e) {
+      log.atWarning().log(
+          "Ignoring event for a non-existing project %s, %s",
+          projectEvent.getProjectNameKey().get(), projectEvent);
+      return;
+    }
+
+    for (RemoteConfig remote : remotes.getRemotes(projectEvent.getType())) {
+      Optional<EventProcessor.Request> content = processor.process(projectEvent, remote);
+      if (content.isEmpty()) {
+        log.atFine().log(
+            "No content (rejected by processing). Webhook [%s] skipped.", remote.getUrl());
+        continue;
+      }
+      if (remote.getCoalesceWindow() <= 0
+          || !coalescer.add(projectEvent, remote, content.get(), this::deliver)) {
+        deliver(projectEvent, remote, content.get());
+      }
+    }
+  }
+
+  private void deliver(
+      ProjectEvent projectEvent, RemoteConfig remote, EventProcessor.Request content) {
+    if (remote.getBatchFormat() == BatchFormat.NONE) {
+      taskFactory.create(projectEvent, remote, content).schedule();
+    } else {
+      batcher.add(projectEvent, remote, content);
+    }
+  }
+}
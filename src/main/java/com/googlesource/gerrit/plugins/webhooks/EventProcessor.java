@@ -14,31 +14,105 @@
 
 package com.googlesource.gerrit.plugins.webhooks;
 
+import static java.nio.charset.StandardCharsets.UTF_8;
+
 import com.google.common.base.MoreObjects;
+import com.google.common.io.ByteSource;
+import com.google.gerrit.common.Nullable;
 import com.google.gerrit.server.events.ProjectEvent;
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.util.Collections;
 import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
 
 public interface EventProcessor {
   public class Request {
-    public final String body;
     public final Map<String, String> headers;
 
+    /**
+     * The body as given to the constructor taking both the body and its {@code payload}, null
+     * otherwise: the requests created from a string body only keep its UTF-8 encoded bytes.
+     *
+     * @deprecated use {@link #getBody()}, which decodes the payload if needed.
+     */
+    @Deprecated @Nullable public final String body;
+
+    private final ByteSource payload;
+    // compressed once for all the remotes with the same compression
+    private final Map<Compression, ByteSource> compressed = new ConcurrentHashMap<>();
+
     public Request(String body) {
       this(body, null);
     }
 
     public Request(String body, Map<String, String> headers) {
+      this(null, ByteSource.wrap(body.getBytes(UTF_8)), headers);
+    }
+
+    /**
+     * Creates a request whose body is already encoded as UTF-8 {@code payload}. The request may
+     * be shared by the tasks posting the same event to several remotes.
+     */
+    public Request(@Nullable String body, ByteSource payload, Map<String, String> headers) {
       this.body = body;
+      this.payload = payload;
       this.headers = Optional.ofNullable(headers).orElse(Collections.emptyMap());
     }
 
+    /**
+     * Creates a request whose body only exists as its UTF-8 encoded {@code payload}, e.g. an event
+     * serialized straight to bytes, so that it isn't kept on heap as a string too.
+     */
+    public Request(ByteSource payload, Map<String, String> headers) {
+      this(null, payload, headers);
+    }
+
+    /** Returns the body that is posted to the remote, decoding the payload if needed. */
+    public String getBody() {
+      if (body != null) {
+        return body;
+      }
+      try {
+        return payload.asCharSource(UTF_8).read();
+      } catch (IOException e) {
+        throw new UncheckedIOException(e);
+      }
+    }
+
+    /** Returns the approximate number of bytes of heap held by the request. */
+    long getHeapSize() {
+      // a retained string body takes up to two bytes per char on top of the payload bytes
+      return (body != null ? 2L * body.length() : 0) + payload.sizeIfKnown().or(0L);
+    }
+
+    /** Returns the UTF-8 encoded body that is posted to the remote. */
+    public ByteSource getPayload() {
+      return payload;
+    }
+
+    /** Returns the body that is posted to the remote, compressed as requested. */
+    public ByteSource getPayload(Compression compression) {
+      if (compression == Compression.NONE) {
+        return payload;
+      }
+      return compressed.computeIfAbsent(compression, c -> c.compress(payload));
+    }
+
     @Override
     public String toString() {
-      return MoreObjects.toStringHelper(this).add("headers", headers).add("body", body).toString();
+      return MoreObjects.toStringHelper(this)
+          .add("headers", headers)
+          .add("body", getBody())
+          .toString();
     }
   }
 
+  /**
+   * Returns the request posting the event to the remote, or empty to skip the remote. Only called
+   * for the remotes subscribed to the type of the event, i.e. listing it in their {@code event}
+   * settings or having none.
+   */
   Optional<Request> process(ProjectEvent event, RemoteConfig remote);
 }
@@ -14,18 +14,37 @@
 
 package com.googlesource.gerrit.plugins.webhooks;
 
+import com.google.common.flogger.FluentLogger;
 import com.google.gerrit.extensions.annotations.PluginName;
 import com.google.gerrit.extensions.events.LifecycleListener;
 import com.google.gerrit.server.git.WorkQueue;
 import com.google.inject.Inject;
 import com.google.inject.Provider;
+import com.google.inject.Singleton;
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
 import java.util.concurrent.ScheduledExecutorService;
 
+@Singleton
 class ExecutorProvider implements Provider<ScheduledExecutorService>, LifecycleListener {
+  private static final FluentLogger log = FluentLogger.forEnclosingClass();
+
   private ScheduledExecutorService executor;
 
   @Inject
   ExecutorProvider(WorkQueue workQueue, Configuration cfg, @PluginName String name) {
+    if (cfg.getVirtualThreads()) {
+      Optional<ExecutorService> virtual =
+          VirtualThreadExecutor.newVirtualThreadPerTaskExecutor(name + "-");
+      if (virtual.isPresent()) {
+        // a single scheduler thread is enough to hand the delayed tasks over
+        executor = new VirtualThreadExecutor(workQueue.createQueue(1, name), virtual.get());
+        return;
+      }
+      log.atWarning().log(
+          "Virtual threads are not supported by this JVM, using %d threads instead",
+          cfg.getThreadPoolSize());
+    }
     executor = workQueue.createQueue(cfg.getThreadPoolSize(), name);
   }
 
@@ -0,0 +1,195 @@
+// Copyright (C) 2026 The Android Open Source Project
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.googlesource.gerrit.plugins.webhooks;
+
+import com.google.common.base.Splitter;
+import com.google.common.collect.ImmutableMap;
+import com.google.gson.Gson;
+import com.google.gson.stream.JsonWriter;
+import java.io.IOException;
+import java.lang.reflect.Array;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * JSON paths of the event fields posted to a remote, compiled from its {@code field}s into a tree
+ * once per configuration. Only the requested fields are serialized and the lazily resolved
+ * attributes of the events are only evaluated when a field below them is requested.
+ */
+public final class FieldProjection {
+  /** Projection of the remotes that didn't configure any field, the whole event is posted. */
+  public static final FieldProjection ALL = new FieldProjection(null);
+
+  private static final Splitter PATH_SPLITTER = Splitter.on('.').trimResults().omitEmptyStrings();
+  private static final Map<Class<?>, Map<String, Field>> FIELDS = new ConcurrentHashMap<>();
+
+  /** Compiles the paths, a path selects the whole value when another path goes below it. */
+  public static FieldProjection compile(String... paths) {
+    if (paths.length == 0) {
+      return ALL;
+    }
+    Map<String, Object> root = new LinkedHashMap<>();
+    for (String path : paths) {
+      add(root, path);
+    }
+    return new FieldProjection(freeze(root));
+  }
+
+  @SuppressWarnings("unchecked")
+  private static void add(Map<String, Object> root, String path) {
+    Map<String, Object> node = root;
+    for (String name : PATH_SPLITTER.split(path)) {
+      Map<String, Object> child = (Map<String, Object>) node.get(name);
+      if (child == null) {
+        child = new LinkedHashMap<>();
+        node.put(name, child);
+      } else if (child.isEmpty()) {
+        // an enclosing path already selects the whole value
+        return;
+      }
+      node = child;
+    }
+    if (node != root) {
+      // select the whole value, it may have been selected partially before
+      node.clear();
+    }
+  }
+
+  @SuppressWarnings("unchecked")
+  private static ImmutableMap<String, FieldProjection> freeze(Map<String, Object> node) {
+    ImmutableMap.Builder<String, FieldProjection> children = ImmutableMap.builder();
+    for (Map.Entry<String, Object> child : node.entrySet()) {
+      Map<String, Object> grandChildren = (Map<String, Object>) child.getValue();
+      children.put(
+          child.getKey(),
+          grandChildren.isEmpty() ? ALL : new FieldProjection(freeze(grandChildren)));
+    }
+    return children.build();
+  }
+
+  // null when the whole value is selected
+  private final ImmutableMap<String, FieldProjection> children;
+
+  private FieldProjection(ImmutableMap<String, FieldProjection> children) {
+    this.children = children;
+  }
+
+  public boolean isAll() {
+    return children == null;
+  }
+
+  /**
+   * Writes the projection of the value, the values that are selected entirely are serialized by
+   * {@code gson}. Fields that don't exist are left out.
+   */
+  public void write(Gson gson, JsonWriter out, Object value) throws IOException {
+    value = resolve(value);
+    if (value == null) {
+      out.nullValue();
+    } else if (isAll() || isScalar(value)) {
+      gson.toJson(value, value.getClass(), out);
+    } else if (value instanceof Iterable) {
+      out.beginArray();
+      for (Object element : (Iterable<?>) value) {
+        write(gson, out, element);
+      }
+      out.endArray();
+    } else if (value.getClass().isArray()) {
+      out.beginArray();
+      for (int i = 0; i < Array.getLength(value); i++) {
+        write(gson, out, Array.get(value, i));
+      }
+      out.endArray();
+    } else {
+      out.beginObject();
+      for (Map.Entry<String, FieldProjection> child : children.entrySet()) {
+        Object childValue = get(value, child.getKey());
+        if (childValue != null) {
+          out.name(child.getKey());
+          child.getValue().write(gson, out, childValue);
+        }
+      }
+      out.endObject();
+    }
+  }
+
+  private static boolean isScalar(Object value) {
+    return value instanceof CharSequence
+        || value instanceof Number
+        || value instanceof Boolean
+        || value instanceof Character
+        || value instanceof Enum;
+  }
+
+  private static Object resolve(Object value) {
+    // the attributes of the events are resolved lazily, like the SupplierSerializer does
+    return value instanceof Supplier ? ((Supplier<?>) value).get() : value;
+  }
+
+  private static Object get(Object value, String name) {
+    if (value instanceof Map) {
+      return ((Map<?, ?>) value).get(name);
+    }
+    Field field = FIELDS.computeIfAbsent(value.getClass(), FieldProjection::fields).get(name);
+    if (field == null) {
+      return null;
+    }
+    try {
+      return field.get(value);
+    } catch (IllegalAccessException e) {
+      return null;
+    }
+  }
+
+  /** Returns the fields Gson serializes, by name, those of the subclasses hiding the others. */
+  private static Map<String, Field> fields(Class<?> type) {
+    Map<String, Field> fields = new HashMap<>();
+    for (Class<?> c = type; c != null && c != Object.class; c = c.getSuperclass()) {
+      for (Field field : c.getDeclaredFields()) {
+        int modifiers = field.getModifiers();
+        if (Modifier.isStatic(modifiers)
+            || Modifier.isTransient(modifiers)
+            || field.isSynthetic()
+            || fields.containsKey(field.getName())) {
+          continue;
+        }
+        try {
+          field.setAccessible(true);
+        } catch (RuntimeException e) {
+          continue;
+        }
+        fields.put(field.getName(), field);
+      }
+    }
+    return fields;
+  }
+
+  @Override
+  public boolean equals(Object o) {
+    return o instanceof FieldProjection
+        && Objects.equals(children, ((FieldProjection) o).children);
+  }
+
+  @Override
+  public int hashCode() {
+    return Objects.hashCode(children);
+  }
+}
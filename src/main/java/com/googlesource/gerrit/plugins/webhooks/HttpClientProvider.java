@@ -14,45 +14,35 @@
 
 package com.googlesource.gerrit.plugins.webhooks;
 
-import static com.google.common.flogger.LazyArgs.lazy;
-
-import com.google.common.flogger.FluentLogger;
 import com.google.inject.Provider;
-import org.apache.http.HttpResponse;
-import org.apache.http.client.ServiceUnavailableRetryStrategy;
 import org.apache.http.client.config.RequestConfig;
 import org.apache.http.config.Registry;
-import org.apache.http.conn.HttpClientConnectionManager;
 import org.apache.http.conn.socket.ConnectionSocketFactory;
 import org.apache.http.impl.client.CloseableHttpClient;
 import org.apache.http.impl.client.HttpClients;
-import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
-import org.apache.http.protocol.HttpContext;
 
 /** Provides an HTTP client with SSL capabilities. */
 abstract class HttpClientProvider implements Provider<CloseableHttpClient> {
-  private static final FluentLogger log = FluentLogger.forEnclosingClass();
-  private static final int CONNECTIONS_PER_ROUTE = 100;
-  // Up to 2 target instances with the max number of connections per host:
-  private static final int MAX_CONNECTIONS = 2 * CONNECTIONS_PER_ROUTE;
-  private static final int ERROR_CODES = 500;
-  private static final int MAX_CONNECTION_INACTIVITY = 10000;
-
   private final Configuration cfg;
+  private final ConnectionPools pools;
   private final Provider<Registry<ConnectionSocketFactory>> socketMgr;
 
   protected HttpClientProvider(
-      Configuration cfg, Provider<Registry<ConnectionSocketFactory>> socketMgr) {
+      Configuration cfg,
+      ConnectionPools pools,
+      Provider<Registry<ConnectionSocketFactory>> socketMgr) {
     this.cfg = cfg;
+    this.pools = pools;
     this.socketMgr = socketMgr;
   }
 
   @Override
   public CloseableHttpClient get() {
     return HttpClients.custom()
-        .setConnectionManager(create(socketMgr.get()))
+        .setConnectionManager(pools.create(socketMgr.get()))
         .setDefaultRequestConfig(customRequestConfig())
-        .setServiceUnavailableRetryStrategy(customServiceUnavailRetryStrategy())
+        // retries are only scheduled by PostTask so that no thread sleeps between them
+        .disableAutomaticRetries()
         .build();
   }
 
@@ -63,41 +53,4 @@ abstract class HttpClientProvider implements Provider<CloseableHttpClient> {
         .setConnectionRequestTimeout(cfg.getConnectionTimeout())
         .build();
   }
-
-  private ServiceUnavailableRetryStrategy customServiceUnavailRetryStrategy() {
-    return new ServiceUnavailableRetryStrategy() {
-      @Override
-      public boolean retryRequest(HttpResponse response, int executionCount, HttpContext context) {
-        if (executionCount > cfg.getMaxTries()) {
-          return false;
-        }
-        if (response.getStatusLine().getStatusCode() >= ERROR_CODES) {
-          logRetry(response.getStatusLine().getReasonPhrase(), context);
-          return true;
-        }
-        return false;
-      }
-
-      @Override
-      public long getRetryInterval() {
-        return cfg.getRetryInterval();
-      }
-    };
-  }
-
-  private void logRetry(String cause, HttpContext context) {
-    log.atFine().log(
-        "Retrying request caused by '%s', request: '%s'",
-        cause, lazy(() -> context.getAttribute("http.request")));
-  }
-
-  private HttpClientConnectionManager create(
-      Registry<ConnectionSocketFactory> socketFactoryRegistry) {
-    PoolingHttpClientConnectionManager connManager =
-        new PoolingHttpClientConnectionManager(socketFactoryRegistry);
-    connManager.setDefaultMaxPerRoute(CONNECTIONS_PER_ROUTE);
-    connManager.setMaxTotal(MAX_CONNECTIONS);
-    connManager.setValidateAfterInactivity(MAX_CONNECTION_INACTIVITY);
-    return connManager;
-  }
 }
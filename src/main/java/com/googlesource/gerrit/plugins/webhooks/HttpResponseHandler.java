@@ -14,52 +14,230 @@
 
 package com.googlesource.gerrit.plugins.webhooks;
 
+import static java.nio.charset.StandardCharsets.UTF_8;
 import static javax.servlet.http.HttpServletResponse.SC_CREATED;
+import static javax.servlet.http.HttpServletResponse.SC_INTERNAL_SERVER_ERROR;
 import static javax.servlet.http.HttpServletResponse.SC_NO_CONTENT;
 import static javax.servlet.http.HttpServletResponse.SC_OK;
 import static javax.servlet.http.HttpServletResponse.SC_ACCEPTED;
+import static javax.servlet.http.HttpServletResponse.SC_SERVICE_UNAVAILABLE;
 
 import com.google.common.flogger.FluentLogger;
+import com.google.common.io.ByteStreams;
 import com.googlesource.gerrit.plugins.webhooks.HttpResponseHandler.HttpResult;
 import java.io.IOException;
+import java.io.InputStream;
+import java.net.http.HttpResponse.BodyHandler;
+import java.net.http.HttpResponse.BodySubscribers;
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Flow;
+import org.apache.http.Header;
 import org.apache.http.HttpEntity;
+import org.apache.http.HttpHeaders;
 import org.apache.http.HttpResponse;
+import org.apache.http.ParseException;
 import org.apache.http.client.ResponseHandler;
-import org.apache.http.util.EntityUtils;
+import org.apache.http.entity.ContentType;
 
 class HttpResponseHandler implements ResponseHandler<HttpResult> {
 
+  static final int SC_TOO_MANY_REQUESTS = 429;
+
   static class HttpResult {
+    static final int UNKNOWN_STATUS = -1;
+
     final boolean successful;
+    final int statusCode;
     final String message;
+    final Optional<Duration> retryAfter;
 
     HttpResult(boolean successful, String message) {
+      this(successful, UNKNOWN_STATUS, message, Optional.empty());
+    }
+
+    HttpResult(int statusCode, String message, Optional<Duration> retryAfter) {
+      this(isSuccessful(statusCode), statusCode, message, retryAfter);
+    }
+
+    private HttpResult(
+        boolean successful, int statusCode, String message, Optional<Duration> retryAfter) {
       this.successful = successful;
+      this.statusCode = statusCode;
       this.message = message;
+      this.retryAfter = retryAfter;
+    }
+
+    /** Returns true if the post failed because the remote is unavailable or overloaded. */
+    boolean isRemoteFailure() {
+      return !successful
+          && (statusCode == UNKNOWN_STATUS
+              || statusCode >= SC_INTERNAL_SERVER_ERROR
+              || statusCode == SC_TOO_MANY_REQUESTS);
     }
   }
 
   private static final FluentLogger log = FluentLogger.forEnclosingClass();
+  private static final int BUFFER_SIZE = 8192;
+  private static final int MAX_POOLED_BUFFERS = 64;
+  // reused to drain the responses, shared by all the delivery threads as the virtual threads
+  // wouldn't reuse a buffer of their own
+  private static final BlockingQueue<byte[]> BUFFERS = new ArrayBlockingQueue<>(MAX_POOLED_BUFFERS);
+
+  private final int captureSize;
+
+  /**
+   * Creates a handler discarding the body of the successful responses and capturing at most the
+   * first {@code captureSize} bytes of the body of the other ones.
+   */
+  HttpResponseHandler(int captureSize) {
+    this.captureSize = Math.max(0, captureSize);
+  }
 
   @Override
   public HttpResult handleResponse(HttpResponse response) {
-    return new HttpResult(isSuccessful(response), parseResponse(response));
+    int sc = response.getStatusLine().getStatusCode();
+    Header retryAfter = response.getFirstHeader(HttpHeaders.RETRY_AFTER);
+    return new HttpResult(
+        sc,
+        parseResponse(response, isSuccessful(sc) ? 0 : captureSize),
+        parseRetryAfter(sc, retryAfter != null ? retryAfter.getValue() : null));
   }
 
-  private boolean isSuccessful(HttpResponse response) {
-    int sc = response.getStatusLine().getStatusCode();
+  /** Returns a handler of the JDK client doing the same as {@link #handleResponse}. */
+  BodyHandler<String> asBodyHandler() {
+    return info -> {
+      if (isSuccessful(info.statusCode()) || captureSize == 0) {
+        return BodySubscribers.replacing("");
+      }
+      CapturingSubscriber capturing =
+          new CapturingSubscriber(
+              captureSize, charset(info.headers().firstValue(HttpHeaders.CONTENT_TYPE)));
+      return BodySubscribers.fromSubscriber(capturing, CapturingSubscriber::getCaptured);
+    };
+  }
+
+  static boolean isSuccessful(int sc) {
     return sc == SC_CREATED || sc == SC_ACCEPTED || sc == SC_NO_CONTENT || sc == SC_OK;
   }
 
-  private String parseResponse(HttpResponse response) {
+  /**
+   * Returns the delay requested by the {@code Retry-After} header of a 429 or 503 response, given
+   * either in seconds or as an HTTP date.
+   */
+  static Optional<Duration> parseRetryAfter(int sc, String value) {
+    if ((sc != SC_TOO_MANY_REQUESTS && sc != SC_SERVICE_UNAVAILABLE) || value == null) {
+      return Optional.empty();
+    }
+    String trimmed = value.trim();
+    try {
+      return Optional.of(Duration.ofSeconds(Math.max(0, Long.parseLong(trimmed))));
+    } catch (NumberFormatException e) {
+      // not in seconds, try as a date
+    }
+    try {
+      Instant at = ZonedDateTime.parse(trimmed, DateTimeFormatter.RFC_1123_DATE_TIME).toInstant();
+      Duration delay = Duration.between(Instant.now(), at);
+      return Optional.of(delay.isNegative() ? Duration.ZERO : delay);
+    } catch (DateTimeParseException e) {
+      log.atFine().log("Ignoring invalid Retry-After header '%s'", value);
+      return Optional.empty();
+    }
+  }
+
+  private static String parseResponse(HttpResponse response, int captureSize) {
     HttpEntity entity = response.getEntity();
-    if (entity != null) {
+    if (entity == null) {
+      return "";
+    }
+    byte[] buffer = BUFFERS.poll();
+    if (buffer == null) {
+      buffer = new byte[BUFFER_SIZE];
+    }
+    try (InputStream in = entity.getContent()) {
+      byte[] captured = captureSize <= buffer.length ? buffer : new byte[captureSize];
+      int length = ByteStreams.read(in, captured, 0, captureSize);
+      String message = new String(captured, 0, length, charset(entity));
+      // drain the rest so that the connection can be reused
+      while (in.read(buffer) != -1) {}
+      return message;
+    } catch (IOException e) {
+      log.atSevere().withCause(e).log("Error parsing entity");
+    } finally {
+      // dropped if the pool is full
+      BUFFERS.offer(buffer);
+    }
+    return "";
+  }
+
+  private static Charset charset(HttpEntity entity) {
+    ContentType contentType = ContentType.get(entity);
+    return contentType != null && contentType.getCharset() != null
+        ? contentType.getCharset()
+        : UTF_8;
+  }
+
+  /** Returns the charset of a {@code Content-Type} header, UTF-8 if there is none. */
+  private static Charset charset(Optional<String> contentType) {
+    if (contentType.isPresent()) {
       try {
-        return EntityUtils.toString(entity);
-      } catch (IOException e) {
-        log.atSevere().withCause(e).log("Error parsing entity");
+        Charset charset = ContentType.parse(contentType.get()).getCharset();
+        if (charset != null) {
+          return charset;
+        }
+      } catch (ParseException | IllegalArgumentException e) {
+        log.atFine().log("Ignoring invalid Content-Type header '%s'", contentType.get());
       }
     }
-    return "";
+    return UTF_8;
+  }
+
+  /** Keeps the first bytes of a response body received by the JDK client, discards the rest. */
+  private static class CapturingSubscriber implements Flow.Subscriber<List<ByteBuffer>> {
+    private final byte[] captured;
+    private final Charset charset;
+    private int length;
+
+    CapturingSubscriber(int captureSize, Charset charset) {
+      this.captured = new byte[captureSize];
+      this.charset = charset;
+    }
+
+    @Override
+    public void onSubscribe(Flow.Subscription subscription) {
+      subscription.request(Long.MAX_VALUE);
+    }
+
+    @Override
+    public void onNext(List<ByteBuffer> buffers) {
+      for (ByteBuffer buffer : buffers) {
+        int n = Math.min(buffer.remaining(), captured.length - length);
+        buffer.get(captured, length, n);
+        length += n;
+      }
+    }
+
+    @Override
+    public void onError(Throwable e) {
+      // the failure is reported by the JDK client
+    }
+
+    @Override
+    public void onComplete() {
+      // the body is returned by the finisher
+    }
+
+    String getCaptured() {
+      return new String(captured, 0, length, charset);
+    }
   }
 }
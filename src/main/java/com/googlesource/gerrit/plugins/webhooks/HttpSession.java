@@ -17,6 +17,7 @@ package com.googlesource.gerrit.plugins.webhooks;
 import static com.googlesource.gerrit.plugins.webhooks.DefaultHttpClientProvider.DEFAULT;
 import static com.googlesource.gerrit.plugins.webhooks.SslVerifyingHttpClientProvider.SSL_VERIFY;
 
+import com.google.common.io.ByteSource;
 import com.google.common.net.MediaType;
 import com.google.inject.Inject;
 import com.google.inject.Provider;
@@ -24,10 +25,17 @@ import com.google.inject.assistedinject.Assisted;
 import com.google.inject.name.Named;
 import com.googlesource.gerrit.plugins.webhooks.HttpResponseHandler.HttpResult;
 import java.io.IOException;
-import java.nio.charset.StandardCharsets;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpRequest.BodyPublisher;
+import java.net.http.HttpRequest.BodyPublishers;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import org.apache.http.HttpHeaders;
 import org.apache.http.client.config.RequestConfig;
 import org.apache.http.client.methods.HttpPost;
-import org.apache.http.entity.StringEntity;
 import org.apache.http.impl.client.CloseableHttpClient;
 
 class HttpSession {
@@ -36,14 +44,33 @@ class HttpSession {
   }
 
   private final CloseableHttpClient httpClient;
+  private final HttpClient asyncHttpClient;
+  private final HttpResponseHandler responseHandler;
 
   @Inject
   HttpSession(
+      Configuration cfg,
       @Named(DEFAULT) Provider<CloseableHttpClient> defaultClientProvider,
       @Named(SSL_VERIFY) Provider<CloseableHttpClient> sslVerifyingClientProvider,
+      AsyncHttpClientFactory asyncClientFactory,
+      ConnectionPools pools,
       @Assisted RemoteConfig remote) {
-    this.httpClient =
-        remote.getSslVerify() ? sslVerifyingClientProvider.get() : defaultClientProvider.get();
+    this.responseHandler = new HttpResponseHandler(cfg.getResponseCaptureSize());
+    // the blocking client only speaks HTTP/1.1
+    if (cfg.getDeliveryEngine() == DeliveryEngine.ASYNC || remote.getHttp2()) {
+      this.httpClient = null;
+      this.asyncHttpClient = asyncClientFactory.get(remote.getSslVerify(), remote.getHttp2());
+    } else {
+      this.httpClient =
+          remote.getSslVerify() ? sslVerifyingClientProvider.get() : defaultClientProvider.get();
+      this.asyncHttpClient = null;
+      pools.configure(remote);
+    }
+  }
+
+  /** Returns true if the posts of this session have to be done with {@link #postAsync}. */
+  boolean isAsync() {
+    return asyncHttpClient != null;
   }
 
   HttpResult post(RemoteConfig remote, EventProcessor.Request request) throws IOException {
@@ -53,10 +80,52 @@ class HttpSession {
     request.headers.entrySet().stream()
         .forEach(
             e -> {
-              post.addHeader(e.getKey(), e.getValue());
+              // processors may override the content type
+              post.setHeader(e.getKey(), e.getValue());
+            });
+    Compression compression = remote.getCompression();
+    if (compression != Compression.NONE) {
+      post.setHeader(HttpHeaders.CONTENT_ENCODING, compression.getContentEncoding());
+    }
+    post.setEntity(new ByteSourceEntity(request.getPayload(compression)));
+    return httpClient.execute(post, responseHandler);
+  }
+
+  CompletableFuture<HttpResult> postAsync(RemoteConfig remote, EventProcessor.Request request) {
+    HttpRequest.Builder post =
+        HttpRequest.newBuilder(URI.create(remote.getUrl()))
+            // the JDK client has no socket timeout, bound the time until the response instead
+            .timeout(Duration.ofMillis(remote.getConnectionTimeout() + remote.getSocketTimeout()))
+            .header("Content-Type", MediaType.JSON_UTF_8.toString())
+            .POST(bodyPublisher(request.getPayload(remote.getCompression())));
+    request.headers.forEach(post::setHeader);
+    if (remote.getCompression() != Compression.NONE) {
+      post.setHeader(HttpHeaders.CONTENT_ENCODING, remote.getCompression().getContentEncoding());
+    }
+    return asyncHttpClient
+        .sendAsync(post.build(), responseHandler.asBodyHandler())
+        .thenApply(
+            response ->
+                new HttpResult(
+                    response.statusCode(),
+                    response.body(),
+                    HttpResponseHandler.parseRetryAfter(
+                        response.statusCode(),
+                        response.headers().firstValue(HttpHeaders.RETRY_AFTER).orElse(null))));
+  }
+
+  private static BodyPublisher bodyPublisher(ByteSource payload) {
+    BodyPublisher publisher =
+        BodyPublishers.ofInputStream(
+            () -> {
+              try {
+                return payload.openStream();
+              } catch (IOException e) {
+                throw new UncheckedIOException(e);
+              }
             });
-    post.setEntity(new StringEntity(request.body, StandardCharsets.UTF_8));
-    return httpClient.execute(post, new HttpResponseHandler());
+    long size = payload.sizeIfKnown().or(-1L);
+    return size > 0 ? BodyPublishers.fromPublisher(publisher, size) : publisher;
   }
 
   private RequestConfig getConfig(RemoteConfig remote) {
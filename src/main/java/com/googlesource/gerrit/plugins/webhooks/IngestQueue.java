@@ -0,0 +1,214 @@
+// Copyright (C) 2026 The Android Open Source Project
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.googlesource.gerrit.plugins.webhooks;
+
+import com.google.common.flogger.FluentLogger;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.google.gerrit.extensions.annotations.PluginName;
+import com.google.gerrit.extensions.events.LifecycleListener;
+import com.google.gerrit.server.events.ProjectEvent;
+import com.google.inject.Inject;
+import com.google.inject.Singleton;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Bounded, lock-free queue decoupling the thread that dispatches Gerrit events from the resolution,
+ * serialization and scheduling of webhook deliveries, which happen on a small pool of dedicated
+ * ingest threads. The events of a project are always dispatched by the same thread so that they
+ * keep their order.
+ */
+@Singleton
+class IngestQueue implements LifecycleListener {
+  private static final FluentLogger log = FluentLogger.forEnclosingClass();
+  private static final long STOP_TIMEOUT_MS = 5000;
+
+  private static class Ingested {
+    final ProjectEvent event;
+    final long enqueuedNanos;
+
+    Ingested(ProjectEvent event) {
+      this.event = event;
+      this.enqueuedNanos = System.nanoTime();
+    }
+  }
+
+  private class Worker implements Runnable {
+    final Queue<Ingested> queue = new ConcurrentLinkedQueue<>();
+    volatile Thread thread;
+
+    @Override
+    public void run() {
+      while (running) {
+        Ingested next = queue.poll();
+        if (next == null) {
+          LockSupport.park(IngestQueue.this);
+          continue;
+        }
+        size.decrementAndGet();
+        dispatch(next);
+      }
+    }
+
+    /** Dispatches the queued events on the calling thread, returns how many there were. */
+    int drain() {
+      int drained = 0;
+      for (Ingested next = queue.poll(); next != null; next = queue.poll()) {
+        size.decrementAndGet();
+        dispatch(next);
+        drained++;
+      }
+      return drained;
+    }
+  }
+
+  private final EventDispatcher dispatcher;
+  private final WebhooksMetrics metrics;
+  private final String pluginName;
+  private final int capacity;
+  private final OverflowPolicy overflowPolicy;
+  private final List<Worker> workers;
+  private final AtomicInteger size = new AtomicInteger();
+  private volatile boolean running;
+
+  @Inject
+  IngestQueue(
+      EventDispatcher dispatcher,
+      WebhooksMetrics metrics,
+      Configuration cfg,
+      @PluginName String pluginName) {
+    this.dispatcher = dispatcher;
+    this.metrics = metrics;
+    this.pluginName = pluginName;
+    this.capacity = cfg.getIngestQueueSize();
+    this.overflowPolicy = cfg.getIngestOverflowPolicy();
+    this.workers = new ArrayList<>(cfg.getIngestThreads());
+    for (int i = 0; i < cfg.getIngestThreads(); i++) {
+      workers.add(new Worker());
+    }
+    metrics.registerIngestQueueSize(size::get);
+  }
+
+  @Override
+  public void start() {
+    running = true;
+    ThreadFactory threads =
+        new ThreadFactoryBuilder().setNameFormat(pluginName + "-ingest-%d").setDaemon(true).build();
+    for (Worker worker : workers) {
+      worker.thread = threads.newThread(worker);
+      worker.thread.start();
+    }
+  }
+
+  @Override
+  public void stop() {
+    running = false;
+    workers.forEach(worker -> LockSupport.unpark(worker.thread));
+    long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(STOP_TIMEOUT_MS);
+    for (Worker worker : workers) {
+      Thread thread = worker.thread;
+      if (thread == null) {
+        continue;
+      }
+      try {
+        thread.join(Math.max(1, TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime())));
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+      worker.thread = null;
+    }
+    // the events left behind are dispatched on the stopping thread so that their deliveries are
+    // recorded in the outbox
+    int pending = workers.stream().mapToInt(Worker::drain).sum();
+    if (pending > 0) {
+      log.atInfo().log("Dispatched %d events pending in the ingest queue", pending);
+    }
+  }
+
+  /** Enqueues the event for dispatching, applying the overflow policy when the queue is full. */
+  void offer(ProjectEvent event) {
+    if (!running) {
+      dispatcher.dispatch(event);
+      return;
+    }
+    Worker worker = worker(event);
+    if (!reserve()) {
+      switch (overflowPolicy) {
+        case CALLER_RUNS:
+          dispatcher.dispatch(event);
+          return;
+        case DISCARD_OLDEST:
+          // the offered event takes the place of the oldest one of its project's thread
+          Ingested oldest = worker.queue.poll();
+          if (oldest == null) {
+            drop(event);
+            return;
+          }
+          drop(oldest.event);
+          break;
+        case DISCARD_NEWEST:
+        default:
+          drop(event);
+          return;
+      }
+    }
+    worker.queue.add(new Ingested(event));
+    if (running) {
+      LockSupport.unpark(worker.thread);
+    } else {
+      // stopped meanwhile, the stopping thread may have drained the queue already
+      worker.drain();
+    }
+  }
+
+  private Worker worker(ProjectEvent event) {
+    return workers.get(Math.floorMod(event.getProjectNameKey().hashCode(), workers.size()));
+  }
+
+  private boolean reserve() {
+    int current;
+    do {
+      current = size.get();
+      if (current >= capacity) {
+        return false;
+      }
+    } while (!size.compareAndSet(current, current + 1));
+    return true;
+  }
+
+  private void drop(ProjectEvent event) {
+    metrics.incrementIngestDropped();
+    log.atWarning().atMostEvery(1, TimeUnit.MINUTES).log(
+        "Ingest queue is full (%d events), dropped event %s for project %s",
+        capacity, event.getType(), event.getProjectNameKey().get());
+  }
+
+  private void dispatch(Ingested next) {
+    metrics.recordIngestLag(System.nanoTime() - next.enqueuedNanos);
+    try {
+      dispatcher.dispatch(next.event);
+    } catch (RuntimeException e) {
+      log.atSevere().withCause(e).log(
+          "Failed to dispatch event %s for project %s",
+          next.event.getType(), next.event.getProjectNameKey().get());
+    }
+  }
+}
@@ -0,0 +1,224 @@
+// Copyright (C) 2026 The Android Open Source Project
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.googlesource.gerrit.plugins.webhooks;
+
+import com.google.common.flogger.FluentLogger;
+import com.google.gerrit.entities.Project;
+import com.google.gerrit.extensions.annotations.PluginData;
+import com.google.gerrit.extensions.events.LifecycleListener;
+import com.google.gerrit.server.events.ProjectEvent;
+import com.google.gerrit.server.project.NoSuchProjectException;
+import com.google.inject.Inject;
+import com.google.inject.Provider;
+import com.google.inject.Singleton;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Records the deliveries in a local {@link OutboxJournal} until they complete, so that the
+ * deliveries that were queued or waiting for a retry when the plugin was stopped are posted again
+ * once it is started. Deliveries are thus posted at least once: those that were in flight are
+ * posted again too. The deliveries that cannot be replayed are kept as dead letters, if possible,
+ * and removed from the outbox.
+ */
+@Singleton
+class Outbox implements LifecycleListener {
+  private static final FluentLogger log = FluentLogger.forEnclosingClass();
+
+  /** Id of the deliveries that are not recorded. */
+  static final long NONE = 0;
+
+  private static final String DIRECTORY = "outbox";
+  private static final long COMPACTION_INTERVAL_MS = TimeUnit.MINUTES.toMillis(1);
+
+  private final boolean enabled;
+  private final OutboxJournal journal;
+  private final ScheduledExecutorService executor;
+  private final RemotesCache remotesCache;
+  private final Provider<PostTask.Factory> taskFactory;
+  private final DeadLetters deadLetters;
+  private volatile boolean open;
+  private ScheduledFuture<?> compaction;
+
+  @Inject
+  Outbox(
+      Configuration cfg,
+      @PluginData Path dataDir,
+      @WebHooksExecutor ScheduledExecutorService executor,
+      RemotesCache remotesCache,
+      Provider<PostTask.Factory> taskFactory,
+      DeadLetters deadLetters,
+      WebhooksMetrics metrics) {
+    this.enabled = cfg.getOutbox();
+    this.journal = new OutboxJournal(dataDir.resolve(DIRECTORY), cfg.getOutboxSegmentSize());
+    this.executor = executor;
+    this.remotesCache = remotesCache;
+    this.taskFactory = taskFactory;
+    this.deadLetters = deadLetters;
+    if (enabled) {
+      metrics.registerOutboxPending(journal::getPending);
+    }
+  }
+
+  @Override
+  public void start() {
+    if (!enabled) {
+      return;
+    }
+    List<OutboxJournal.Entry> entries;
+    try {
+      entries = journal.open();
+    } catch (IOException e) {
+      log.atSevere().withCause(e).log("Cannot open the outbox, deliveries won't be recorded");
+      return;
+    }
+    open = true;
+    if (!entries.isEmpty()) {
+      log.atInfo().log("Replaying %d deliveries from the outbox", entries.size());
+      // resolving the remotes may load the configuration of many projects
+      executor.execute(() -> replay(entries));
+    }
+    compaction =
+        executor.scheduleWithFixedDelay(
+            this::compact, COMPACTION_INTERVAL_MS, COMPACTION_INTERVAL_MS, TimeUnit.MILLISECONDS);
+  }
+
+  @Override
+  public void stop() {
+    if (!open) {
+      return;
+    }
+    open = false;
+    if (compaction != null) {
+      compaction.cancel(false);
+      compaction = null;
+    }
+    try {
+      journal.close();
+    } catch (IOException e) {
+      log.atWarning().withCause(e).log("Failed to close the outbox");
+    }
+  }
+
+  /**
+   * Records the delivery and returns its id, or {@link #NONE} if the outbox is disabled or the
+   * delivery couldn't be recorded.
+   */
+  long enqueue(ProjectEvent event, RemoteConfig remote, EventProcessor.Request content) {
+    if (!open) {
+      return NONE;
+    }
+    try {
+      return journal.append(encode(event, remote, content));
+    } catch (IOException e) {
+      log.atWarning().atMostEvery(1, TimeUnit.MINUTES).withCause(e).log(
+          "Failed to record the delivery to %s in the outbox", remote.getUrl());
+      return NONE;
+    }
+  }
+
+  /** Removes the delivery from the outbox once it succeeded or was given up. */
+  void ack(long id) {
+    if (id == NONE || !open) {
+      return;
+    }
+    try {
+      journal.ack(id);
+    } catch (IOException e) {
+      log.atWarning().atMostEvery(1, TimeUnit.MINUTES).withCause(e).log(
+          "Failed to acknowledge delivery %d in the outbox", id);
+    }
+  }
+
+  private void compact() {
+    try {
+      journal.compact();
+    } catch (IOException e) {
+      log.atWarning().withCause(e).log("Failed to compact the outbox");
+    }
+  }
+
+  private void replay(List<OutboxJournal.Entry> entries) {
+    Map<Project.NameKey, Optional<ProjectRemotes>> remotes = new HashMap<>();
+    for (OutboxJournal.Entry entry : entries) {
+      RecordedDelivery recorded;
+      try {
+        recorded = decode(entry.data);
+      } catch (IOException | RuntimeException e) {
+        // acknowledged anyway, the entry would otherwise prevent the compaction of its segment
+        log.atSevere().withCause(e).log(
+            "Cannot decode delivery %d from the outbox, dropping it", entry.id);
+        ack(entry.id);
+        continue;
+      }
+      ProjectEvent event = recorded.toEvent();
+      Optional<RemoteConfig> remote = Optional.empty();
+      try {
+        remote =
+            remotes
+                .computeIfAbsent(recorded.getProject(), this::getRemotes)
+                .flatMap(r -> r.getRemote(recorded.getRemoteName()));
+        if (remote.isEmpty()) {
+          log.atWarning().log(
+              "Remote %s of project %s doesn't exist anymore, dropping the delivery of %s",
+              recorded.getRemoteName(), recorded.getProject().get(), event);
+          ack(entry.id);
+          continue;
+        }
+        taskFactory.get().create(event, remote.get(), recorded.getContent()).replay(entry.id);
+      } catch (RuntimeException e) {
+        log.atSevere().withCause(e).log("Failed to replay delivery %d from the outbox", entry.id);
+        if (remote.isPresent()) {
+          deadLetters.add(event, remote.get(), recorded.getContent(), 0, e.toString());
+        }
+        ack(entry.id);
+      }
+    }
+  }
+
+  private Optional<ProjectRemotes> getRemotes(Project.NameKey project) {
+    try {
+      return Optional.of(remotesCache.get(project));
+    } catch (NoSuchProjectException e) {
+      return Optional.empty();
+    }
+  }
+
+  private static byte[] encode(
+      ProjectEvent event, RemoteConfig remote, EventProcessor.Request content) throws IOException {
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    try (DataOutputStream out = new DataOutputStream(bytes)) {
+      RecordedDelivery.write(out, event, remote, content);
+    }
+    return bytes.toByteArray();
+  }
+
+  private static RecordedDelivery decode(byte[] data) throws IOException {
+    try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(data))) {
+      return RecordedDelivery.read(in);
+    }
+  }
+}
@@ -0,0 +1,339 @@
+// Copyright (C) 2026 The Android Open Source Project
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.googlesource.gerrit.plugins.webhooks;
+
+import static java.nio.file.StandardOpenOption.APPEND;
+import static java.nio.file.StandardOpenOption.CREATE;
+import static java.nio.file.StandardOpenOption.READ;
+import static java.nio.file.StandardOpenOption.WRITE;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.flogger.FluentLogger;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.zip.CRC32;
+
+/**
+ * Append-only journal of the entries, e.g. deliveries, that were appended and not acknowledged
+ * yet, stored in numbered segment files. A segment is rolled once it exceeds the configured size
+ * and {@link #compact()} removes the oldest segments, after copying the entries still pending in
+ * them to the active segment.
+ *
+ * <p>Each record is made of its length, the CRC32 of its content and the content: the record type,
+ * the entry id and, for enqueued entries, their data. A torn record at the end of the last segment,
+ * e.g. after a crash, is discarded on {@link #open()}.
+ */
+class OutboxJournal {
+  private static final FluentLogger log = FluentLogger.forEnclosingClass();
+
+  static final String SEGMENT_SUFFIX = ".log";
+
+  private static final byte ENQUEUE = 1;
+  private static final byte ACK = 2;
+  private static final int HEADER_SIZE = Integer.BYTES + Integer.BYTES;
+  private static final int ACK_SIZE = 1 + Long.BYTES;
+
+  static class Entry {
+    final long id;
+    final byte[] data;
+
+    Entry(long id, byte[] data) {
+      this.id = id;
+      this.data = data;
+    }
+  }
+
+  private static class Segment {
+    final long seq;
+    final Path path;
+    int enqueued;
+    int pending;
+
+    Segment(long seq, Path path) {
+      this.seq = seq;
+      this.path = path;
+    }
+  }
+
+  private static class Location {
+    final Segment segment;
+    final long position;
+
+    Location(Segment segment, long position) {
+      this.segment = segment;
+      this.position = position;
+    }
+  }
+
+  private final Path dir;
+  private final long segmentSize;
+  // in sequence order, the last one is the active segment
+  private final TreeMap<Long, Segment> segments = new TreeMap<>();
+  private final TreeMap<Long, Location> pending = new TreeMap<>();
+  private FileChannel active;
+  private Segment activeSegment;
+  private long nextId = 1;
+
+  OutboxJournal(Path dir, long segmentSize) {
+    this.dir = dir;
+    this.segmentSize = segmentSize;
+  }
+
+  /** Opens the journal and returns the entries that are still pending, in enqueue order. */
+  synchronized ImmutableList<Entry> open() throws IOException {
+    Files.createDirectories(dir);
+    try (DirectoryStream<Path> files = Files.newDirectoryStream(dir, "*" + SEGMENT_SUFFIX)) {
+      for (Path file : files) {
+        String name = file.getFileName().toString();
+        try {
+          long seq = Long.parseLong(name.substring(0, name.length() - SEGMENT_SUFFIX.length()));
+          segments.put(seq, new Segment(seq, file));
+        } catch (NumberFormatException e) {
+          log.atWarning().log("Ignoring unexpected journal file %s", file);
+        }
+      }
+    }
+    Map<Long, byte[]> entries = new LinkedHashMap<>();
+    for (Segment segment : segments.values()) {
+      long valid =
+          scan(
+              segment.path,
+              (type, id, data, position) -> {
+                nextId = Math.max(nextId, id + 1);
+                if (type == ENQUEUE) {
+                  // the entry may have been copied by a compaction that didn't complete
+                  Location previous = pending.put(id, new Location(segment, position));
+                  if (previous != null) {
+                    previous.segment.pending--;
+                  }
+                  entries.put(id, data);
+                  segment.enqueued++;
+                  segment.pending++;
+                } else {
+                  Location enqueuedIn = pending.remove(id);
+                  if (enqueuedIn != null) {
+                    enqueuedIn.segment.pending--;
+                  }
+                  entries.remove(id);
+                }
+              });
+      long size = Files.size(segment.path);
+      if (valid < size) {
+        if (segment.seq == segments.lastKey()) {
+          log.atWarning().log(
+              "Discarding %d bytes of a torn journal record in %s", size - valid, segment.path);
+          try (FileChannel channel = FileChannel.open(segment.path, WRITE)) {
+            channel.truncate(valid);
+          }
+        } else {
+          log.atSevere().log(
+              "Journal segment %s is corrupted after %d bytes, ignoring the rest",
+              segment.path, valid);
+        }
+      }
+    }
+    roll();
+    ImmutableList.Builder<Entry> result = ImmutableList.builder();
+    entries.forEach((id, data) -> result.add(new Entry(id, data)));
+    return result.build();
+  }
+
+  private interface RecordConsumer {
+    void accept(byte type, long id, byte[] data, long position);
+  }
+
+  /** Passes the valid records of the segment to the consumer and returns their total size. */
+  private static long scan(Path path, RecordConsumer consumer) throws IOException {
+    try (FileChannel channel = FileChannel.open(path, READ)) {
+      ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+      long position = 0;
+      while (true) {
+        header.clear();
+        if (readFully(channel, header, position) < HEADER_SIZE) {
+          return position;
+        }
+        header.flip();
+        int length = header.getInt();
+        int crc = header.getInt();
+        if (length < ACK_SIZE || position + HEADER_SIZE + length > channel.size()) {
+          return position;
+        }
+        ByteBuffer record = ByteBuffer.allocate(length);
+        readFully(channel, record, position + HEADER_SIZE);
+        if (crc(record.array(), 0) != crc) {
+          return position;
+        }
+        record.flip();
+        byte type = record.get();
+        long id = record.getLong();
+        byte[] data = new byte[record.remaining()];
+        record.get(data);
+        consumer.accept(type, id, data, position);
+        position += HEADER_SIZE + length;
+      }
+    }
+  }
+
+  private static int readFully(FileChannel channel, ByteBuffer buf, long position)
+      throws IOException {
+    int total = 0;
+    while (buf.hasRemaining()) {
+      int n = channel.read(buf, position + total);
+      if (n < 0) {
+        break;
+      }
+      total += n;
+    }
+    return total;
+  }
+
+  /** Appends an entry and returns its id. */
+  synchronized long append(byte[] data) throws IOException {
+    long id = nextId++;
+    enqueue(id, data);
+    return id;
+  }
+
+  private void enqueue(long id, byte[] data) throws IOException {
+    long position = write(ENQUEUE, id, data);
+    pending.put(id, new Location(activeSegment, position));
+    activeSegment.enqueued++;
+    activeSegment.pending++;
+  }
+
+  /**
+   * Acknowledges an entry so that it is not returned on the next {@link #open()}. Returns false if
+   * it was acknowledged already.
+   */
+  synchronized boolean ack(long id) throws IOException {
+    Location location = pending.remove(id);
+    if (location == null) {
+      return false;
+    }
+    location.segment.pending--;
+    if (active != null) {
+      write(ACK, id, new byte[0]);
+    }
+    return true;
+  }
+
+  /**
+   * Deletes the oldest segments once at most half of their entries are pending, after copying
+   * those to the active segment. Segments are removed in order so that an acknowledgement is never
+   * deleted before the entry it acknowledges.
+   */
+  synchronized void compact() throws IOException {
+    while (active != null && segments.size() > 1) {
+      Segment oldest = segments.firstEntry().getValue();
+      if (oldest.pending * 2 > oldest.enqueued) {
+        return;
+      }
+      if (oldest.pending > 0) {
+        Map<Long, byte[]> entries = new LinkedHashMap<>();
+        scan(
+            oldest.path,
+            (type, id, data, position) -> {
+              Location location = pending.get(id);
+              if (type == ENQUEUE && location != null && location.segment == oldest) {
+                entries.put(id, data);
+              }
+            });
+        for (Map.Entry<Long, byte[]> e : entries.entrySet()) {
+          enqueue(e.getKey(), e.getValue());
+        }
+        active.force(false);
+      }
+      Files.delete(oldest.path);
+      segments.remove(oldest.seq);
+      log.atFine().log("Compacted journal segment %s", oldest.path);
+    }
+  }
+
+  synchronized int getPending() {
+    return pending.size();
+  }
+
+  /** Returns the ids of the pending entries, oldest first. */
+  synchronized ImmutableList<Long> getPendingIds() {
+    return ImmutableList.copyOf(pending.keySet());
+  }
+
+  /** Reads the data of a pending entry. */
+  synchronized Optional<byte[]> read(long id) throws IOException {
+    Location location = pending.get(id);
+    if (location == null) {
+      return Optional.empty();
+    }
+    try (FileChannel channel = FileChannel.open(location.segment.path, READ)) {
+      ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+      readFully(channel, header, location.position);
+      header.flip();
+      ByteBuffer record = ByteBuffer.allocate(header.getInt());
+      readFully(channel, record, location.position + HEADER_SIZE);
+      return Optional.of(Arrays.copyOfRange(record.array(), ACK_SIZE, record.capacity()));
+    }
+  }
+
+  synchronized void close() throws IOException {
+    if (active != null) {
+      active.force(false);
+      active.close();
+      active = null;
+    }
+  }
+
+  private long write(byte type, long id, byte[] data) throws IOException {
+    if (active.size() >= segmentSize) {
+      roll();
+    }
+    long position = active.size();
+    ByteBuffer record = ByteBuffer.allocate(HEADER_SIZE + ACK_SIZE + data.length);
+    record.putInt(ACK_SIZE + data.length);
+    record.putInt(0);
+    record.put(type).putLong(id).put(data);
+    record.putInt(Integer.BYTES, crc(record.array(), HEADER_SIZE));
+    record.flip();
+    while (record.hasRemaining()) {
+      active.write(record);
+    }
+    return position;
+  }
+
+  private void roll() throws IOException {
+    if (active != null) {
+      active.force(false);
+      active.close();
+    }
+    long seq = segments.isEmpty() ? 1 : segments.lastKey() + 1;
+    activeSegment = new Segment(seq, dir.resolve(String.format("%020d%s", seq, SEGMENT_SUFFIX)));
+    segments.put(seq, activeSegment);
+    active = FileChannel.open(activeSegment.path, CREATE, WRITE, APPEND);
+  }
+
+  private static int crc(byte[] bytes, int offset) {
+    CRC32 crc = new CRC32();
+    crc.update(bytes, offset, bytes.length - offset);
+    return (int) crc.getValue();
+  }
+}
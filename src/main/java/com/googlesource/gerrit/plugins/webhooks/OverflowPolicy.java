@@ -0,0 +1,27 @@
+// Copyright (C) 2026 The Android Open Source Project
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.googlesource.gerrit.plugins.webhooks;
+
+/** What to do with an element offered to a bounded queue that is full. */
+public enum OverflowPolicy {
+  /** Handle the element on the offering thread instead of queueing it. */
+  CALLER_RUNS,
+
+  /** Drop the offered element. */
+  DISCARD_NEWEST,
+
+  /** Drop the oldest queued element to make room for the offered one. */
+  DISCARD_OLDEST
+}
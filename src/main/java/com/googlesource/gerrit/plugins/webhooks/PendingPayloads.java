@@ -0,0 +1,195 @@
+// Copyright (C) 2026 The Android Open Source Project
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.googlesource.gerrit.plugins.webhooks;
+
+import com.google.common.flogger.FluentLogger;
+import com.google.common.io.MoreFiles;
+import com.google.gerrit.common.Nullable;
+import com.google.gerrit.extensions.annotations.PluginData;
+import com.google.gerrit.extensions.events.LifecycleListener;
+import com.google.inject.Inject;
+import com.google.inject.Singleton;
+import java.io.IOException;
+import java.lang.ref.WeakReference;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Keeps the payloads of the pending deliveries within {@code pendingPayloadBudget} bytes of heap.
+ * A request shared by the deliveries of an event to several remotes is accounted for, and spilled,
+ * once. The payloads beyond the budget are spilled to files in the plugin's data directory and
+ * only streamed back when their delivery is posted. The files are removed once the last delivery
+ * holding them completes, those left behind by a previous run are removed on start.
+ */
+@Singleton
+class PendingPayloads implements LifecycleListener {
+  private static final FluentLogger log = FluentLogger.forEnclosingClass();
+
+  private static final String DIRECTORY = "pending-payloads";
+
+  /** Payload of a request, shared by all the pending deliveries holding the request. */
+  private static class Payload {
+    final long size;
+    final EventProcessor.Request request;
+    @Nullable final Path file;
+    final WeakReference<EventProcessor.Request> original;
+    int holders;
+
+    Payload(
+        long size,
+        EventProcessor.Request request,
+        @Nullable Path file,
+        EventProcessor.Request original) {
+      this.size = size;
+      this.request = request;
+      this.file = file;
+      this.original = new WeakReference<>(original);
+    }
+  }
+
+  /** Handle on the payload of a pending delivery, to be released once the delivery completes. */
+  class Held {
+    private final Payload payload;
+    private final AtomicBoolean released = new AtomicBoolean();
+
+    private Held(Payload payload) {
+      this.payload = payload;
+    }
+
+    /** Returns true if the payload was spilled and the held request must be dropped. */
+    boolean isSpilled() {
+      return payload.file != null;
+    }
+
+    /** Returns the request to post, streaming the payload back from its file if it was spilled. */
+    EventProcessor.Request getRequest() {
+      return payload.request;
+    }
+
+    void release() {
+      if (released.compareAndSet(false, true)) {
+        PendingPayloads.this.release(payload);
+      }
+    }
+  }
+
+  private final long budget;
+  private final Path dir;
+  // keyed by the held requests, and by the requests reading the spilled payloads back
+  private final Map<EventProcessor.Request, Payload> payloads = new WeakHashMap<>();
+  private final AtomicLong inMemory = new AtomicLong();
+  private final AtomicInteger spilled = new AtomicInteger();
+  private long nextFile;
+  private volatile boolean open;
+
+  @Inject
+  PendingPayloads(Configuration cfg, @PluginData Path dataDir, WebhooksMetrics metrics) {
+    this.budget = cfg.getPendingPayloadBudget();
+    this.dir = dataDir.resolve(DIRECTORY);
+    if (budget > 0) {
+      metrics.registerPendingPayloads(inMemory::get, spilled::get);
+    }
+  }
+
+  @Override
+  public void start() {
+    if (budget <= 0) {
+      return;
+    }
+    try {
+      Files.createDirectories(dir);
+      try (DirectoryStream<Path> leftovers = Files.newDirectoryStream(dir)) {
+        for (Path file : leftovers) {
+          Files.delete(file);
+        }
+      }
+      open = true;
+    } catch (IOException e) {
+      log.atSevere().withCause(e).log(
+          "Cannot prepare %s, pending payloads won't be spilled beyond the budget", dir);
+    }
+  }
+
+  @Override
+  public void stop() {
+    open = false;
+  }
+
+  /**
+   * Accounts for the payload of a delivery that is about to be queued, spilling it if it doesn't
+   * fit in the budget, unless the request is held by another delivery already. The caller must
+   * replace its references to the request with {@link Held#getRequest()} if it was spilled.
+   */
+  synchronized Held hold(EventProcessor.Request request) {
+    if (budget <= 0) {
+      return new Held(new Payload(0, request, null, request));
+    }
+    Payload payload = payloads.get(request);
+    if (payload == null) {
+      payload = store(request);
+      payloads.put(request, payload);
+      payloads.put(payload.request, payload);
+    }
+    payload.holders++;
+    return new Held(payload);
+  }
+
+  private Payload store(EventProcessor.Request request) {
+    long size = request.getHeapSize();
+    if (inMemory.get() + size <= budget || !open) {
+      inMemory.addAndGet(size);
+      return new Payload(size, request, null, request);
+    }
+    Path file = dir.resolve(String.format("%020d.payload", ++nextFile));
+    try {
+      request.getPayload().copyTo(MoreFiles.asByteSink(file));
+    } catch (IOException e) {
+      log.atWarning().withCause(e).log("Cannot spill pending payload, keeping it in memory");
+      inMemory.addAndGet(size);
+      return new Payload(size, request, null, request);
+    }
+    spilled.incrementAndGet();
+    EventProcessor.Request spilledRequest =
+        new EventProcessor.Request(MoreFiles.asByteSource(file), request.headers);
+    return new Payload(0, spilledRequest, file, request);
+  }
+
+  private synchronized void release(Payload payload) {
+    if (budget <= 0 || --payload.holders > 0) {
+      return;
+    }
+    payloads.remove(payload.request);
+    EventProcessor.Request original = payload.original.get();
+    if (original != null) {
+      payloads.remove(original);
+    }
+    if (payload.file == null) {
+      inMemory.addAndGet(-payload.size);
+      return;
+    }
+    spilled.decrementAndGet();
+    try {
+      Files.deleteIfExists(payload.file);
+    } catch (IOException e) {
+      log.atWarning().withCause(e).log("Cannot delete spilled payload %s", payload.file);
+    }
+  }
+}
@@ -20,11 +20,13 @@ import static com.googlesource.gerrit.plugins.webhooks.SslVerifyingHttpClientPro
 import com.google.gerrit.extensions.annotations.PluginName;
 import com.google.gerrit.extensions.config.FactoryModule;
 import com.google.gerrit.extensions.events.GitReferenceUpdatedListener;
+import com.google.gerrit.extensions.events.LifecycleListener;
 import com.google.gerrit.extensions.registration.DynamicSet;
 import com.google.gerrit.server.events.EventListener;
 import com.google.inject.Inject;
 import com.google.inject.Provides;
 import com.google.inject.Scopes;
+import com.google.inject.internal.UniqueAnnotations;
 import com.google.inject.name.Names;
 import com.googlesource.gerrit.plugins.webhooks.rest.WebhooksRestModule;
 import java.util.concurrent.ScheduledExecutorService;
@@ -44,6 +46,10 @@ public class PluginModule extends FactoryModule {
         .annotatedWith(WebHooksExecutor.class)
         .toProvider(ExecutorProvider.class)
         .in(Scopes.SINGLETON);
+    // stopped last, once the other listeners no longer schedule anything on the executor
+    bind(LifecycleListener.class)
+        .annotatedWith(UniqueAnnotations.create())
+        .to(ExecutorProvider.class);
 
     factory(PostTask.Factory.class);
     factory(RemoteConfig.Factory.class);
@@ -51,6 +57,27 @@ public class PluginModule extends FactoryModule {
 
     DynamicSet.bind(binder(), EventListener.class).to(EventHandler.class);
     DynamicSet.bind(binder(), GitReferenceUpdatedListener.class).to(WebHookUpdateListener.class);
+    bind(LifecycleListener.class)
+        .annotatedWith(UniqueAnnotations.create())
+        .to(SubscriptionIndex.class);
+    bind(LifecycleListener.class)
+        .annotatedWith(UniqueAnnotations.create())
+        .to(ConnectionPools.class);
+    bind(LifecycleListener.class)
+        .annotatedWith(UniqueAnnotations.create())
+        .to(AsyncHttpClientFactory.class);
+    // started before the outbox replays the deliveries
+    bind(LifecycleListener.class)
+        .annotatedWith(UniqueAnnotations.create())
+        .to(PendingPayloads.class);
+    bind(LifecycleListener.class).annotatedWith(UniqueAnnotations.create()).to(Outbox.class);
+    bind(LifecycleListener.class).annotatedWith(UniqueAnnotations.create()).to(DeadLetters.class);
+    // stopped before the outbox so that it records the lingering batches
+    bind(LifecycleListener.class).annotatedWith(UniqueAnnotations.create()).to(Batcher.class);
+    // stopped before the batcher and the outbox so that they take the held events
+    bind(LifecycleListener.class).annotatedWith(UniqueAnnotations.create()).to(Coalescer.class);
+    // stopped first, it dispatches the pending events to the batcher and the outbox
+    bind(LifecycleListener.class).annotatedWith(UniqueAnnotations.create()).to(IngestQueue.class);
 
     bind(CloseableHttpClient.class)
         .annotatedWith(Names.named(DEFAULT))
@@ -61,6 +88,7 @@ public class PluginModule extends FactoryModule {
         .toProvider(SslVerifyingHttpClientProvider.class)
         .in(Scopes.SINGLETON);
 
+    install(RemotesCache.module());
     install(processors);
     install(new WebhooksRestModule());
   }
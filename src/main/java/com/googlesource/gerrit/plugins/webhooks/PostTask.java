@@ -14,16 +14,30 @@
 
 package com.googlesource.gerrit.plugins.webhooks;
 
+import static com.google.common.collect.ImmutableList.toImmutableList;
+import static com.googlesource.gerrit.plugins.webhooks.HttpResponseHandler.SC_TOO_MANY_REQUESTS;
+import static javax.servlet.http.HttpServletResponse.SC_BAD_REQUEST;
+import static javax.servlet.http.HttpServletResponse.SC_INTERNAL_SERVER_ERROR;
+import static javax.servlet.http.HttpServletResponse.SC_REQUEST_TIMEOUT;
+
 import com.google.common.base.Supplier;
 import com.google.common.base.Suppliers;
+import com.google.common.collect.ImmutableList;
 import com.google.common.flogger.FluentLogger;
+import com.google.gerrit.common.Nullable;
 import com.google.gerrit.server.events.ProjectEvent;
+import com.google.inject.Provider;
 import com.google.inject.assistedinject.Assisted;
 import com.google.inject.assistedinject.AssistedInject;
 import com.googlesource.gerrit.plugins.webhooks.HttpResponseHandler.HttpResult;
 import java.io.IOException;
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadLocalRandom;
 import java.util.concurrent.TimeUnit;
 import javax.net.ssl.SSLException;
 
@@ -32,80 +46,332 @@ class PostTask implements Runnable {
 
   interface Factory {
     PostTask create(ProjectEvent event, RemoteConfig remote, EventProcessor.Request content);
+
+    PostTask create(Batch batch, RemoteConfig remote);
   }
 
   private final ScheduledExecutorService executor;
   private final Supplier<HttpSession> session;
+  private final Bulkhead bulkhead;
+  private final CircuitBreaker breaker;
+  private final RateLimiter rateLimiter;
   private final RemoteConfig remote;
-  private final ProjectEvent event;
-  private final EventProcessor.Request content;
+  private ProjectEvent event;
+  // replaced once the payload was spilled to disk
+  private EventProcessor.Request content;
+  @Nullable private final Batch batch;
+  private final Provider<Factory> taskFactory;
+  private final Outbox outbox;
+  private final DeadLetters deadLetters;
+  private final PriorityLanes lanes;
+  private final PendingPayloads payloads;
+  private ImmutableList<PendingPayloads.Held> held = ImmutableList.of();
+  private final Priority priority;
   private int execCnt;
+  private long outboxId = Outbox.NONE;
+  private boolean rateLimited;
 
   @AssistedInject
   public PostTask(
       @WebHooksExecutor ScheduledExecutorService executor,
       HttpSession.Factory session,
+      Provider<Factory> taskFactory,
+      Bulkheads bulkheads,
+      CircuitBreakers breakers,
+      Outbox outbox,
+      DeadLetters deadLetters,
+      RateLimiters rateLimiters,
+      PriorityLanes lanes,
+      PendingPayloads payloads,
       @Assisted ProjectEvent event,
       @Assisted RemoteConfig remote,
       @Assisted EventProcessor.Request content) {
+    this(
+        executor,
+        session,
+        taskFactory,
+        bulkheads,
+        breakers,
+        outbox,
+        deadLetters,
+        rateLimiters,
+        lanes,
+        payloads,
+        event,
+        remote,
+        content,
+        null);
+  }
+
+  @AssistedInject
+  PostTask(
+      @WebHooksExecutor ScheduledExecutorService executor,
+      HttpSession.Factory session,
+      Provider<Factory> taskFactory,
+      Bulkheads bulkheads,
+      CircuitBreakers breakers,
+      Outbox outbox,
+      DeadLetters deadLetters,
+      RateLimiters rateLimiters,
+      PriorityLanes lanes,
+      PendingPayloads payloads,
+      @Assisted Batch batch,
+      @Assisted RemoteConfig remote) {
+    this(
+        executor,
+        session,
+        taskFactory,
+        bulkheads,
+        breakers,
+        outbox,
+        deadLetters,
+        rateLimiters,
+        lanes,
+        payloads,
+        batch.getFirstEvent(),
+        remote,
+        batch.toRequest(),
+        batch);
+  }
+
+  private PostTask(
+      ScheduledExecutorService executor,
+      HttpSession.Factory session,
+      Provider<Factory> taskFactory,
+      Bulkheads bulkheads,
+      CircuitBreakers breakers,
+      Outbox outbox,
+      DeadLetters deadLetters,
+      RateLimiters rateLimiters,
+      PriorityLanes lanes,
+      PendingPayloads payloads,
+      ProjectEvent event,
+      RemoteConfig remote,
+      EventProcessor.Request content,
+      @Nullable Batch batch) {
     this.executor = executor;
+    this.taskFactory = taskFactory;
+    this.outbox = outbox;
+    this.deadLetters = deadLetters;
+    this.lanes = lanes;
+    this.payloads = payloads;
+    this.batch = batch;
     this.event = event;
     this.remote = remote;
     this.content = content;
     // postpone creation of HttpSession so that it is obtained only when processor
     // returns non-empty content
     this.session = Suppliers.memoize(() -> session.create(remote));
+    this.bulkhead = bulkheads.get(remote);
+    this.breaker = breakers.get(remote);
+    this.rateLimiter = rateLimiters.get(remote);
+    this.priority =
+        batch != null ? batch.getPriority(remote) : remote.getPriority(event.getType());
   }
 
   void schedule() {
-    executor.execute(this);
+    outboxId = outbox.enqueue(event, remote, content);
+    hold();
+    lanes.execute(priority, this);
+  }
+
+  /** Schedules a delivery that was already recorded in the outbox before a restart. */
+  void replay(long outboxId) {
+    this.outboxId = outboxId;
+    hold();
+    lanes.execute(priority, this);
+  }
+
+  /** Accounts for the payloads while the delivery is pending, spilling them beyond the budget. */
+  private void hold() {
+    if (batch != null) {
+      // the batcher already replaced the spilled requests of the batch, read back as it's posted
+      held = batch.getRequests().stream().map(payloads::hold).collect(toImmutableList());
+      return;
+    }
+    PendingPayloads.Held payload = payloads.hold(content);
+    held = ImmutableList.of(payload);
+    if (payload.isSpilled()) {
+      content = payload.getRequest();
+      event = new RecordedDelivery.ReplayedEvent(event.getType(), event.getProjectNameKey());
+    }
+  }
+
+  /** Removes the delivery from the outbox once it succeeded or was given up. */
+  private void complete() {
+    outbox.ack(outboxId);
+    held.forEach(PendingPayloads.Held::release);
+  }
+
+  /** Keeps the delivery as a dead letter before removing it from the outbox. */
+  private void giveUp(String reason) {
+    deadLetters.add(event, remote, content, execCnt, reason);
+    complete();
   }
 
-  private void reschedule() {
+  private void reschedule(long delay) {
     @SuppressWarnings("unused")
-    ScheduledFuture<?> ignored =
-        executor.schedule(this, remote.getRetryInterval(), TimeUnit.MILLISECONDS);
+    ScheduledFuture<?> ignored = executor.schedule(this, delay, TimeUnit.MILLISECONDS);
+  }
+
+  private long retryDelay(Optional<Duration> retryAfter) {
+    long delay =
+        remote
+            .getRetryBackoff()
+            .delay(remote.getRetryInterval(), remote.getMaxRetryInterval(), execCnt);
+    if (retryAfter.isPresent()) {
+      // wait at least as long as requested by the remote, up to the max retry interval
+      delay = Math.max(delay, Math.min(retryAfter.get().toMillis(), remote.getMaxRetryInterval()));
+    }
+    return delay;
   }
 
   @Override
   public void run() {
+    if (rateLimited) {
+      // admitted already and the token reserved for it is due
+      rateLimited = false;
+      post();
+      return;
+    }
+    // retries are admitted again so that they don't bypass the limits of the remote
+    if (bulkhead.admit(priority, this::admitted, this::complete)) {
+      admitted();
+    }
+  }
+
+  private void admitted() {
+    // the token is only reserved once the post may start, so that queued or dropped posts don't
+    // consume the rate of the remote
+    long wait = rateLimiter.reserve();
+    if (wait > 0) {
+      // waiting for the token doesn't count as a try, the post keeps its slot in the bulkhead
+      rateLimited = true;
+      @SuppressWarnings("unused")
+      ScheduledFuture<?> ignored = executor.schedule(this, wait, TimeUnit.NANOSECONDS);
+      return;
+    }
+    post();
+  }
+
+  private void post() {
+    if (!breaker.tryAcquire()) {
+      // failing fast doesn't count as a try, the post waits for the remote to recover
+      bulkhead.release();
+      onOpenCircuit();
+      return;
+    }
+    execCnt++;
+    HttpResult result;
     try {
-      execCnt++;
-      HttpResult result = session.get().post(remote, content);
-      if (!result.successful) {
-        if (execCnt < remote.getMaxTries()) {
-          logRetry(result.message);
-          reschedule();
-        } else {
-          log.atSevere().log(
-              "Failed to post: %s. Exceeded max retries(%d). Reason: %s",
-              this, remote.getMaxTries(), result.message);
-        }
+      if (session.get().isAsync()) {
+        @SuppressWarnings("unused")
+        CompletableFuture<?> ignored =
+            session.get().postAsync(remote, content).whenComplete(this::onCompletion);
+        return;
       }
+      result = session.get().post(remote, content);
     } catch (Throwable e) {
-      if (isRecoverable(e) && execCnt < remote.getMaxTries()) {
-        logRetry(e);
-        reschedule();
+      onCompletion(null, e);
+      return;
+    }
+    onCompletion(result, null);
+  }
+
+  private void onCompletion(HttpResult result, Throwable failure) {
+    bulkhead.release();
+    if (failure != null || result.isRemoteFailure()) {
+      breaker.onFailure();
+    } else {
+      breaker.onSuccess();
+    }
+    try {
+      if (failure != null) {
+        onFailure(failure instanceof CompletionException ? failure.getCause() : failure);
+      } else {
+        onResult(result);
+      }
+    } catch (RuntimeException e) {
+      log.atSevere().withCause(e).log("Failed to post: %s", this);
+    }
+  }
+
+  private void onOpenCircuit() {
+    // retry once the circuit lets a probe through at the earliest, spread over a retry interval so
+    // that the posts waiting for the circuit don't all retry at once
+    long delay =
+        breaker.getRemainingOpenMillis()
+            + ThreadLocalRandom.current().nextLong(Math.max(0, remote.getRetryInterval()) + 1);
+    logRetry(delay, "circuit breaker is open");
+    reschedule(delay);
+  }
+
+  private void onResult(HttpResult result) {
+    if (!result.successful) {
+      if (batch != null && batch.size() > 1 && isRejected(result)) {
+        // retry each half on its own to isolate the events the remote rejects
+        log.atFine().log("Splitting %s. Reason: %s", this, result.message);
+        for (Batch half : batch.split()) {
+          taskFactory.get().create(half, remote).schedule();
+        }
+        complete();
+        return;
+      }
+      if (execCnt < remote.getMaxTries()) {
+        long delay = retryDelay(result.retryAfter);
+        logRetry(delay, result.message);
+        reschedule(delay);
       } else {
-        log.atSevere().withCause(e).log("Failed to post: %s", this);
+        log.atSevere().log(
+            "Failed to post: %s. Exceeded max retries(%d). Reason: %s",
+            this, remote.getMaxTries(), result.message);
+        giveUp(result.message);
       }
+    } else {
+      complete();
     }
   }
 
+  private void onFailure(Throwable e) {
+    if (isRecoverable(e) && execCnt < remote.getMaxTries()) {
+      long delay = retryDelay(Optional.empty());
+      logRetry(delay, e);
+      reschedule(delay);
+    } else {
+      log.atSevere().withCause(e).log("Failed to post: %s", this);
+      giveUp(e.toString());
+    }
+  }
+
+  private static boolean isRejected(HttpResult result) {
+    return result.statusCode >= SC_BAD_REQUEST
+        && result.statusCode < SC_INTERNAL_SERVER_ERROR
+        && result.statusCode != SC_REQUEST_TIMEOUT
+        && result.statusCode != SC_TOO_MANY_REQUESTS;
+  }
+
   private boolean isRecoverable(Throwable e) {
     return (e instanceof IOException) && !(e instanceof SSLException);
   }
 
-  private void logRetry(String reason) {
-    log.atFine().log("Retrying %s in %dms. Reason: %s", this, remote.getRetryInterval(), reason);
+  private void logRetry(long delay, String reason) {
+    log.atFine().log("Retrying %s in %dms. Reason: %s", this, delay, reason);
   }
 
-  private void logRetry(Throwable cause) {
-    log.atFine().withCause(cause).log("Retrying %s in %dms", this, remote.getRetryInterval());
+  private void logRetry(long delay, Throwable cause) {
+    log.atFine().withCause(cause).log("Retrying %s in %dms", this, delay);
   }
 
   @Override
   public String toString() {
+    if (batch != null) {
+      return new StringBuilder()
+          .append("Processing batch of ")
+          .append(batch.size())
+          .append(" events for remote: ")
+          .append(remote.getUrl())
+          .toString();
+    }
     return new StringBuilder()
         .append("Processing event: ")
         .append(event.getType())
@@ -0,0 +1,37 @@
+// Copyright (C) 2026 The Android Open Source Project
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.googlesource.gerrit.plugins.webhooks;
+
+/** Priority class of the events posted to a remote, see {@link PriorityLanes}. */
+public enum Priority {
+  /** Events that something waits for, e.g. the CI triggered by {@code patchset-created}. */
+  HIGH(8),
+
+  /** Events that are neither high nor low priority. */
+  NORMAL(4),
+
+  /** Events that may lag behind the others, e.g. {@code ref-replicated}. */
+  LOW(1);
+
+  private final int defaultWeight;
+
+  Priority(int defaultWeight) {
+    this.defaultWeight = defaultWeight;
+  }
+
+  int getDefaultWeight() {
+    return defaultWeight;
+  }
+}
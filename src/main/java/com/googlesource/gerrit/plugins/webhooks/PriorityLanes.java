@@ -0,0 +1,79 @@
+// Copyright (C) 2026 The Android Open Source Project
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.googlesource.gerrit.plugins.webhooks;
+
+import com.google.inject.Inject;
+import com.google.inject.Singleton;
+import java.util.concurrent.ScheduledExecutorService;
+
+/**
+ * Hands the posts over to the shared executor in the order of their {@link Priority}. Each post
+ * queued in its lane submits a token to the executor and the token runs whichever queued post
+ * comes next, so that a high priority post waits for the next free thread rather than for all the
+ * low priority posts submitted before it. The lanes are served by a smooth weighted round robin
+ * so that the lower priority lanes get their share of the threads too.
+ */
+@Singleton
+class PriorityLanes {
+  private static class Queued {
+    final Priority priority;
+    final Runnable task;
+    final long queuedNanos;
+
+    Queued(Priority priority, Runnable task) {
+      this.priority = priority;
+      this.task = task;
+      this.queuedNanos = System.nanoTime();
+    }
+  }
+
+  private final ScheduledExecutorService executor;
+  private final WebhooksMetrics metrics;
+  private final PriorityQueues<Queued> lanes;
+
+  @Inject
+  PriorityLanes(
+      @WebHooksExecutor ScheduledExecutorService executor,
+      Configuration cfg,
+      WebhooksMetrics metrics) {
+    this.executor = executor;
+    this.metrics = metrics;
+    this.lanes = new PriorityQueues<>(cfg::getPriorityWeight);
+  }
+
+  /** Queues the task in the lane of the given priority and submits a token to the executor. */
+  void execute(Priority priority, Runnable task) {
+    synchronized (this) {
+      lanes.add(priority, new Queued(priority, task));
+    }
+    executor.execute(this::runNext);
+  }
+
+  synchronized int getQueued(Priority priority) {
+    return lanes.size(priority);
+  }
+
+  private void runNext() {
+    Queued next;
+    synchronized (this) {
+      next = lanes.poll();
+    }
+    if (next == null) {
+      return;
+    }
+    metrics.recordPriorityWait(next.priority, System.nanoTime() - next.queuedNanos);
+    next.task.run();
+  }
+}
@@ -0,0 +1,108 @@
+// Copyright (C) 2026 The Android Open Source Project
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.googlesource.gerrit.plugins.webhooks;
+
+import com.google.gerrit.common.Nullable;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.function.ToIntFunction;
+
+/**
+ * One queue per {@link Priority}, served by a smooth weighted round robin so that the lower
+ * priority queues get their share too: while all of them are non-empty, each priority is polled as
+ * many times as its weight in each round. The caller must synchronize the access.
+ */
+class PriorityQueues<T> {
+  private static class Lane<T> {
+    final int weight;
+    final Deque<T> queued = new ArrayDeque<>();
+    int credit;
+
+    Lane(int weight) {
+      this.weight = weight;
+    }
+  }
+
+  private final Lane<T>[] lanes;
+  private int size;
+
+  @SuppressWarnings("unchecked")
+  PriorityQueues(ToIntFunction<Priority> weights) {
+    Priority[] priorities = Priority.values();
+    lanes = new Lane[priorities.length];
+    for (Priority priority : priorities) {
+      lanes[priority.ordinal()] = new Lane<>(Math.max(1, weights.applyAsInt(priority)));
+    }
+  }
+
+  void add(Priority priority, T element) {
+    lanes[priority.ordinal()].queued.add(element);
+    size++;
+  }
+
+  /** Removes the element that comes next, null if all the queues are empty. */
+  @Nullable
+  T poll() {
+    Lane<T> selected = null;
+    int total = 0;
+    for (Lane<T> lane : lanes) {
+      if (lane.queued.isEmpty()) {
+        continue;
+      }
+      lane.credit += lane.weight;
+      total += lane.weight;
+      // ties go to the higher priority as the lanes are ordered by priority
+      if (selected == null || lane.credit > selected.credit) {
+        selected = lane;
+      }
+    }
+    if (selected == null) {
+      return null;
+    }
+    selected.credit -= total;
+    return remove(selected, selected.queued.poll());
+  }
+
+  /**
+   * Removes the oldest element of the lowest priority, unless all the elements have a higher
+   * priority than {@code priority}, in which case null is returned.
+   */
+  @Nullable
+  T pollLowest(Priority priority) {
+    for (int i = lanes.length - 1; i >= priority.ordinal(); i--) {
+      if (!lanes[i].queued.isEmpty()) {
+        return remove(lanes[i], lanes[i].queued.poll());
+      }
+    }
+    return null;
+  }
+
+  int size() {
+    return size;
+  }
+
+  int size(Priority priority) {
+    return lanes[priority.ordinal()].queued.size();
+  }
+
+  private T remove(Lane<T> lane, T element) {
+    size--;
+    if (lane.queued.isEmpty()) {
+      // an idle lane doesn't save up credit for later
+      lane.credit = 0;
+    }
+    return element;
+  }
+}
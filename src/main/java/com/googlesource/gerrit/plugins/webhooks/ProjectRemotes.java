@@ -0,0 +1,116 @@
+// Copyright (C) 2026 The Android Open Source Project
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.googlesource.gerrit.plugins.webhooks;
+
+import com.google.common.base.MoreObjects;
+import com.google.common.base.Strings;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Maps;
+import com.google.gerrit.entities.Project;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * Routing table of a project: the remotes that events of the project are posted to, resolved from
+ * the inherited plugin configuration. Remotes without URL or with a URL that is not allowed are
+ * already filtered out. The remotes are also indexed by the event types they are subscribed to.
+ */
+class ProjectRemotes {
+  private final Project.NameKey project;
+  private final ImmutableSet<Project.NameKey> parents;
+  private final ImmutableList<RemoteConfig> remotes;
+  private final ImmutableList<RemoteConfig> allEventsRemotes;
+  private final ImmutableMap<String, ImmutableList<RemoteConfig>> remotesByEvent;
+
+  ProjectRemotes(
+      Project.NameKey project,
+      ImmutableSet<Project.NameKey> parents,
+      ImmutableList<RemoteConfig> remotes) {
+    this.project = project;
+    this.parents = parents;
+    this.remotes = remotes;
+
+    Set<String> subscribedEvents = new LinkedHashSet<>();
+    for (RemoteConfig remote : remotes) {
+      remote.getEventTypes().stream()
+          .filter(type -> !Strings.isNullOrEmpty(type))
+          .forEach(subscribedEvents::add);
+    }
+    ImmutableList.Builder<RemoteConfig> allEvents = ImmutableList.builder();
+    Map<String, ImmutableList.Builder<RemoteConfig>> byEvent = new LinkedHashMap<>();
+    subscribedEvents.forEach(type -> byEvent.put(type, ImmutableList.builder()));
+    for (RemoteConfig remote : remotes) {
+      ImmutableSet<String> events = remote.getEventTypes();
+      if (events.isEmpty()) {
+        // no configured event type means that the remote is subscribed to all events
+        allEvents.add(remote);
+        byEvent.values().forEach(builder -> builder.add(remote));
+      } else {
+        events.stream()
+            .filter(byEvent::containsKey)
+            .forEach(type -> byEvent.get(type).add(remote));
+      }
+    }
+    this.allEventsRemotes = allEvents.build();
+    this.remotesByEvent =
+        ImmutableMap.copyOf(Maps.transformValues(byEvent, builder -> builder.build()));
+  }
+
+  Project.NameKey getProject() {
+    return project;
+  }
+
+  ImmutableList<RemoteConfig> getRemotes() {
+    return remotes;
+  }
+
+  /** Returns the remote with the given name. */
+  Optional<RemoteConfig> getRemote(String name) {
+    return remotes.stream().filter(r -> r.getName().equals(name)).findFirst();
+  }
+
+  /** Returns the remotes, in configuration order, that are subscribed to the given event type. */
+  ImmutableList<RemoteConfig> getRemotes(String eventType) {
+    return remotesByEvent.getOrDefault(eventType, allEventsRemotes);
+  }
+
+  /** Returns the event types that at least one of the remotes explicitly subscribed to. */
+  ImmutableSet<String> getSubscribedEvents() {
+    return remotesByEvent.keySet();
+  }
+
+  /** Returns true if at least one of the remotes is subscribed to all event types. */
+  boolean isSubscribedToAllEvents() {
+    return !allEventsRemotes.isEmpty();
+  }
+
+  /** Returns true if the configuration of this project is inherited from {@code other}. */
+  boolean inheritsFrom(Project.NameKey other) {
+    return parents.contains(other);
+  }
+
+  @Override
+  public String toString() {
+    return MoreObjects.toStringHelper(this)
+        .add("project", project.get())
+        .add("remotes", remotes.size())
+        .toString();
+  }
+}
@@ -0,0 +1,74 @@
+// Copyright (C) 2026 The Android Open Source Project
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.googlesource.gerrit.plugins.webhooks;
+
+import com.google.common.base.Ticker;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Token bucket limiting the rate of the posts to a remote URL to {@code rateLimit} per second,
+ * while letting up to {@code rateLimitBurst} posts through at once after a quiet period. Posts
+ * beyond the limit reserve a token in the future and wait until then, in their order of arrival.
+ */
+class RateLimiter {
+  private static final long SECOND_NANOS = TimeUnit.SECONDS.toNanos(1);
+
+  private final WebhooksMetrics metrics;
+  private final Ticker ticker;
+  private int rate;
+  private int burst;
+  // may be negative, by the tokens reserved by the posts that are waiting
+  private double tokens;
+  private long refilledAtNanos;
+
+  RateLimiter(WebhooksMetrics metrics, Ticker ticker) {
+    this.metrics = metrics;
+    this.ticker = ticker;
+  }
+
+  /** Applies the limits configured for the remote, they may differ between projects. */
+  synchronized void configure(int rate, int burst) {
+    if (rate == this.rate && burst == this.burst) {
+      return;
+    }
+    refill(ticker.read());
+    if (this.rate <= 0) {
+      // start with a full bucket
+      tokens = burst;
+    }
+    this.rate = rate;
+    this.burst = burst;
+    tokens = Math.min(tokens, burst);
+  }
+
+  /** Takes a token and returns how many nanoseconds the post has to wait for it. */
+  synchronized long reserve() {
+    if (rate <= 0) {
+      return 0;
+    }
+    refill(ticker.read());
+    tokens--;
+    long wait = tokens >= 0 ? 0 : (long) Math.ceil(-tokens * SECOND_NANOS / rate);
+    metrics.recordRateLimiterWait(wait);
+    return wait;
+  }
+
+  private void refill(long now) {
+    if (rate > 0) {
+      tokens = Math.min(burst, tokens + (double) (now - refilledAtNanos) * rate / SECOND_NANOS);
+    }
+    refilledAtNanos = now;
+  }
+}
@@ -0,0 +1,63 @@
+// Copyright (C) 2026 The Android Open Source Project
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.googlesource.gerrit.plugins.webhooks;
+
+import com.google.common.base.Ticker;
+import com.google.common.collect.ImmutableList;
+import com.google.inject.Inject;
+import com.google.inject.Singleton;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Keeps one {@link RateLimiter} per remote URL, shared by all the projects posting to it. When the
+ * remotes of several projects post to the same URL with different limits, the highest ones apply.
+ */
+@Singleton
+class RateLimiters {
+  private final WebhooksMetrics metrics;
+  private final Map<String, RateLimiter> limiters = new ConcurrentHashMap<>();
+  private final SharedRemotes.Resolver<String> remotes;
+
+  @Inject
+  RateLimiters(WebhooksMetrics metrics, SharedRemotes sharedRemotes) {
+    this.metrics = metrics;
+    this.remotes = sharedRemotes.resolver(RemoteConfig::getUrl);
+  }
+
+  RateLimiter get(RemoteConfig remote) {
+    RateLimiter limiter =
+        limiters.computeIfAbsent(
+            remote.getUrl(), url -> new RateLimiter(metrics, Ticker.systemTicker()));
+    remotes.resolve(remote.getUrl(), remote, shared -> configure(limiter, shared));
+    return limiter;
+  }
+
+  private static void configure(RateLimiter limiter, ImmutableList<RemoteConfig> shared) {
+    boolean unlimited = false;
+    int rate = 0;
+    int burst = 0;
+    for (RemoteConfig remote : shared) {
+      unlimited |= remote.getRateLimit() <= 0;
+      rate = Math.max(rate, remote.getRateLimit());
+      burst = Math.max(burst, remote.getRateLimitBurst());
+    }
+    if (unlimited) {
+      limiter.configure(0, 0);
+    } else {
+      limiter.configure(rate, burst);
+    }
+  }
+}
@@ -0,0 +1,115 @@
+// Copyright (C) 2026 The Android Open Source Project
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.googlesource.gerrit.plugins.webhooks;
+
+import com.google.common.io.ByteSource;
+import com.google.gerrit.entities.Project;
+import com.google.gerrit.server.events.ProjectEvent;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Delivery as it is recorded on disk by the {@link Outbox} and the {@link DeadLetters}: the name
+ * of the remote and the request posted to it, but only the type and the project of the event.
+ */
+public class RecordedDelivery {
+  private final Project.NameKey project;
+  private final String eventType;
+  private final String remoteName;
+  private final EventProcessor.Request content;
+
+  RecordedDelivery(
+      Project.NameKey project,
+      String eventType,
+      String remoteName,
+      EventProcessor.Request content) {
+    this.project = project;
+    this.eventType = eventType;
+    this.remoteName = remoteName;
+    this.content = content;
+  }
+
+  public Project.NameKey getProject() {
+    return project;
+  }
+
+  public String getEventType() {
+    return eventType;
+  }
+
+  public String getRemoteName() {
+    return remoteName;
+  }
+
+  public EventProcessor.Request getContent() {
+    return content;
+  }
+
+  ProjectEvent toEvent() {
+    return new ReplayedEvent(eventType, project);
+  }
+
+  /** Writes the delivery, the body is written up to the end of the stream. */
+  static void write(
+      DataOutputStream out, ProjectEvent event, RemoteConfig remote, EventProcessor.Request content)
+      throws IOException {
+    out.writeUTF(event.getProjectNameKey().get());
+    out.writeUTF(event.getType());
+    out.writeUTF(remote.getName());
+    out.writeInt(content.headers.size());
+    for (Map.Entry<String, String> header : content.headers.entrySet()) {
+      out.writeUTF(header.getKey());
+      out.writeUTF(header.getValue());
+    }
+    content.getPayload().copyTo(out);
+  }
+
+  static RecordedDelivery read(DataInputStream in) throws IOException {
+    Project.NameKey project = Project.nameKey(in.readUTF());
+    String type = in.readUTF();
+    String remoteName = in.readUTF();
+    int headerCount = in.readInt();
+    Map<String, String> headers = new HashMap<>();
+    for (int i = 0; i < headerCount; i++) {
+      headers.put(in.readUTF(), in.readUTF());
+    }
+    ByteSource payload = ByteSource.wrap(in.readAllBytes());
+    return new RecordedDelivery(
+        project, type, remoteName, new EventProcessor.Request(payload, headers));
+  }
+
+  /** Event of a replayed delivery, only its type and project are known. */
+  static class ReplayedEvent extends ProjectEvent {
+    private final Project.NameKey project;
+
+    ReplayedEvent(String type, Project.NameKey project) {
+      super(type);
+      this.project = project;
+    }
+
+    @Override
+    public Project.NameKey getProjectNameKey() {
+      return project;
+    }
+
+    @Override
+    public String toString() {
+      return type + " event of project " + project.get();
+    }
+  }
+}
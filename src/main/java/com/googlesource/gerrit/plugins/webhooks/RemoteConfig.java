@@ -16,6 +16,7 @@ package com.googlesource.gerrit.plugins.webhooks;
 
 import static com.googlesource.gerrit.plugins.webhooks.Configuration.UNSET_CONFIG_INT;
 
+import com.google.common.collect.ImmutableSet;
 import com.google.inject.Inject;
 import com.google.inject.assistedinject.Assisted;
 import java.util.Arrays;
@@ -34,11 +35,60 @@ public class RemoteConfig {
   static final String MAX_TRIES = "maxTries";
   static final String RETRY_INTERVAL = "retryInterval";
   static final String SSL_VERIFY = "sslVerify";
+  static final String MAX_CONCURRENT_POSTS = "maxConcurrentPosts";
+  static final String QUEUE_SIZE = "queueSize";
+  static final String OVERFLOW_POLICY = "overflowPolicy";
+  static final String RETRY_BACKOFF = "retryBackoff";
+  static final String MAX_RETRY_INTERVAL = "maxRetryInterval";
+  static final String CIRCUIT_BREAKER_THRESHOLD = "circuitBreakerThreshold";
+  static final String CIRCUIT_BREAKER_OPEN_INTERVAL = "circuitBreakerOpenInterval";
+  static final String BATCH_FORMAT = "batchFormat";
+  static final String MAX_BATCH_SIZE = "maxBatchSize";
+  static final String MAX_BATCH_BYTES = "maxBatchBytes";
+  static final String BATCH_LINGER = "batchLinger";
+  static final String COALESCE_WINDOW = "coalesceWindow";
+  static final String COALESCE_EVENT = "coalesceEvent";
+  static final String HIGH_PRIORITY_EVENT = "highPriorityEvent";
+  static final String LOW_PRIORITY_EVENT = "lowPriorityEvent";
+  static final String FIELD = "field";
+  static final String COMPRESSION = "compression";
+  static final String HTTP2 = "http2";
+  static final String MAX_CONNECTIONS_PER_ROUTE = "maxConnectionsPerRoute";
+  static final String RATE_LIMIT = "rateLimit";
+  static final String RATE_LIMIT_BURST = "rateLimitBurst";
 
   private final Configuration global;
   private final Config config;
   private final String url;
   private final String name;
+  private final String[] events;
+  private final ImmutableSet<String> eventTypes;
+  private final int connectionTimeout;
+  private final int socketTimeout;
+  private final int maxTries;
+  private final int retryInterval;
+  private final RetryBackoff retryBackoff;
+  private final int maxRetryInterval;
+  private final boolean sslVerify;
+  private final int maxConcurrentPosts;
+  private final int queueSize;
+  private final OverflowPolicy overflowPolicy;
+  private final int circuitBreakerThreshold;
+  private final int circuitBreakerOpenInterval;
+  private final BatchFormat batchFormat;
+  private final int maxBatchSize;
+  private final int maxBatchBytes;
+  private final int batchLinger;
+  private final int coalesceWindow;
+  private final ImmutableSet<String> coalesceEvents;
+  private final ImmutableSet<String> highPriorityEvents;
+  private final ImmutableSet<String> lowPriorityEvents;
+  private final FieldProjection fieldProjection;
+  private final Compression compression;
+  private final boolean http2;
+  private final int maxConnectionsPerRoute;
+  private final int rateLimit;
+  private final int rateLimitBurst;
 
   @Inject
   RemoteConfig(
@@ -47,60 +97,219 @@ public class RemoteConfig {
     this.config = config;
     this.name = name;
     this.url = config.getString(REMOTE, name, "url");
+    // the configuration is parsed once as remotes are cached and read for each posted event
+    this.events = parseEvents(global, config, name);
+    this.eventTypes = ImmutableSet.copyOf(events);
+    this.connectionTimeout =
+        cap(
+            config.getInt(REMOTE, name, CONNECTION_TIMEOUT, global.getConnectionTimeout()),
+            global.getMaxAllowedConnectionTimeout());
+    this.socketTimeout =
+        cap(
+            config.getInt(REMOTE, name, SOCKET_TIMEOUT, global.getSocketTimeout()),
+            global.getMaxAllowedSocketTimeout());
+    int configuredMaxTries = config.getInt(REMOTE, name, MAX_TRIES, global.getMaxTries());
+    this.maxTries =
+        (global.getMaxAllowedTries() != UNSET_CONFIG_INT)
+            ? Math.min(configuredMaxTries, global.getMaxAllowedTries())
+            : configuredMaxTries;
+    this.retryInterval =
+        cap(
+            config.getInt(REMOTE, name, RETRY_INTERVAL, global.getRetryInterval()),
+            global.getMaxAllowedRetryInterval());
+    this.retryBackoff = config.getEnum(REMOTE, name, RETRY_BACKOFF, global.getRetryBackoff());
+    this.maxRetryInterval =
+        cap(
+            config.getInt(REMOTE, name, MAX_RETRY_INTERVAL, global.getMaxRetryInterval()),
+            global.getMaxAllowedRetryInterval());
+    this.sslVerify = config.getBoolean(REMOTE, name, SSL_VERIFY, global.getSslVerify());
+    this.maxConcurrentPosts =
+        config.getInt(REMOTE, name, MAX_CONCURRENT_POSTS, global.getMaxConcurrentPosts());
+    this.queueSize = config.getInt(REMOTE, name, QUEUE_SIZE, global.getQueueSize());
+    this.overflowPolicy =
+        config.getEnum(REMOTE, name, OVERFLOW_POLICY, global.getOverflowPolicy());
+    this.circuitBreakerThreshold =
+        config.getInt(
+            REMOTE, name, CIRCUIT_BREAKER_THRESHOLD, global.getCircuitBreakerThreshold());
+    this.circuitBreakerOpenInterval =
+        config.getInt(
+            REMOTE, name, CIRCUIT_BREAKER_OPEN_INTERVAL, global.getCircuitBreakerOpenInterval());
+    this.batchFormat = config.getEnum(REMOTE, name, BATCH_FORMAT, global.getBatchFormat());
+    this.maxBatchSize = config.getInt(REMOTE, name, MAX_BATCH_SIZE, global.getMaxBatchSize());
+    this.maxBatchBytes = config.getInt(REMOTE, name, MAX_BATCH_BYTES, global.getMaxBatchBytes());
+    this.batchLinger = config.getInt(REMOTE, name, BATCH_LINGER, global.getBatchLinger());
+    this.coalesceWindow =
+        config.getInt(REMOTE, name, COALESCE_WINDOW, global.getCoalesceWindow());
+    this.coalesceEvents =
+        eventSet(config, name, COALESCE_EVENT, global.getCoalesceEvents());
+    this.highPriorityEvents =
+        eventSet(config, name, HIGH_PRIORITY_EVENT, global.getHighPriorityEvents());
+    this.lowPriorityEvents =
+        eventSet(config, name, LOW_PRIORITY_EVENT, global.getLowPriorityEvents());
+    this.fieldProjection = FieldProjection.compile(config.getStringList(REMOTE, name, FIELD));
+    this.compression = config.getEnum(REMOTE, name, COMPRESSION, global.getCompression());
+    this.http2 = config.getBoolean(REMOTE, name, HTTP2, global.getHttp2());
+    // the global value is the default of the connection pools already
+    this.maxConnectionsPerRoute = config.getInt(REMOTE, name, MAX_CONNECTIONS_PER_ROUTE, 0);
+    this.rateLimit = config.getInt(REMOTE, name, RATE_LIMIT, global.getRateLimit());
+    int burst = config.getInt(REMOTE, name, RATE_LIMIT_BURST, global.getRateLimitBurst());
+    // by default a second worth of posts may go through at once
+    this.rateLimitBurst = burst > 0 ? burst : Math.max(1, rateLimit);
   }
 
-  public String getUrl() {
-    return url;
-  }
-
-  public String[] getEvents() {
+  private static String[] parseEvents(Configuration global, Config config, String name) {
     String[] globalAllowedEvents = global.getAllowedEvents();
     String[] remoteEvents = config.getStringList(REMOTE, name, "event");
+    String[] events;
     if (globalAllowedEvents.length > 0) {
       if (remoteEvents.length > 0) {
         List<String> globalAllowedEventsList = Arrays.asList(globalAllowedEvents);
-        return Arrays.stream(remoteEvents)
-            .distinct()
-            .filter(globalAllowedEventsList::contains)
-            .toArray(String[]::new);
+        events =
+            Arrays.stream(remoteEvents)
+                .distinct()
+                .filter(globalAllowedEventsList::contains)
+                .toArray(String[]::new);
+      } else {
+        events = globalAllowedEvents;
       }
-      return globalAllowedEvents;
+    } else {
+      events = remoteEvents;
     }
-    return remoteEvents;
+    return Arrays.stream(events).map(String::intern).toArray(String[]::new);
+  }
+
+  private static ImmutableSet<String> eventSet(
+      Config config, String name, String key, String[] globalEvents) {
+    String[] remoteEvents = config.getStringList(REMOTE, name, key);
+    return ImmutableSet.copyOf(remoteEvents.length > 0 ? remoteEvents : globalEvents);
+  }
+
+  private static int cap(int value, int maxAllowed) {
+    return (maxAllowed > 0) ? Math.min(value, maxAllowed) : value;
+  }
+
+  public String getUrl() {
+    return url;
+  }
+
+  public String[] getEvents() {
+    return events.clone();
+  }
+
+  /**
+   * Returns the event types the remote is subscribed to, without copying them as {@link
+   * #getEvents()} does. The remote is subscribed to all events if there are none.
+   */
+  public ImmutableSet<String> getEventTypes() {
+    return eventTypes;
   }
 
   public int getConnectionTimeout() {
-    int connectionTimeout =
-        config.getInt(REMOTE, name, CONNECTION_TIMEOUT, global.getConnectionTimeout());
-    return (global.getMaxAllowedConnectionTimeout() > 0)
-        ? Math.min(connectionTimeout, global.getMaxAllowedConnectionTimeout())
-        : connectionTimeout;
+    return connectionTimeout;
   }
 
   public int getSocketTimeout() {
-    int socketTimeout = config.getInt(REMOTE, name, SOCKET_TIMEOUT, global.getSocketTimeout());
-    return (global.getMaxAllowedSocketTimeout() > 0)
-        ? Math.min(socketTimeout, global.getMaxAllowedSocketTimeout())
-        : socketTimeout;
+    return socketTimeout;
   }
 
   public int getMaxTries() {
-    int maxAllowedRetries = global.getMaxAllowedTries();
-    int maxTries = config.getInt(REMOTE, name, MAX_TRIES, global.getMaxTries());
-    return (maxAllowedRetries != UNSET_CONFIG_INT)
-        ? Math.min(maxTries, maxAllowedRetries)
-        : maxTries;
+    return maxTries;
   }
 
   public int getRetryInterval() {
-    int retryInterval = config.getInt(REMOTE, name, RETRY_INTERVAL, global.getRetryInterval());
-    return (global.getMaxAllowedRetryInterval() > 0)
-        ? Math.min(retryInterval, global.getMaxAllowedRetryInterval())
-        : retryInterval;
+    return retryInterval;
+  }
+
+  public RetryBackoff getRetryBackoff() {
+    return retryBackoff;
+  }
+
+  public int getMaxRetryInterval() {
+    return maxRetryInterval;
   }
 
   public boolean getSslVerify() {
-    return config.getBoolean(REMOTE, name, SSL_VERIFY, global.getSslVerify());
+    return sslVerify;
+  }
+
+  public int getMaxConcurrentPosts() {
+    return maxConcurrentPosts;
+  }
+
+  public int getQueueSize() {
+    return queueSize;
+  }
+
+  public OverflowPolicy getOverflowPolicy() {
+    return overflowPolicy;
+  }
+
+  public int getCircuitBreakerThreshold() {
+    return circuitBreakerThreshold;
+  }
+
+  public int getCircuitBreakerOpenInterval() {
+    return circuitBreakerOpenInterval;
+  }
+
+  public BatchFormat getBatchFormat() {
+    return batchFormat;
+  }
+
+  public int getMaxBatchSize() {
+    return maxBatchSize;
+  }
+
+  public int getMaxBatchBytes() {
+    return maxBatchBytes;
+  }
+
+  public int getBatchLinger() {
+    return batchLinger;
+  }
+
+  public int getCoalesceWindow() {
+    return coalesceWindow;
+  }
+
+  /** Returns the types of the events that are superseded by a later event of the same type. */
+  public ImmutableSet<String> getCoalesceEvents() {
+    return coalesceEvents;
+  }
+
+  public FieldProjection getFieldProjection() {
+    return fieldProjection;
+  }
+
+  public Priority getPriority(String eventType) {
+    if (highPriorityEvents.contains(eventType)) {
+      return Priority.HIGH;
+    }
+    if (lowPriorityEvents.contains(eventType)) {
+      return Priority.LOW;
+    }
+    return Priority.NORMAL;
+  }
+
+  public Compression getCompression() {
+    return compression;
+  }
+
+  public boolean getHttp2() {
+    return http2;
+  }
+
+  /** Returns the limit set for the remote, 0 if the global limit applies. */
+  public int getMaxConnectionsPerRoute() {
+    return maxConnectionsPerRoute;
+  }
+
+  public int getRateLimit() {
+    return rateLimit;
+  }
+
+  public int getRateLimitBurst() {
+    return rateLimitBurst;
   }
 
   // methods were added in order to make configuration
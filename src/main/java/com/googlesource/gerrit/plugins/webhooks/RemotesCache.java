@@ -0,0 +1,161 @@
+// Copyright (C) 2026 The Android Open Source Project
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.googlesource.gerrit.plugins.webhooks;
+
+import static com.google.common.collect.ImmutableList.toImmutableList;
+import static com.googlesource.gerrit.plugins.webhooks.RemoteConfig.REMOTE;
+
+import com.google.common.base.Strings;
+import com.google.common.base.Throwables;
+import com.google.common.cache.CacheLoader;
+import com.google.common.cache.LoadingCache;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.flogger.FluentLogger;
+import com.google.common.util.concurrent.UncheckedExecutionException;
+import com.google.gerrit.entities.Project;
+import com.google.gerrit.exceptions.StorageException;
+import com.google.gerrit.extensions.annotations.PluginName;
+import com.google.gerrit.server.cache.CacheModule;
+import com.google.gerrit.server.config.PluginConfigFactory;
+import com.google.gerrit.server.project.NoSuchProjectException;
+import com.google.gerrit.server.project.ProjectCache;
+import com.google.gerrit.server.project.ProjectState;
+import com.google.inject.Inject;
+import com.google.inject.Module;
+import com.google.inject.Singleton;
+import com.google.inject.name.Named;
+import java.util.concurrent.ExecutionException;
+import org.eclipse.jgit.lib.Config;
+
+/** Caches the {@link ProjectRemotes} routing table of each project. */
+@Singleton
+class RemotesCache {
+  private static final FluentLogger log = FluentLogger.forEnclosingClass();
+
+  static final String CACHE_NAME = "remotes";
+
+  static Module module() {
+    return new CacheModule() {
+      @Override
+      protected void configure() {
+        cache(CACHE_NAME, Project.NameKey.class, ProjectRemotes.class).loader(Loader.class);
+      }
+    };
+  }
+
+  private final LoadingCache<Project.NameKey, ProjectRemotes> cache;
+
+  @Inject
+  RemotesCache(@Named(CACHE_NAME) LoadingCache<Project.NameKey, ProjectRemotes> cache) {
+    this.cache = cache;
+  }
+
+  ProjectRemotes get(Project.NameKey project) throws NoSuchProjectException {
+    try {
+      return cache.get(project);
+    } catch (ExecutionException | UncheckedExecutionException e) {
+      Throwables.throwIfInstanceOf(e.getCause(), NoSuchProjectException.class);
+      throw new StorageException(
+          String.format("Cannot load webhooks remotes of project %s", project.get()), e);
+    }
+  }
+
+  /**
+   * Evicts the routing table of the given project and of all the projects that inherit their
+   * configuration from it.
+   */
+  void evict(Project.NameKey project) {
+    cache.invalidate(project);
+    ImmutableList<Project.NameKey> children =
+        cache.asMap().values().stream()
+            .filter(remotes -> remotes.inheritsFrom(project))
+            .map(ProjectRemotes::getProject)
+            .collect(toImmutableList());
+    cache.invalidateAll(children);
+    log.atFine().log(
+        "Evicted webhooks remotes of project %s and %d inheriting projects",
+        project.get(), children.size());
+  }
+
+  static class Loader extends CacheLoader<Project.NameKey, ProjectRemotes> {
+    private final AllowedUrlMatcher allowedUrls;
+    private final PluginConfigFactory configFactory;
+    private final ProjectCache projectCache;
+    private final String pluginName;
+    private final RemoteConfig.Factory remoteFactory;
+    private final SharedRemotes sharedRemotes;
+
+    @Inject
+    Loader(
+        AllowedUrlMatcher allowedUrls,
+        PluginConfigFactory configFactory,
+        ProjectCache projectCache,
+        @PluginName String pluginName,
+        RemoteConfig.Factory remoteFactory,
+        SharedRemotes sharedRemotes) {
+      this.allowedUrls = allowedUrls;
+      this.configFactory = configFactory;
+      this.projectCache = projectCache;
+      this.pluginName = pluginName;
+      this.remoteFactory = remoteFactory;
+      this.sharedRemotes = sharedRemotes;
+    }
+
+    @Override
+    public ProjectRemotes load(Project.NameKey project) throws NoSuchProjectException {
+      Config cfg;
+      try {
+        cfg = configFactory.getProjectPluginConfigWithInheritance(project, pluginName);
+      } catch (NoSuchProjectException e) {
+        sharedRemotes.update(project, ImmutableList.of());
+        throw e;
+      }
+      ImmutableList.Builder<RemoteConfig> remotes = ImmutableList.builder();
+      for (String name : cfg.getSubsections(REMOTE)) {
+        RemoteConfig remote;
+        try {
+          remote = remoteFactory.create(cfg, name);
+        } catch (IllegalArgumentException e) {
+          // e.g. a malformed number, the other remotes of the project are still loaded
+          log.atSevere().withCause(e).log(
+              "remote.%s of project %s cannot be parsed, skipping this remote",
+              name, project.get());
+          continue;
+        }
+        if (Strings.isNullOrEmpty(remote.getUrl())) {
+          log.atWarning().log("remote.%s.url not defined, skipping this remote", name);
+          continue;
+        }
+        if (!allowedUrls.isAllowed(remote.getUrl())) {
+          log.atWarning().log(
+              "remote.%s.url does not match any allowed URL patterns, skipping this remote", name);
+          continue;
+        }
+        remotes.add(remote);
+      }
+      ImmutableList<RemoteConfig> loaded = remotes.build();
+      sharedRemotes.update(project, loaded);
+      return new ProjectRemotes(project, parents(project), loaded);
+    }
+
+    private ImmutableSet<Project.NameKey> parents(Project.NameKey project) {
+      return projectCache
+          .get(project)
+          .map(state -> state.parents().transform(ProjectState::getNameKey).toSet())
+          .orElse(ImmutableSet.of());
+    }
+  }
+}
@@ -0,0 +1,48 @@
+// Copyright (C) 2026 The Android Open Source Project
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.googlesource.gerrit.plugins.webhooks;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/** How the interval between the subsequent retries of a post evolves. */
+public enum RetryBackoff {
+  /** Retry after {@code retryInterval} every time. */
+  FIXED {
+    @Override
+    long delay(int retryInterval, int maxRetryInterval, int retry) {
+      return retryInterval;
+    }
+  },
+
+  /**
+   * Retry after a random delay between 0 and {@code retryInterval} doubled for every retry, capped
+   * by {@code maxRetryInterval}, so that posts that failed together don't retry in lockstep.
+   */
+  EXPONENTIAL {
+    @Override
+    long delay(int retryInterval, int maxRetryInterval, int retry) {
+      // stop doubling once the cap is reached to avoid overflows
+      long ceiling = Math.max(0, retryInterval);
+      for (int i = 1; i < retry && ceiling < maxRetryInterval; i++) {
+        ceiling *= 2;
+      }
+      ceiling = Math.min(ceiling, maxRetryInterval);
+      return ceiling > 0 ? ThreadLocalRandom.current().nextLong(ceiling + 1) : 0;
+    }
+  };
+
+  /** Returns the delay in milliseconds before the given retry, starting at 1. */
+  abstract long delay(int retryInterval, int maxRetryInterval, int retry);
+}
@@ -0,0 +1,88 @@
+// Copyright (C) 2026 The Android Open Source Project
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.googlesource.gerrit.plugins.webhooks;
+
+import static com.google.common.collect.ImmutableList.toImmutableList;
+
+import com.google.common.collect.ImmutableList;
+import com.google.gerrit.entities.Project;
+import com.google.inject.Singleton;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * Keeps the remotes of each project as last loaded by the {@link RemotesCache}, so that the
+ * settings applied to a url or a host as a whole are resolved from the current remotes of all the
+ * projects sharing it. The remotes of a project are replaced when its configuration is reloaded:
+ * an updated remote replaces its previous settings rather than adding to them.
+ */
+@Singleton
+class SharedRemotes {
+  private final Map<Project.NameKey, ImmutableList<RemoteConfig>> remotes =
+      new ConcurrentHashMap<>();
+  private final AtomicLong generation = new AtomicLong();
+
+  /** Replaces the remotes of the project, e.g. with none if the project was deleted. */
+  void update(Project.NameKey project, ImmutableList<RemoteConfig> loaded) {
+    if (loaded.isEmpty()) {
+      remotes.remove(project);
+    } else {
+      remotes.put(project, loaded);
+    }
+    generation.incrementAndGet();
+  }
+
+  /** Returns a resolver of the settings shared by the remotes having the same key. */
+  <K> Resolver<K> resolver(Function<RemoteConfig, K> keyOf) {
+    return new Resolver<>(keyOf);
+  }
+
+  /** Resolves the settings of each key again only when the remotes of a project changed. */
+  class Resolver<K> {
+    private final Function<RemoteConfig, K> keyOf;
+    private final Map<K, AtomicLong> resolved = new ConcurrentHashMap<>();
+
+    private Resolver(Function<RemoteConfig, K> keyOf) {
+      this.keyOf = keyOf;
+    }
+
+    /**
+     * Calls {@code apply} with the current remotes sharing {@code key} if they changed since the
+     * last call for that key, or with {@code remote} alone if no project has a remote with that
+     * key. Calls for the same key are serialized so that the latest resolution is applied last.
+     */
+    void resolve(K key, RemoteConfig remote, Consumer<ImmutableList<RemoteConfig>> apply) {
+      AtomicLong resolvedAt = resolved.computeIfAbsent(key, k -> new AtomicLong(-1));
+      synchronized (resolvedAt) {
+        long current = generation.get();
+        if (resolvedAt.get() == current) {
+          return;
+        }
+        ImmutableList<RemoteConfig> shared =
+            remotes.values().stream()
+                .flatMap(List::stream)
+                .filter(r -> Objects.equals(key, keyOf.apply(r)))
+                .collect(toImmutableList());
+        apply.accept(shared.isEmpty() ? ImmutableList.of(remote) : shared);
+        resolvedAt.set(current);
+      }
+    }
+  }
+}
@@ -27,8 +27,8 @@ class SslVerifyingHttpClientProvider extends HttpClientProvider {
   static final String SSL_VERIFY = "ssl_verify";
 
   @Inject
-  protected SslVerifyingHttpClientProvider(Configuration cfg) {
-    super(cfg, socketFactoryProvider());
+  protected SslVerifyingHttpClientProvider(Configuration cfg, ConnectionPools pools) {
+    super(cfg, pools, socketFactoryProvider());
   }
 
   private static Provider<Registry<ConnectionSocketFactory>> socketFactoryProvider() {
@@ -0,0 +1,203 @@
+// Copyright (C) 2026 The Android Open Source Project
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.googlesource.gerrit.plugins.webhooks;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Iterables;
+import com.google.common.flogger.FluentLogger;
+import com.google.gerrit.common.Nullable;
+import com.google.gerrit.entities.Project;
+import com.google.gerrit.exceptions.StorageException;
+import com.google.gerrit.extensions.events.LifecycleListener;
+import com.google.gerrit.server.git.WorkQueue;
+import com.google.gerrit.server.project.NoSuchProjectException;
+import com.google.gerrit.server.project.ProjectCache;
+import com.google.gerrit.server.project.ProjectState;
+import com.google.inject.Inject;
+import com.google.inject.Singleton;
+import java.util.ArrayDeque;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Site-wide index from event type to the projects that have at least one remote subscribed to it,
+ * so that events nobody is subscribed to are dropped without resolving any project configuration.
+ * The remotes of a subscribed project are then looked up in its {@link ProjectRemotes}.
+ *
+ * <p>The index is built in the background on plugin start and updated whenever {@code
+ * refs/meta/config} of a project is updated, along with the projects inheriting from it, which are
+ * tracked by the index too. While the index is being built or updated it considers all events as
+ * subscribed.
+ */
+@Singleton
+class SubscriptionIndex implements LifecycleListener {
+  private static final FluentLogger log = FluentLogger.forEnclosingClass();
+
+  private final ProjectCache projectCache;
+  private final RemotesCache remotesCache;
+  private final WorkQueue workQueue;
+  private final Map<String, Set<Project.NameKey>> projectsByEvent = new ConcurrentHashMap<>();
+  private final Set<Project.NameKey> allEventsProjects = ConcurrentHashMap.newKeySet();
+  private final Map<Project.NameKey, ProjectRemotes> indexed = new ConcurrentHashMap<>();
+  // the projects directly inheriting from each project, guarded by this
+  private final Map<Project.NameKey, Set<Project.NameKey>> children = new HashMap<>();
+  private final Map<Project.NameKey, Project.NameKey> parents = new HashMap<>();
+  // the initial build of the index is pending until the plugin is started
+  private final AtomicInteger pendingUpdates = new AtomicInteger(1);
+  private volatile boolean built;
+
+  @Inject
+  SubscriptionIndex(ProjectCache projectCache, RemotesCache remotesCache, WorkQueue workQueue) {
+    this.projectCache = projectCache;
+    this.remotesCache = remotesCache;
+    this.workQueue = workQueue;
+  }
+
+  @Override
+  public void start() {
+    submit(
+        () -> {
+          update(projectCache.all());
+          built = true;
+          log.atInfo().log("Webhooks subscriptions indexed for %d projects", indexed.size());
+        });
+  }
+
+  @Override
+  public void stop() {
+    // do nothing
+  }
+
+  /** Returns true if any project may have a remote that is subscribed to the event type. */
+  boolean isSubscribed(String eventType) {
+    return pendingUpdates.get() > 0
+        || !allEventsProjects.isEmpty()
+        || !projectsByEvent.getOrDefault(eventType, Collections.emptySet()).isEmpty();
+  }
+
+  /** Returns true if the project may have a remote that is subscribed to the event type. */
+  boolean isSubscribed(String eventType, Project.NameKey project) {
+    return pendingUpdates.get() > 0
+        || allEventsProjects.contains(project)
+        || projectsByEvent.getOrDefault(eventType, Collections.emptySet()).contains(project);
+  }
+
+  /**
+   * Re-indexes the given project and all the projects that inherit their configuration from it.
+   * Must be called after the project was evicted from the {@link RemotesCache}.
+   */
+  void onConfigUpdated(Project.NameKey project) {
+    pendingUpdates.incrementAndGet();
+    // the projects inheriting from it are only known once the index was built
+    submit(() -> update(built ? withDescendants(project) : projectCache.all()));
+  }
+
+  private void submit(Runnable update) {
+    @SuppressWarnings("unused")
+    Future<?> ignored =
+        workQueue
+            .getDefaultQueue()
+            .submit(
+                () -> {
+                  try {
+                    update.run();
+                  } finally {
+                    pendingUpdates.decrementAndGet();
+                  }
+                });
+  }
+
+  private synchronized ImmutableList<Project.NameKey> withDescendants(Project.NameKey project) {
+    Set<Project.NameKey> found = new LinkedHashSet<>();
+    Deque<Project.NameKey> pending = new ArrayDeque<>();
+    pending.add(project);
+    while (!pending.isEmpty()) {
+      Project.NameKey next = pending.poll();
+      if (found.add(next)) {
+        pending.addAll(children.getOrDefault(next, Collections.emptySet()));
+      }
+    }
+    return ImmutableList.copyOf(found);
+  }
+
+  private Optional<Project.NameKey> getParent(Project.NameKey project) {
+    return projectCache
+        .get(project)
+        .map(state -> Iterables.getFirst(state.parents(), null))
+        .map(ProjectState::getNameKey);
+  }
+
+  private void update(Iterable<Project.NameKey> projects) {
+    for (Project.NameKey project : projects) {
+      try {
+        index(project, remotesCache.get(project), getParent(project).orElse(null));
+      } catch (NoSuchProjectException e) {
+        index(project, null, null);
+      } catch (StorageException e) {
+        log.atWarning().withCause(e).log(
+            "Cannot index webhooks subscriptions of project %s", project.get());
+      }
+    }
+  }
+
+  private synchronized void index(
+      Project.NameKey project,
+      @Nullable ProjectRemotes remotes,
+      @Nullable Project.NameKey parent) {
+    Project.NameKey previousParent =
+        parent != null ? parents.put(project, parent) : parents.remove(project);
+    if (previousParent != null && !previousParent.equals(parent)) {
+      Set<Project.NameKey> siblings = children.get(previousParent);
+      siblings.remove(project);
+      if (siblings.isEmpty()) {
+        children.remove(previousParent);
+      }
+    }
+    if (parent != null) {
+      children.computeIfAbsent(parent, p -> new HashSet<>()).add(project);
+    }
+
+    ProjectRemotes previous =
+        (remotes == null || remotes.getRemotes().isEmpty())
+            ? indexed.remove(project)
+            : indexed.put(project, remotes);
+    if (previous != null) {
+      allEventsProjects.remove(project);
+      for (String type : previous.getSubscribedEvents()) {
+        Set<Project.NameKey> projects = projectsByEvent.get(type);
+        if (projects != null) {
+          projects.remove(project);
+        }
+      }
+    }
+    if (remotes != null && !remotes.getRemotes().isEmpty()) {
+      if (remotes.isSubscribedToAllEvents()) {
+        allEventsProjects.add(project);
+      }
+      for (String type : remotes.getSubscribedEvents()) {
+        projectsByEvent.computeIfAbsent(type, t -> ConcurrentHashMap.newKeySet()).add(project);
+      }
+    }
+  }
+}
@@ -0,0 +1,131 @@
+// Copyright (C) 2026 The Android Open Source Project
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.googlesource.gerrit.plugins.webhooks;
+
+import com.google.common.flogger.FluentLogger;
+import java.lang.reflect.InvocationTargetException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.AbstractExecutorService;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Runs each task on its own virtual thread while a small platform thread scheduler only keeps
+ * track of the delayed tasks, e.g. the retries, and hands them over to a virtual thread once they
+ * are due.
+ *
+ * <p>The futures returned by the {@code schedule} methods taking a {@link Runnable} complete once
+ * the task was handed over, not once it has run.
+ */
+class VirtualThreadExecutor extends AbstractExecutorService implements ScheduledExecutorService {
+  private static final FluentLogger log = FluentLogger.forEnclosingClass();
+
+  /**
+   * Returns an executor running the tasks on virtual threads named after the given prefix, or
+   * empty if the JVM doesn't support virtual threads.
+   */
+  static Optional<ExecutorService> newVirtualThreadPerTaskExecutor(String prefix) {
+    // looked up reflectively as the plugin is still compiled for Java versions without them
+    try {
+      Object builder = Thread.class.getMethod("ofVirtual").invoke(null);
+      Class<?> builderClass = Class.forName("java.lang.Thread$Builder");
+      builder =
+          builderClass.getMethod("name", String.class, long.class).invoke(builder, prefix, 0L);
+      ThreadFactory factory = (ThreadFactory) builderClass.getMethod("factory").invoke(builder);
+      return Optional.of(
+          (ExecutorService)
+              Executors.class
+                  .getMethod("newThreadPerTaskExecutor", ThreadFactory.class)
+                  .invoke(null, factory));
+    } catch (ReflectiveOperationException e) {
+      Throwable cause = e instanceof InvocationTargetException ? e.getCause() : e;
+      log.atFine().withCause(cause).log("Virtual threads are not available");
+      return Optional.empty();
+    }
+  }
+
+  private final ScheduledExecutorService scheduler;
+  private final ExecutorService executor;
+
+  VirtualThreadExecutor(ScheduledExecutorService scheduler, ExecutorService executor) {
+    this.scheduler = scheduler;
+    this.executor = executor;
+  }
+
+  @Override
+  public void execute(Runnable command) {
+    executor.execute(command);
+  }
+
+  @Override
+  public ScheduledFuture<?> schedule(Runnable command, long delay, TimeUnit unit) {
+    return scheduler.schedule(() -> execute(command), delay, unit);
+  }
+
+  @Override
+  public <V> ScheduledFuture<V> schedule(Callable<V> callable, long delay, TimeUnit unit) {
+    // the result has to be available from the returned future, run it on the scheduler
+    return scheduler.schedule(callable, delay, unit);
+  }
+
+  @Override
+  public ScheduledFuture<?> scheduleAtFixedRate(
+      Runnable command, long initialDelay, long period, TimeUnit unit) {
+    return scheduler.scheduleAtFixedRate(() -> execute(command), initialDelay, period, unit);
+  }
+
+  @Override
+  public ScheduledFuture<?> scheduleWithFixedDelay(
+      Runnable command, long initialDelay, long delay, TimeUnit unit) {
+    return scheduler.scheduleWithFixedDelay(() -> execute(command), initialDelay, delay, unit);
+  }
+
+  @Override
+  public void shutdown() {
+    scheduler.shutdown();
+    executor.shutdown();
+  }
+
+  @Override
+  public List<Runnable> shutdownNow() {
+    List<Runnable> pending = new ArrayList<>(scheduler.shutdownNow());
+    pending.addAll(executor.shutdownNow());
+    return pending;
+  }
+
+  @Override
+  public boolean isShutdown() {
+    return scheduler.isShutdown() && executor.isShutdown();
+  }
+
+  @Override
+  public boolean isTerminated() {
+    return scheduler.isTerminated() && executor.isTerminated();
+  }
+
+  @Override
+  public boolean awaitTermination(long timeout, TimeUnit unit) throws InterruptedException {
+    long deadline = System.nanoTime() + unit.toNanos(timeout);
+    return scheduler.awaitTermination(timeout, unit)
+        && executor.awaitTermination(deadline - System.nanoTime(), TimeUnit.NANOSECONDS);
+  }
+}
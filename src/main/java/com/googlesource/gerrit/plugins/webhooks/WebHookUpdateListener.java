@@ -30,17 +30,29 @@ public class WebHookUpdateListener implements GitReferenceUpdatedListener {
   private static final FluentLogger log = FluentLogger.forEnclosingClass();
   private final String cfgFileName;
   private final DiffOperations diffOperations;
+  private final RemotesCache remotesCache;
+  private final SubscriptionIndex subscriptions;
 
   @Inject
-  WebHookUpdateListener(@WebhooksConfigFileName String cfgFileName, DiffOperations diffOperations) {
+  WebHookUpdateListener(
+      @WebhooksConfigFileName String cfgFileName,
+      DiffOperations diffOperations,
+      RemotesCache remotesCache,
+      SubscriptionIndex subscriptions) {
     this.cfgFileName = cfgFileName;
     this.diffOperations = diffOperations;
+    this.remotesCache = remotesCache;
+    this.subscriptions = subscriptions;
   }
 
   @Override
   public void onGitReferenceUpdated(Event event) {
     if (event.getRefName().equals(RefNames.REFS_CONFIG)) {
       Project.NameKey project = Project.NameKey.parse(event.getProjectName());
+      // evict on any change of refs/meta/config as reparenting the project changes the
+      // inherited webhooks configuration too
+      remotesCache.evict(project);
+      subscriptions.onConfigUpdated(project);
       try {
         Map<String, FileDiffOutput> diffByFile =
             diffOperations.listModifiedFilesAgainstParent(
@@ -0,0 +1,256 @@
+// Copyright (C) 2026 The Android Open Source Project
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.googlesource.gerrit.plugins.webhooks;
+
+import com.google.common.collect.ImmutableMap;
+import com.google.gerrit.metrics.CallbackMetric1;
+import com.google.gerrit.metrics.Counter0;
+import com.google.gerrit.metrics.Description;
+import com.google.gerrit.metrics.Description.Units;
+import com.google.gerrit.metrics.Field;
+import com.google.gerrit.metrics.MetricMaker;
+import com.google.gerrit.metrics.Timer0;
+import com.google.inject.Inject;
+import com.google.inject.Singleton;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+import org.apache.http.pool.PoolStats;
+
+@Singleton
+class WebhooksMetrics {
+  private final MetricMaker metricMaker;
+  private final Timer0 ingestLag;
+  private final Timer0 rateLimiterWait;
+  private final Counter0 ingestDropped;
+  private final Counter0 bulkheadDropped;
+  private final Counter0 deadLetters;
+  private final Counter0 coalesced;
+  private final Map<CircuitBreaker.State, Counter0> circuitTransitions;
+  private final Map<Priority, Timer0> priorityWaits;
+
+  @Inject
+  WebhooksMetrics(MetricMaker metricMaker) {
+    this.metricMaker = metricMaker;
+    this.ingestLag =
+        metricMaker.newTimer(
+            "ingest/lag",
+            new Description("Time events spent in the ingest queue before being dispatched")
+                .setCumulative()
+                .setUnit(Units.MILLISECONDS));
+    this.rateLimiterWait =
+        metricMaker.newTimer(
+            "rate_limiter/wait",
+            new Description("Time posts waited for the rate limit of their remote")
+                .setCumulative()
+                .setUnit(Units.MILLISECONDS));
+    this.ingestDropped =
+        metricMaker.newCounter(
+            "ingest/dropped",
+            new Description("Events dropped because the ingest queue was full")
+                .setRate()
+                .setUnit("events"));
+    this.bulkheadDropped =
+        metricMaker.newCounter(
+            "bulkhead/dropped",
+            new Description("Posts dropped because the queue of their remote was full")
+                .setRate()
+                .setUnit("posts"));
+    this.deadLetters =
+        metricMaker.newCounter(
+            "dead_letters/stored",
+            new Description("Deliveries given up and kept as dead letters")
+                .setRate()
+                .setUnit("deliveries"));
+    this.coalesced =
+        metricMaker.newCounter(
+            "coalesce/dropped",
+            new Description("Events superseded by a newer event for the same ref or change")
+                .setRate()
+                .setUnit("events"));
+    ImmutableMap.Builder<CircuitBreaker.State, Counter0> transitions = ImmutableMap.builder();
+    for (CircuitBreaker.State state : CircuitBreaker.State.values()) {
+      String name = state.name().toLowerCase(Locale.US);
+      transitions.put(
+          state,
+          metricMaker.newCounter(
+              "circuit/transitions_to_" + name,
+              new Description("Circuit breakers of remotes moved to the " + name + " state")
+                  .setRate()
+                  .setUnit("transitions")));
+    }
+    this.circuitTransitions = transitions.build();
+    ImmutableMap.Builder<Priority, Timer0> waits = ImmutableMap.builder();
+    for (Priority priority : Priority.values()) {
+      String name = priority.name().toLowerCase(Locale.US);
+      waits.put(
+          priority,
+          metricMaker.newTimer(
+              "priority/wait_" + name,
+              new Description("Time " + name + " priority posts waited for a delivery thread")
+                  .setCumulative()
+                  .setUnit(Units.MILLISECONDS)));
+    }
+    this.priorityWaits = waits.build();
+  }
+
+  void registerIngestQueueSize(Supplier<Integer> size) {
+    metricMaker.newCallbackMetric(
+        "ingest/queue_size",
+        Integer.class,
+        new Description("Events waiting in the ingest queue").setGauge().setUnit("events"),
+        size::get);
+  }
+
+  void recordIngestLag(long lagNanos) {
+    ingestLag.record(lagNanos, TimeUnit.NANOSECONDS);
+  }
+
+  void recordRateLimiterWait(long waitNanos) {
+    rateLimiterWait.record(waitNanos, TimeUnit.NANOSECONDS);
+  }
+
+  void recordPriorityWait(Priority priority, long waitNanos) {
+    priorityWaits.get(priority).record(waitNanos, TimeUnit.NANOSECONDS);
+  }
+
+  void incrementIngestDropped() {
+    ingestDropped.increment();
+  }
+
+  void incrementCoalesced() {
+    coalesced.increment();
+  }
+
+  void registerBulkheadQueued(Supplier<Integer> queued) {
+    metricMaker.newCallbackMetric(
+        "bulkhead/queued",
+        Integer.class,
+        new Description("Posts waiting for a free slot of their remote")
+            .setGauge()
+            .setUnit("posts"),
+        queued::get);
+  }
+
+  void incrementBulkheadDropped() {
+    bulkheadDropped.increment();
+  }
+
+  void incrementDeadLetters() {
+    deadLetters.increment();
+  }
+
+  void registerOpenCircuits(Supplier<Integer> open) {
+    metricMaker.newCallbackMetric(
+        "circuit/open",
+        Integer.class,
+        new Description("Remotes whose circuit breaker is open or half-open")
+            .setGauge()
+            .setUnit("remotes"),
+        open::get);
+  }
+
+  void recordCircuitTransition(CircuitBreaker.State state) {
+    circuitTransitions.get(state).increment();
+  }
+
+  void registerOutboxPending(Supplier<Integer> pending) {
+    metricMaker.newCallbackMetric(
+        "outbox/pending",
+        Integer.class,
+        new Description("Deliveries recorded in the outbox that didn't complete yet")
+            .setGauge()
+            .setUnit("deliveries"),
+        pending::get);
+  }
+
+  void registerPendingPayloads(Supplier<Long> inMemoryBytes, Supplier<Integer> spilled) {
+    metricMaker.newCallbackMetric(
+        "pending_payloads/in_memory",
+        Long.class,
+        new Description("Bytes of heap held by the payloads of the pending deliveries")
+            .setGauge()
+            .setUnit(Units.BYTES),
+        inMemoryBytes::get);
+    metricMaker.newCallbackMetric(
+        "pending_payloads/spilled",
+        Integer.class,
+        new Description("Payloads of pending deliveries spilled to disk beyond the budget")
+            .setGauge()
+            .setUnit("payloads"),
+        spilled::get);
+  }
+
+  void registerConnectionPoolStats(Supplier<PoolStats> stats) {
+    registerConnectionPoolGauge(
+        "leased", "Connections of the HTTP client pools in use", () -> stats.get().getLeased());
+    registerConnectionPoolGauge(
+        "pending",
+        "Posts waiting for a connection of the HTTP client pools",
+        () -> stats.get().getPending());
+    registerConnectionPoolGauge(
+        "available",
+        "Idle connections kept by the HTTP client pools",
+        () -> stats.get().getAvailable());
+  }
+
+  void registerConnectionRouteStats(Supplier<Map<String, PoolStats>> stats) {
+    Field<String> host =
+        Field.ofString("host", (metadataBuilder, fieldValue) -> {})
+            .description("Host and port the connections are opened to")
+            .build();
+    CallbackMetric1<String, Integer> leased =
+        newConnectionRouteGauge("leased", "Connections to the host in use", host);
+    CallbackMetric1<String, Integer> pending =
+        newConnectionRouteGauge("pending", "Posts waiting for a connection to the host", host);
+    CallbackMetric1<String, Integer> available =
+        newConnectionRouteGauge("available", "Idle connections kept to the host", host);
+    metricMaker.newTrigger(
+        leased,
+        pending,
+        available,
+        () -> {
+          stats
+              .get()
+              .forEach(
+                  (route, s) -> {
+                    leased.set(route, s.getLeased());
+                    pending.set(route, s.getPending());
+                    available.set(route, s.getAvailable());
+                  });
+          leased.prune();
+          pending.prune();
+          available.prune();
+        });
+  }
+
+  private CallbackMetric1<String, Integer> newConnectionRouteGauge(
+      String name, String description, Field<String> host) {
+    return metricMaker.newCallbackMetric(
+        "connection_pool/route_" + name,
+        Integer.class,
+        new Description(description).setGauge().setUnit("connections"),
+        host);
+  }
+
+  private void registerConnectionPoolGauge(String name, String description, Supplier<Integer> v) {
+    metricMaker.newCallbackMetric(
+        "connection_pool/" + name,
+        Integer.class,
+        new Description(description).setGauge().setUnit("connections"),
+        v::get);
+  }
+}
@@ -15,6 +15,7 @@
 package com.googlesource.gerrit.plugins.webhooks.processors;
 
 import com.google.common.base.Strings;
+import com.google.common.collect.ImmutableSet;
 import com.google.gerrit.server.events.ProjectEvent;
 import com.googlesource.gerrit.plugins.webhooks.EventProcessor;
 import com.googlesource.gerrit.plugins.webhooks.RemoteConfig;
@@ -33,18 +34,17 @@ public abstract class AbstractEventProcessor implements EventProcessor {
   protected abstract Optional<EventProcessor.Request> doProcess(
       ProjectEvent event, RemoteConfig remote);
 
+  /**
+   * Returns true if the event has to be posted to the remote. The events the remote isn't
+   * subscribed to are dropped before, so overriding it can only skip more events.
+   */
   protected boolean shouldProcess(ProjectEvent event, RemoteConfig remote) {
-    String[] wantedEvents = remote.getEvents();
-    if (wantedEvents.length == 0) {
+    ImmutableSet<String> wantedEvents = remote.getEventTypes();
+    if (wantedEvents.isEmpty()) {
       return true;
     }
 
-    for (String type : wantedEvents) {
-      if (!Strings.isNullOrEmpty(type) && type.equals(event.getType())) {
-        return true;
-      }
-    }
-
-    return false;
+    String type = event.getType();
+    return !Strings.isNullOrEmpty(type) && wantedEvents.contains(type);
   }
 }
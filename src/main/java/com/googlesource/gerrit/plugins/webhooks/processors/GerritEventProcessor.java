@@ -14,23 +14,58 @@
 
 package com.googlesource.gerrit.plugins.webhooks.processors;
 
+import static java.nio.charset.StandardCharsets.UTF_8;
+
 import com.google.common.base.Supplier;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
 import com.google.common.collect.ImmutableMap;
+import com.google.common.io.ByteSource;
 import com.google.gerrit.server.config.CanonicalWebUrl;
 import com.google.gerrit.server.events.ProjectEvent;
 import com.google.gerrit.server.events.SupplierSerializer;
 import com.google.gson.Gson;
 import com.google.gson.GsonBuilder;
+import com.google.gson.stream.JsonWriter;
 import com.google.inject.Inject;
 import com.googlesource.gerrit.plugins.webhooks.EventProcessor;
+import com.googlesource.gerrit.plugins.webhooks.FieldProjection;
 import com.googlesource.gerrit.plugins.webhooks.RemoteConfig;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.util.Arrays;
+import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
 
 public class GerritEventProcessor extends AbstractEventProcessor {
   private static Gson GSON =
       new GsonBuilder().registerTypeAdapter(Supplier.class, new SupplierSerializer()).create();
 
+  // events are cached by identity as long as they are referenced, e.g. by pending tasks
+  private static final int MAX_CACHED_REQUESTS = 1024;
+  // buffers that grew larger are not kept between serializations
+  private static final int MAX_POOLED_BUFFER_SIZE = 1024 * 1024;
+
+  private static final ThreadLocal<PayloadBuffer> BUFFERS =
+      ThreadLocal.withInitial(PayloadBuffer::new);
+
+  /** Reusable buffer the events are serialized to as UTF-8, without going through a string. */
+  private static class PayloadBuffer extends ByteArrayOutputStream {
+    byte[] copy() {
+      return Arrays.copyOf(buf, count);
+    }
+
+    int capacity() {
+      return buf.length;
+    }
+  }
+
   private final String canonicalWebUrl;
+  private final Cache<ProjectEvent, Map<FieldProjection, EventProcessor.Request>> requests =
+      CacheBuilder.newBuilder().weakKeys().maximumSize(MAX_CACHED_REQUESTS).build();
 
   @Inject
   GerritEventProcessor(@CanonicalWebUrl String canonicalWebUrl) {
@@ -39,8 +74,28 @@ public class GerritEventProcessor extends AbstractEventProcessor {
 
   @Override
   public Optional<EventProcessor.Request> doProcess(ProjectEvent event, RemoteConfig remote) {
+    // the request only depends on the fields posted to the remote hence the event is serialized
+    // only once per projection and the request is shared by all the remotes with that projection
+    Map<FieldProjection, EventProcessor.Request> byProjection =
+        requests.asMap().computeIfAbsent(event, e -> new ConcurrentHashMap<>());
     return Optional.of(
-        new EventProcessor.Request(
-            GSON.toJson(event), ImmutableMap.of("X-Origin-Url", canonicalWebUrl)));
+        byProjection.computeIfAbsent(
+            remote.getFieldProjection(), projection -> serialize(event, projection)));
+  }
+
+  private EventProcessor.Request serialize(ProjectEvent event, FieldProjection projection) {
+    PayloadBuffer buffer = BUFFERS.get();
+    buffer.reset();
+    try (JsonWriter writer = GSON.newJsonWriter(new OutputStreamWriter(buffer, UTF_8))) {
+      projection.write(GSON, writer, event);
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+    byte[] payload = buffer.copy();
+    if (buffer.capacity() > MAX_POOLED_BUFFER_SIZE) {
+      BUFFERS.remove();
+    }
+    return new EventProcessor.Request(
+        ByteSource.wrap(payload), ImmutableMap.of("X-Origin-Url", canonicalWebUrl));
   }
 }
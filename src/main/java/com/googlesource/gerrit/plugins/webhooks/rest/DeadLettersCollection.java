@@ -0,0 +1,75 @@
+// Copyright (C) 2026 The Android Open Source Project
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.googlesource.gerrit.plugins.webhooks.rest;
+
+import com.google.gerrit.extensions.registration.DynamicMap;
+import com.google.gerrit.extensions.restapi.ChildCollection;
+import com.google.gerrit.extensions.restapi.IdString;
+import com.google.gerrit.extensions.restapi.ResourceNotFoundException;
+import com.google.gerrit.extensions.restapi.RestView;
+import com.google.inject.Inject;
+import com.google.inject.Provider;
+import com.google.inject.Singleton;
+import com.googlesource.gerrit.plugins.webhooks.DeadLetter;
+import com.googlesource.gerrit.plugins.webhooks.DeadLetters;
+import java.io.IOException;
+import java.util.Optional;
+
+@Singleton
+public class DeadLettersCollection implements ChildCollection<RemoteResource, DeadLetterResource> {
+
+  private final DynamicMap<RestView<DeadLetterResource>> views;
+  private final DeadLetters deadLetters;
+  private final Provider<ListDeadLetters> list;
+
+  @Inject
+  DeadLettersCollection(
+      DynamicMap<RestView<DeadLetterResource>> views,
+      DeadLetters deadLetters,
+      Provider<ListDeadLetters> list) {
+    this.views = views;
+    this.deadLetters = deadLetters;
+    this.list = list;
+  }
+
+  @Override
+  public RestView<RemoteResource> list() {
+    return list.get();
+  }
+
+  @Override
+  public DeadLetterResource parse(RemoteResource parent, IdString id)
+      throws ResourceNotFoundException, IOException {
+    Optional<DeadLetter> deadLetter = Optional.empty();
+    try {
+      deadLetter =
+          deadLetters.get(
+              parent.getProject(),
+              parent.getRemoteConfig().getName(),
+              Long.parseLong(id.get()));
+    } catch (NumberFormatException e) {
+      // not found
+    }
+    if (deadLetter.isEmpty()) {
+      throw new ResourceNotFoundException(String.format("Dead letter %s does not exist", id));
+    }
+    return new DeadLetterResource(parent, deadLetter.get());
+  }
+
+  @Override
+  public DynamicMap<RestView<DeadLetterResource>> views() {
+    return views;
+  }
+}
@@ -0,0 +1,57 @@
+// Copyright (C) 2026 The Android Open Source Project
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.googlesource.gerrit.plugins.webhooks.rest;
+
+import com.google.gerrit.extensions.restapi.AuthException;
+import com.google.gerrit.extensions.restapi.Response;
+import com.google.gerrit.extensions.restapi.RestReadView;
+import com.google.inject.Inject;
+import com.google.inject.Singleton;
+import com.googlesource.gerrit.plugins.webhooks.CircuitBreaker;
+import com.googlesource.gerrit.plugins.webhooks.CircuitBreakers;
+import java.util.Optional;
+
+@Singleton
+public class GetCircuit implements RestReadView<RemoteResource> {
+
+  private final Permissions permissions;
+  private final CircuitBreakers breakers;
+
+  @Inject
+  GetCircuit(Permissions permissions, CircuitBreakers breakers) {
+    this.permissions = permissions;
+    this.breakers = breakers;
+  }
+
+  @Override
+  public Response<CircuitInfo> apply(RemoteResource rsrc) throws AuthException {
+    if (!permissions.canRead(rsrc.getProject())) {
+      throw new AuthException("not allowed to read webhooks");
+    }
+    CircuitInfo info = new CircuitInfo();
+    Optional<CircuitBreaker> breaker = breakers.find(rsrc.getRemoteConfig().getUrl());
+    if (breaker.isPresent()) {
+      info.state = breaker.get().getState();
+      info.consecutiveFailures = breaker.get().getConsecutiveFailures();
+      if (info.state == CircuitBreaker.State.OPEN) {
+        info.retryIn = breaker.get().getRemainingOpenMillis();
+      }
+    } else {
+      // nothing was posted to the remote yet
+      info.state = CircuitBreaker.State.CLOSED;
+    }
+    return Response.ok(info);
+  }
+}
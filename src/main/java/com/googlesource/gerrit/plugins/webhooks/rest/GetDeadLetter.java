@@ -0,0 +1,45 @@
+// Copyright (C) 2026 The Android Open Source Project
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.googlesource.gerrit.plugins.webhooks.rest;
+
+import com.google.gerrit.extensions.restapi.AuthException;
+import com.google.gerrit.extensions.restapi.Response;
+import com.google.gerrit.extensions.restapi.RestReadView;
+import com.google.inject.Inject;
+import com.google.inject.Singleton;
+import com.googlesource.gerrit.plugins.webhooks.EventProcessor;
+
+@Singleton
+public class GetDeadLetter implements RestReadView<DeadLetterResource> {
+
+  private final Permissions permissions;
+
+  @Inject
+  GetDeadLetter(Permissions permissions) {
+    this.permissions = permissions;
+  }
+
+  @Override
+  public Response<DeadLetterInfo> apply(DeadLetterResource rsrc) throws AuthException {
+    if (!permissions.canRead(rsrc.getRemote().getProject())) {
+      throw new AuthException("not allowed to read webhooks");
+    }
+    DeadLetterInfo info = ListDeadLetters.toInfo(rsrc.getDeadLetter());
+    EventProcessor.Request content = rsrc.getDeadLetter().getDelivery().getContent();
+    info.headers = content.headers;
+    info.body = content.getBody();
+    return Response.ok(info);
+  }
+}
@@ -0,0 +1,64 @@
+// Copyright (C) 2026 The Android Open Source Project
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.googlesource.gerrit.plugins.webhooks.rest;
+
+import static com.google.common.collect.ImmutableList.toImmutableList;
+
+import com.google.common.collect.ImmutableList;
+import com.google.gerrit.extensions.restapi.AuthException;
+import com.google.gerrit.extensions.restapi.Response;
+import com.google.gerrit.extensions.restapi.RestReadView;
+import com.google.inject.Inject;
+import com.google.inject.Singleton;
+import com.googlesource.gerrit.plugins.webhooks.DeadLetter;
+import com.googlesource.gerrit.plugins.webhooks.DeadLetters;
+import java.io.IOException;
+import java.sql.Timestamp;
+
+@Singleton
+public class ListDeadLetters implements RestReadView<RemoteResource> {
+
+  private final Permissions permissions;
+  private final DeadLetters deadLetters;
+
+  @Inject
+  ListDeadLetters(Permissions permissions, DeadLetters deadLetters) {
+    this.permissions = permissions;
+    this.deadLetters = deadLetters;
+  }
+
+  @Override
+  public Response<ImmutableList<DeadLetterInfo>> apply(RemoteResource rsrc)
+      throws AuthException, IOException {
+    if (!permissions.canRead(rsrc.getProject())) {
+      throw new AuthException("not allowed to read webhooks");
+    }
+    return Response.ok(
+        deadLetters.list(rsrc.getProject(), rsrc.getRemoteConfig().getName()).stream()
+            .map(ListDeadLetters::toInfo)
+            .collect(toImmutableList()));
+  }
+
+  /** Returns the info of the dead letter, without the request that was posted. */
+  static DeadLetterInfo toInfo(DeadLetter deadLetter) {
+    DeadLetterInfo info = new DeadLetterInfo();
+    info.id = deadLetter.getId();
+    info.type = deadLetter.getDelivery().getEventType();
+    info.failedOn = Timestamp.from(deadLetter.getFailedOn());
+    info.attempts = deadLetter.getAttempts();
+    info.reason = deadLetter.getReason();
+    return info;
+  }
+}
@@ -17,6 +17,7 @@ package com.googlesource.gerrit.plugins.webhooks.rest;
 import static com.googlesource.gerrit.plugins.webhooks.RemoteConfig.REMOTE;
 import static com.googlesource.gerrit.plugins.webhooks.rest.GetRemote.fromRemoteConfig;
 
+import com.google.common.flogger.FluentLogger;
 import com.google.gerrit.extensions.annotations.PluginName;
 import com.google.gerrit.extensions.restapi.Response;
 import com.google.gerrit.extensions.restapi.RestReadView;
@@ -31,6 +32,7 @@ import org.eclipse.jgit.lib.Config;
 
 @Singleton
 public class ListRemotes implements RestReadView<ProjectWebhooksResource> {
+  private static final FluentLogger log = FluentLogger.forEnclosingClass();
 
   private final PluginConfigFactory configFactory;
   private final RemoteConfig.Factory remoteFactory;
@@ -53,7 +55,17 @@ public class ListRemotes implements RestReadView<ProjectWebhooksResource> {
     Config cfg =
         configFactory.getProjectPluginConfigWithInheritance(resource.getProject(), pluginName);
     for (String name : cfg.getSubsections(REMOTE)) {
-      remotes.put(name, fromRemoteConfig(remoteFactory.create(cfg, name)));
+      RemoteConfig remote;
+      try {
+        remote = remoteFactory.create(cfg, name);
+      } catch (IllegalArgumentException e) {
+        // e.g. a malformed number, the other remotes of the project are still listed
+        log.atWarning().withCause(e).log(
+            "remote.%s of project %s cannot be parsed, not listing this remote",
+            name, resource.getProject().get());
+        continue;
+      }
+      remotes.put(name, fromRemoteConfig(remote));
     }
     return Response.ok(remotes);
   }
@@ -21,6 +21,7 @@ import com.google.gerrit.extensions.registration.DynamicMap;
 import com.google.gerrit.extensions.restapi.AuthException;
 import com.google.gerrit.extensions.restapi.ChildCollection;
 import com.google.gerrit.extensions.restapi.IdString;
+import com.google.gerrit.extensions.restapi.ResourceConflictException;
 import com.google.gerrit.extensions.restapi.ResourceNotFoundException;
 import com.google.gerrit.extensions.restapi.RestView;
 import com.google.gerrit.server.config.PluginConfigFactory;
@@ -67,7 +68,15 @@ public class RemotesCollection implements ChildCollection<ProjectWebhooksResourc
     if (!cfg.getSubsections(REMOTE).contains(name)) {
       throw new ResourceNotFoundException(String.format("Remote %s does not exist", name));
     }
-    return new RemoteResource(parent.getProject(), remoteFactory.create(cfg, name));
+    RemoteConfig remote;
+    try {
+      remote = remoteFactory.create(cfg, name);
+    } catch (IllegalArgumentException e) {
+      // e.g. a malformed number
+      throw new ResourceConflictException(
+          String.format("Remote %s cannot be parsed: %s", name, e.getMessage()));
+    }
+    return new RemoteResource(parent.getProject(), remote);
   }
 
   @Override
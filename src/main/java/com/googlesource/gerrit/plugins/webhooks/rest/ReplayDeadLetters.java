@@ -0,0 +1,59 @@
+// Copyright (C) 2026 The Android Open Source Project
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.googlesource.gerrit.plugins.webhooks.rest;
+
+import com.google.gerrit.extensions.restapi.AuthException;
+import com.google.gerrit.extensions.restapi.ResourceConflictException;
+import com.google.gerrit.extensions.restapi.Response;
+import com.google.gerrit.extensions.restapi.RestModifyView;
+import com.google.gerrit.server.project.NoSuchProjectException;
+import com.google.inject.Inject;
+import com.google.inject.Singleton;
+import com.googlesource.gerrit.plugins.webhooks.DeadLetters;
+import java.io.IOException;
+import java.util.List;
+import java.util.OptionalInt;
+
+@Singleton
+public class ReplayDeadLetters implements RestModifyView<RemoteResource, ReplayDeadLetters.Input> {
+  public static class Input {
+    public List<Long> ids;
+  }
+
+  private final Permissions permissions;
+  private final DeadLetters deadLetters;
+
+  @Inject
+  ReplayDeadLetters(Permissions permissions, DeadLetters deadLetters) {
+    this.permissions = permissions;
+    this.deadLetters = deadLetters;
+  }
+
+  @Override
+  public Response<Integer> apply(RemoteResource rsrc, Input input)
+      throws AuthException, ResourceConflictException, IOException, NoSuchProjectException {
+    if (!permissions.canUpdate(rsrc.getProject())) {
+      throw new AuthException("not allowed to update webhooks");
+    }
+    String name = rsrc.getRemoteConfig().getName();
+    OptionalInt replayed =
+        deadLetters.replay(rsrc.getProject(), name, input != null ? input.ids : null);
+    if (replayed.isEmpty()) {
+      throw new ResourceConflictException(
+          String.format("Remote %s has no url or its url is not allowed", name));
+    }
+    return Response.ok(replayed.getAsInt());
+  }
+}
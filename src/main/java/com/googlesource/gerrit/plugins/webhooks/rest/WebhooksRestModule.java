@@ -15,6 +15,7 @@
 package com.googlesource.gerrit.plugins.webhooks.rest;
 
 import static com.google.gerrit.server.config.ConfigResource.CONFIG_KIND;
+import static com.googlesource.gerrit.plugins.webhooks.rest.DeadLetterResource.DEAD_LETTER_KIND;
 import static com.googlesource.gerrit.plugins.webhooks.rest.ProjectWebhooksResource.PROJECT_WEBHOOK_KIND;
 import static com.googlesource.gerrit.plugins.webhooks.rest.RemoteResource.REMOTE_KIND;
 
@@ -27,6 +28,7 @@ public class WebhooksRestModule extends RestApiModule {
   protected void configure() {
     DynamicMap.mapOf(binder(), PROJECT_WEBHOOK_KIND);
     DynamicMap.mapOf(binder(), REMOTE_KIND);
+    DynamicMap.mapOf(binder(), DEAD_LETTER_KIND);
 
     child(CONFIG_KIND, "projects").to(ProjectsCollection.class);
     child(PROJECT_WEBHOOK_KIND, "remotes").to(RemotesCollection.class);
@@ -34,6 +36,11 @@ public class WebhooksRestModule extends RestApiModule {
     get(REMOTE_KIND).to(GetRemote.class);
     put(REMOTE_KIND).to(UpsertRemote.Updater.class);
     delete(REMOTE_KIND).to(DeleteRemote.class);
+    get(REMOTE_KIND, "circuit").to(GetCircuit.class);
+    child(REMOTE_KIND, "dead-letters").to(DeadLettersCollection.class);
+    get(DEAD_LETTER_KIND).to(GetDeadLetter.class);
+    post(REMOTE_KIND, "purge-dead-letters").to(PurgeDeadLetters.class);
+    post(REMOTE_KIND, "replay-dead-letters").to(ReplayDeadLetters.class);
 
     bind(Permissions.class).to(PermissionsImpl.class);
   }
@@ -0,0 +1,75 @@
+// Copyright (C) 2026 The Android Open Source Project
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.googlesource.gerrit.plugins.webhooks;
+
+import static com.google.common.truth.Truth.assertThat;
+import static org.mockito.Mockito.when;
+
+import com.google.common.collect.ImmutableList;
+import java.util.regex.Pattern;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+
+@RunWith(MockitoJUnitRunner.class)
+public class AllowedUrlMatcherTest {
+  @Mock private Configuration global;
+
+  @Test
+  public void noPatternsAllowAll() {
+    when(global.getAllowedUrlPatterns()).thenReturn(ImmutableList.of());
+    assertThat(new AllowedUrlMatcher(global).isAllowed("https://foo.org/")).isTrue();
+  }
+
+  @Test
+  public void urlMustFullyMatchOnePattern() {
+    when(global.getAllowedUrlPatterns())
+        .thenReturn(
+            ImmutableList.of(
+                Pattern.compile("https://foo\\.org/.*"), Pattern.compile("https://bar\\.org/")));
+    AllowedUrlMatcher matcher = new AllowedUrlMatcher(global);
+    assertThat(matcher.isAllowed("https://foo.org/events")).isTrue();
+    assertThat(matcher.isAllowed("https://bar.org/")).isTrue();
+    assertThat(matcher.isAllowed("https://bar.org/events")).isFalse();
+    assertThat(matcher.isAllowed("https://qux.org/")).isFalse();
+  }
+
+  @Test
+  public void patternsWithBackReferencesAreMatchedSeparately() {
+    when(global.getAllowedUrlPatterns())
+        .thenReturn(
+            ImmutableList.of(
+                Pattern.compile("https://(foo)\\.org/"),
+                Pattern.compile("https://(bar)\\.org/\\1")));
+    AllowedUrlMatcher matcher = new AllowedUrlMatcher(global);
+    assertThat(matcher.isAllowed("https://foo.org/")).isTrue();
+    assertThat(matcher.isAllowed("https://bar.org/bar")).isTrue();
+    assertThat(matcher.isAllowed("https://bar.org/foo")).isFalse();
+  }
+
+  @Test
+  public void patternsWithSameNamedGroupAreMatchedSeparately() {
+    when(global.getAllowedUrlPatterns())
+        .thenReturn(
+            ImmutableList.of(
+                Pattern.compile("https://(?<host>foo)\\.org/"),
+                Pattern.compile("https://(?<host>bar)\\.org/")));
+    AllowedUrlMatcher matcher = new AllowedUrlMatcher(global);
+    assertThat(matcher.isAllowed("https://foo.org/")).isTrue();
+    assertThat(matcher.isAllowed("https://bar.org/")).isTrue();
+    assertThat(matcher.isAllowed("https://qux.org/")).isFalse();
+  }
+}
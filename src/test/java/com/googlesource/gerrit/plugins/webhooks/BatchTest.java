@@ -0,0 +1,69 @@
+// Copyright (C) 2026 The Android Open Source Project
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.googlesource.gerrit.plugins.webhooks;
+
+import static com.google.common.truth.Truth.assertThat;
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.gerrit.server.events.ProjectCreatedEvent;
+import com.google.gerrit.server.events.ProjectEvent;
+import java.util.List;
+import org.junit.Test;
+
+public class BatchTest {
+  private static final ImmutableMap<String, String> HEADERS = ImmutableMap.of("X-Foo", "bar");
+
+  @Test
+  public void jsonArrayBatch() throws Exception {
+    EventProcessor.Request request = batch(BatchFormat.JSON_ARRAY, "{\"a\":1}", "{\"b\":2}");
+    assertThat(request.getBody()).isEqualTo("[{\"a\":1},{\"b\":2}]");
+    assertThat(request.getPayload().asCharSource(UTF_8).read()).isEqualTo(request.getBody());
+    assertThat(request.headers).isEqualTo(HEADERS);
+  }
+
+  @Test
+  public void ndjsonBatch() throws Exception {
+    EventProcessor.Request request = batch(BatchFormat.NDJSON, "{\"a\":1}", "{\"b\":2}");
+    assertThat(request.getBody()).isEqualTo("{\"a\":1}\n{\"b\":2}\n");
+    assertThat(request.getPayload().asCharSource(UTF_8).read()).isEqualTo(request.getBody());
+    assertThat(request.headers).containsEntry("X-Foo", "bar");
+    assertThat(request.headers)
+        .containsEntry("Content-Type", "application/x-ndjson; charset=utf-8");
+  }
+
+  @Test
+  public void splitInHalves() {
+    List<Batch> halves = newBatch(BatchFormat.NDJSON, "1", "2", "3").split();
+    assertThat(halves).hasSize(2);
+    assertThat(halves.get(0).toRequest().getBody()).isEqualTo("1\n");
+    assertThat(halves.get(1).toRequest().getBody()).isEqualTo("2\n3\n");
+  }
+
+  private static EventProcessor.Request batch(BatchFormat format, String... bodies) {
+    return newBatch(format, bodies).toRequest();
+  }
+
+  private static Batch newBatch(BatchFormat format, String... bodies) {
+    ImmutableList.Builder<ProjectEvent> events = ImmutableList.builder();
+    ImmutableList.Builder<EventProcessor.Request> requests = ImmutableList.builder();
+    for (String body : bodies) {
+      events.add(new ProjectCreatedEvent());
+      requests.add(new EventProcessor.Request(body, HEADERS));
+    }
+    return new Batch(format, events.build(), requests.build());
+  }
+}
@@ -0,0 +1,111 @@
+// Copyright (C) 2026 The Android Open Source Project
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+
+package com.googlesource.gerrit.plugins.webhooks;
+
+import static com.google.common.truth.Truth.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.google.gerrit.server.events.ProjectCreatedEvent;
+import java.nio.file.Path;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+
+@RunWith(MockitoJUnitRunner.class)
+public class BatcherTest {
+  private static final int LINGER = 1000;
+
+  @Mock private ScheduledExecutorService executor;
+
+  @Mock private WebhooksMetrics metrics;
+
+  @Mock private Configuration cfg;
+
+  @Mock private RemoteConfig remote;
+
+  @Mock private RemoteConfig other;
+
+  @Mock private PostTask.Factory taskFactory;
+
+  @Mock private PostTask task;
+
+  private Batcher batcher;
+
+  @Before
+  public void setup() {
+    when(remote.getBatchFormat()).thenReturn(BatchFormat.NDJSON);
+    batcher =
+        new Batcher(executor, taskFactory, new PendingPayloads(cfg, Path.of("pending"), metrics));
+  }
+
+  @Test
+  public void lingeringBatchPostedOnStop() {
+    when(remote.getMaxBatchSize()).thenReturn(10);
+    when(remote.getMaxBatchBytes()).thenReturn(1 << 20);
+    when(remote.getBatchLinger()).thenReturn(LINGER);
+    when(taskFactory.create(any(Batch.class), eq(remote))).thenReturn(task);
+    batcher.add(new ProjectCreatedEvent(), remote, new EventProcessor.Request("1"));
+    batcher.add(new ProjectCreatedEvent(), remote, new EventProcessor.Request("2"));
+    verify(executor).schedule(any(Runnable.class), eq((long) LINGER), eq(TimeUnit.MILLISECONDS));
+    verify(taskFactory, never()).create(any(Batch.class), any());
+
+    batcher.stop();
+    ArgumentCaptor<Batch> batch = ArgumentCaptor.forClass(Batch.class);
+    verify(taskFactory).create(batch.capture(), eq(remote));
+    assertThat(batch.getValue().size()).isEqualTo(2);
+    verify(task).schedule();
+  }
+
+  @Test
+  public void fullBatchNotPostedAgainOnStop() {
+    when(remote.getMaxBatchSize()).thenReturn(1);
+    when(taskFactory.create(any(Batch.class), eq(remote))).thenReturn(task);
+    batcher.add(new ProjectCreatedEvent(), remote, new EventProcessor.Request("1"));
+    verify(task).schedule();
+
+    batcher.stop();
+    verify(taskFactory).create(any(Batch.class), eq(remote));
+  }
+
+  @Test
+  public void remotesBatchedSeparately() {
+    // e.g. the remotes of two projects posting to the same url with different settings
+    when(remote.getMaxBatchSize()).thenReturn(10);
+    when(remote.getMaxBatchBytes()).thenReturn(1 << 20);
+    when(other.getMaxBatchSize()).thenReturn(10);
+    when(other.getMaxBatchBytes()).thenReturn(1 << 20);
+    when(other.getBatchFormat()).thenReturn(BatchFormat.JSON_ARRAY);
+    when(taskFactory.create(any(Batch.class), any())).thenReturn(task);
+    batcher.add(new ProjectCreatedEvent(), remote, new EventProcessor.Request("1"));
+    batcher.add(new ProjectCreatedEvent(), other, new EventProcessor.Request("2"));
+
+    batcher.stop();
+    ArgumentCaptor<Batch> batch = ArgumentCaptor.forClass(Batch.class);
+    verify(taskFactory).create(batch.capture(), eq(remote));
+    assertThat(batch.getValue().size()).isEqualTo(1);
+    verify(taskFactory).create(batch.capture(), eq(other));
+    assertThat(batch.getValue().size()).isEqualTo(1);
+  }
+}
@@ -0,0 +1,142 @@
+// Copyright (C) 2026 The Android Open Source Project
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.googlesource.gerrit.plugins.webhooks;
+
+import static com.google.common.truth.Truth.assertThat;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+import java.util.concurrent.Executor;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+
+@RunWith(MockitoJUnitRunner.class)
+public class BulkheadTest {
+  private static final String URL = "http://foo.org/";
+
+  @Mock private Executor executor;
+
+  @Mock private WebhooksMetrics metrics;
+
+  @Mock private Runnable first;
+
+  @Mock private Runnable second;
+
+  @Mock private Runnable third;
+
+  private Bulkhead bulkhead;
+
+  @Before
+  public void setup() {
+    bulkhead = new Bulkhead(URL, executor, Priority::getDefaultWeight, metrics);
+  }
+
+  @Test
+  public void postsBeyondLimitAreQueuedUntilReleased() {
+    bulkhead.configure(1, 10, OverflowPolicy.DISCARD_NEWEST);
+    assertThat(bulkhead.admit(first)).isTrue();
+    assertThat(bulkhead.admit(second)).isFalse();
+    assertThat(bulkhead.getQueued()).isEqualTo(1);
+
+    bulkhead.release();
+    verify(executor).execute(second);
+    assertThat(bulkhead.getQueued()).isEqualTo(0);
+  }
+
+  @Test
+  public void unlimitedWhenMaxConcurrentPostsNotPositive() {
+    bulkhead.configure(0, 0, OverflowPolicy.DISCARD_NEWEST);
+    assertThat(bulkhead.admit(first)).isTrue();
+    assertThat(bulkhead.admit(second)).isTrue();
+  }
+
+  @Test
+  public void discardNewestDropsOfferedPost() {
+    bulkhead.configure(1, 1, OverflowPolicy.DISCARD_NEWEST);
+    bulkhead.admit(first);
+    bulkhead.admit(second);
+    assertThat(bulkhead.admit(third)).isFalse();
+    verify(metrics).incrementBulkheadDropped();
+
+    bulkhead.release();
+    verify(executor).execute(second);
+    verify(executor, never()).execute(third);
+  }
+
+  @Test
+  public void discardOldestDropsQueuedPost() {
+    bulkhead.configure(1, 1, OverflowPolicy.DISCARD_OLDEST);
+    bulkhead.admit(first);
+    bulkhead.admit(second);
+    assertThat(bulkhead.admit(third)).isFalse();
+    verify(metrics).incrementBulkheadDropped();
+
+    bulkhead.release();
+    verify(executor).execute(third);
+    verify(executor, never()).execute(second);
+  }
+
+  @Test
+  public void callerRunsAdmitsBeyondLimit() {
+    bulkhead.configure(1, 0, OverflowPolicy.CALLER_RUNS);
+    bulkhead.admit(first);
+    assertThat(bulkhead.admit(second)).isTrue();
+    verify(metrics, never()).incrementBulkheadDropped();
+  }
+
+  @Test
+  public void queuedPostsStartedByPriority() {
+    bulkhead.configure(1, 10, OverflowPolicy.DISCARD_NEWEST);
+    bulkhead.admit(Priority.NORMAL, first, () -> {});
+    bulkhead.admit(Priority.LOW, second, () -> {});
+    bulkhead.admit(Priority.HIGH, third, () -> {});
+
+    bulkhead.release();
+    verify(executor).execute(third);
+    verify(executor, never()).execute(second);
+  }
+
+  @Test
+  public void discardOldestDropsLowestPriority() {
+    bulkhead.configure(1, 2, OverflowPolicy.DISCARD_OLDEST);
+    Runnable fourth = () -> {};
+    bulkhead.admit(Priority.NORMAL, first, () -> {});
+    bulkhead.admit(Priority.HIGH, second, () -> {});
+    bulkhead.admit(Priority.LOW, third, () -> {});
+    assertThat(bulkhead.admit(Priority.NORMAL, fourth, () -> {})).isFalse();
+    assertThat(bulkhead.getQueued()).isEqualTo(2);
+
+    bulkhead.release();
+    bulkhead.release();
+    verify(executor).execute(second);
+    verify(executor).execute(fourth);
+    verify(executor, never()).execute(third);
+  }
+
+  @Test
+  public void discardOldestDropsOfferedPostOfLowestPriority() {
+    bulkhead.configure(1, 1, OverflowPolicy.DISCARD_OLDEST);
+    bulkhead.admit(Priority.NORMAL, first, () -> {});
+    bulkhead.admit(Priority.HIGH, second, () -> {});
+    assertThat(bulkhead.admit(Priority.LOW, third, () -> {})).isFalse();
+
+    bulkhead.release();
+    verify(executor).execute(second);
+    verify(executor, never()).execute(third);
+  }
+}
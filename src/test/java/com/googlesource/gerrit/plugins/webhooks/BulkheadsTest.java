@@ -0,0 +1,102 @@
+// Copyright (C) 2026 The Android Open Source Project
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.googlesource.gerrit.plugins.webhooks;
+
+import static com.google.common.truth.Truth.assertThat;
+import static org.mockito.Mockito.when;
+
+import com.google.common.collect.ImmutableList;
+import com.google.gerrit.entities.Project;
+import java.util.concurrent.ScheduledExecutorService;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+
+@RunWith(MockitoJUnitRunner.class)
+public class BulkheadsTest {
+  private static final String URL = "http://foo.org/";
+  private static final Project.NameKey FOO = Project.nameKey("foo");
+  private static final Project.NameKey BAR = Project.nameKey("bar");
+
+  @Mock private ScheduledExecutorService executor;
+
+  @Mock private Configuration cfg;
+
+  @Mock private WebhooksMetrics metrics;
+
+  @Mock private RemoteConfig first;
+
+  @Mock private RemoteConfig second;
+
+  @Mock private RemoteConfig updated;
+
+  @Mock private Runnable post;
+
+  private SharedRemotes sharedRemotes;
+  private Bulkheads bulkheads;
+
+  @Before
+  public void setup() {
+    when(first.getUrl()).thenReturn(URL);
+    when(second.getUrl()).thenReturn(URL);
+    when(first.getOverflowPolicy()).thenReturn(OverflowPolicy.DISCARD_NEWEST);
+    sharedRemotes = new SharedRemotes();
+    sharedRemotes.update(FOO, ImmutableList.of(first));
+    sharedRemotes.update(BAR, ImmutableList.of(second));
+    bulkheads = new Bulkheads(executor, cfg, metrics, sharedRemotes);
+  }
+
+  @Test
+  public void highestLimitOfRemotesSharingUrlApplies() {
+    when(first.getMaxConcurrentPosts()).thenReturn(3);
+    when(second.getMaxConcurrentPosts()).thenReturn(1);
+    bulkheads.get(first);
+    Bulkhead bulkhead = bulkheads.get(second);
+    assertThat(bulkheads.get(first)).isSameInstanceAs(bulkhead);
+
+    assertThat(bulkhead.admit(post)).isTrue();
+    assertThat(bulkhead.admit(post)).isTrue();
+    assertThat(bulkhead.admit(post)).isTrue();
+    assertThat(bulkhead.admit(post)).isFalse();
+  }
+
+  @Test
+  public void unlimitedIfOneRemoteSharingUrlIsUnlimited() {
+    when(first.getMaxConcurrentPosts()).thenReturn(1);
+    when(second.getMaxConcurrentPosts()).thenReturn(0);
+    bulkheads.get(first);
+    Bulkhead bulkhead = bulkheads.get(second);
+
+    assertThat(bulkhead.admit(post)).isTrue();
+    assertThat(bulkhead.admit(post)).isTrue();
+  }
+
+  @Test
+  public void updatedLimitOfRemoteApplies() {
+    when(first.getMaxConcurrentPosts()).thenReturn(3);
+    when(second.getMaxConcurrentPosts()).thenReturn(1);
+    bulkheads.get(first);
+    when(updated.getUrl()).thenReturn(URL);
+    when(updated.getMaxConcurrentPosts()).thenReturn(1);
+    when(updated.getOverflowPolicy()).thenReturn(OverflowPolicy.DISCARD_NEWEST);
+    sharedRemotes.update(FOO, ImmutableList.of(updated));
+    Bulkhead bulkhead = bulkheads.get(updated);
+
+    assertThat(bulkhead.admit(post)).isTrue();
+    assertThat(bulkhead.admit(post)).isFalse();
+  }
+}
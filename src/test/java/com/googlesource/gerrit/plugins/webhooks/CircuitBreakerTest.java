@@ -0,0 +1,107 @@
+// Copyright (C) 2026 The Android Open Source Project
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.googlesource.gerrit.plugins.webhooks;
+
+import static com.google.common.truth.Truth.assertThat;
+import static org.mockito.Mockito.verify;
+
+import com.google.common.base.Ticker;
+import java.util.concurrent.TimeUnit;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+
+@RunWith(MockitoJUnitRunner.class)
+public class CircuitBreakerTest {
+  private static final int THRESHOLD = 2;
+  private static final int OPEN_INTERVAL = 1000;
+
+  @Mock private WebhooksMetrics metrics;
+
+  private long nanos;
+  private CircuitBreaker breaker;
+
+  @Before
+  public void setup() {
+    Ticker ticker =
+        new Ticker() {
+          @Override
+          public long read() {
+            return nanos;
+          }
+        };
+    breaker = new CircuitBreaker("http://foo.org/", metrics, ticker);
+    breaker.configure(THRESHOLD, OPEN_INTERVAL);
+  }
+
+  @Test
+  public void opensAfterConsecutiveFailures() {
+    breaker.onFailure();
+    assertThat(breaker.tryAcquire()).isTrue();
+    breaker.onFailure();
+    assertThat(breaker.getState()).isEqualTo(CircuitBreaker.State.OPEN);
+    assertThat(breaker.tryAcquire()).isFalse();
+    assertThat(breaker.getRemainingOpenMillis()).isEqualTo(OPEN_INTERVAL);
+    verify(metrics).recordCircuitTransition(CircuitBreaker.State.OPEN);
+  }
+
+  @Test
+  public void successResetsFailures() {
+    breaker.onFailure();
+    breaker.onSuccess();
+    breaker.onFailure();
+    assertThat(breaker.getState()).isEqualTo(CircuitBreaker.State.CLOSED);
+  }
+
+  @Test
+  public void halfOpenLetsSingleProbeThrough() {
+    open();
+    nanos += TimeUnit.MILLISECONDS.toNanos(OPEN_INTERVAL);
+    assertThat(breaker.tryAcquire()).isTrue();
+    assertThat(breaker.getState()).isEqualTo(CircuitBreaker.State.HALF_OPEN);
+    assertThat(breaker.tryAcquire()).isFalse();
+
+    breaker.onSuccess();
+    assertThat(breaker.getState()).isEqualTo(CircuitBreaker.State.CLOSED);
+    assertThat(breaker.tryAcquire()).isTrue();
+  }
+
+  @Test
+  public void failedProbeOpensAgain() {
+    open();
+    nanos += TimeUnit.MILLISECONDS.toNanos(OPEN_INTERVAL);
+    assertThat(breaker.tryAcquire()).isTrue();
+    breaker.onFailure();
+    assertThat(breaker.getState()).isEqualTo(CircuitBreaker.State.OPEN);
+    assertThat(breaker.tryAcquire()).isFalse();
+  }
+
+  @Test
+  public void disabledWhenThresholdNotPositive() {
+    breaker.configure(0, OPEN_INTERVAL);
+    for (int i = 0; i < 10; i++) {
+      breaker.onFailure();
+    }
+    assertThat(breaker.tryAcquire()).isTrue();
+  }
+
+  private void open() {
+    for (int i = 0; i < THRESHOLD; i++) {
+      breaker.onFailure();
+    }
+  }
+}
@@ -0,0 +1,81 @@
+// Copyright (C) 2026 The Android Open Source Project
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.googlesource.gerrit.plugins.webhooks;
+
+import static com.google.common.truth.Truth.assertThat;
+import static org.mockito.Mockito.when;
+
+import com.google.common.collect.ImmutableList;
+import com.google.gerrit.entities.Project;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+
+@RunWith(MockitoJUnitRunner.class)
+public class CircuitBreakersTest {
+  private static final String URL = "http://foo.org/";
+  private static final Project.NameKey FOO = Project.nameKey("foo");
+  private static final Project.NameKey BAR = Project.nameKey("bar");
+
+  @Mock private WebhooksMetrics metrics;
+
+  @Mock private RemoteConfig first;
+
+  @Mock private RemoteConfig second;
+
+  private CircuitBreakers breakers;
+
+  @Before
+  public void setup() {
+    when(first.getUrl()).thenReturn(URL);
+    when(second.getUrl()).thenReturn(URL);
+    SharedRemotes sharedRemotes = new SharedRemotes();
+    sharedRemotes.update(FOO, ImmutableList.of(first));
+    sharedRemotes.update(BAR, ImmutableList.of(second));
+    breakers = new CircuitBreakers(metrics, sharedRemotes);
+  }
+
+  @Test
+  public void highestThresholdOfRemotesSharingUrlApplies() {
+    when(first.getCircuitBreakerThreshold()).thenReturn(2);
+    when(first.getCircuitBreakerOpenInterval()).thenReturn(60000);
+    when(second.getCircuitBreakerThreshold()).thenReturn(3);
+    when(second.getCircuitBreakerOpenInterval()).thenReturn(30000);
+    CircuitBreaker breaker = breakers.get(first);
+    assertThat(breakers.get(second)).isSameInstanceAs(breaker);
+    assertThat(breakers.get(first)).isSameInstanceAs(breaker);
+
+    breaker.onFailure();
+    breaker.onFailure();
+    assertThat(breaker.getState()).isEqualTo(CircuitBreaker.State.CLOSED);
+    breaker.onFailure();
+    assertThat(breaker.getState()).isEqualTo(CircuitBreaker.State.OPEN);
+    assertThat(breaker.getRemainingOpenMillis()).isAtMost(30000L);
+  }
+
+  @Test
+  public void noCircuitBreakingIfOneRemoteSharingUrlDisablesIt() {
+    when(first.getCircuitBreakerThreshold()).thenReturn(1);
+    when(first.getCircuitBreakerOpenInterval()).thenReturn(60000);
+    when(second.getCircuitBreakerThreshold()).thenReturn(0);
+    CircuitBreaker breaker = breakers.get(second);
+
+    breaker.onFailure();
+    breaker.onFailure();
+    assertThat(breaker.getState()).isEqualTo(CircuitBreaker.State.CLOSED);
+  }
+}
@@ -0,0 +1,182 @@
+// Copyright (C) 2026 The Android Open Source Project
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.googlesource.gerrit.plugins.webhooks;
+
+import static com.google.common.truth.Truth.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.google.common.collect.ImmutableSet;
+import com.google.gerrit.entities.Change;
+import com.google.gerrit.entities.Project;
+import com.google.gerrit.server.events.ChangeEvent;
+import com.google.gerrit.server.events.CommentAddedEvent;
+import com.google.gerrit.server.events.PatchSetCreatedEvent;
+import com.google.gerrit.server.events.ProjectCreatedEvent;
+import com.google.gerrit.server.events.RefUpdatedEvent;
+import java.nio.file.Path;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+
+@RunWith(MockitoJUnitRunner.class)
+public class CoalescerTest {
+  private static final Project.NameKey PROJECT_NAME = Project.nameKey("p");
+  private static final String REF_UPDATED = "ref-updated";
+  private static final String PATCHSET_CREATED = "patchset-created";
+  private static final String COMMENT_ADDED = "comment-added";
+  private static final Change.Key CHANGE_ID = Change.key("I0123456789abcdef");
+  private static final String URL = "http://foo.com";
+  private static final int WINDOW = 1000;
+
+  @Mock private ScheduledExecutorService executor;
+
+  @Mock private WebhooksMetrics metrics;
+
+  @Mock private Configuration cfg;
+
+  @Mock private RemoteConfig remote;
+
+  @Mock private EventProcessor.Request request;
+
+  @Mock private Coalescer.Delivery delivery;
+
+  private Coalescer coalescer;
+
+  @Before
+  public void setup() {
+    when(remote.getUrl()).thenReturn(URL);
+    when(remote.getCoalesceWindow()).thenReturn(WINDOW);
+    when(remote.getCoalesceEvents()).thenReturn(ImmutableSet.of(REF_UPDATED, PATCHSET_CREATED));
+    coalescer =
+        new Coalescer(executor, metrics, new PendingPayloads(cfg, Path.of("pending"), metrics));
+  }
+
+  @Test
+  public void onlyNewestEventOfRefDelivered() {
+    RefUpdatedEvent first = refUpdated("refs/heads/master");
+    RefUpdatedEvent second = refUpdated("refs/heads/master");
+
+    assertThat(coalescer.add(first, remote, request, delivery)).isTrue();
+    assertThat(coalescer.add(second, remote, request, delivery)).isTrue();
+    verify(metrics, times(1)).incrementCoalesced();
+
+    ArgumentCaptor<Runnable> flush = ArgumentCaptor.forClass(Runnable.class);
+    verify(executor, times(1))
+        .schedule(flush.capture(), eq((long) WINDOW), eq(TimeUnit.MILLISECONDS));
+    flush.getValue().run();
+    verify(delivery, times(1)).deliver(second, remote, request);
+    verify(delivery, never()).deliver(first, remote, request);
+  }
+
+  @Test
+  public void eventsOfDifferentRefsDeliveredSeparately() {
+    RefUpdatedEvent master = refUpdated("refs/heads/master");
+    RefUpdatedEvent stable = refUpdated("refs/heads/stable");
+
+    coalescer.add(master, remote, request, delivery);
+    coalescer.add(stable, remote, request, delivery);
+    verify(metrics, never()).incrementCoalesced();
+    verify(executor, times(2)).schedule(any(Runnable.class), anyLong(), any(TimeUnit.class));
+  }
+
+  @Test
+  public void eventWithoutRefNotCoalesced() {
+    ProjectCreatedEvent projectCreated = mock(ProjectCreatedEvent.class);
+
+    assertThat(coalescer.add(projectCreated, remote, request, delivery)).isFalse();
+    verify(executor, never()).schedule(any(Runnable.class), anyLong(), any(TimeUnit.class));
+  }
+
+  @Test
+  public void changesWithSameChangeIdOnDifferentBranchesDeliveredSeparately() {
+    PatchSetCreatedEvent master =
+        changeEvent(PatchSetCreatedEvent.class, PATCHSET_CREATED, "refs/heads/master");
+    PatchSetCreatedEvent stable =
+        changeEvent(PatchSetCreatedEvent.class, PATCHSET_CREATED, "refs/heads/stable");
+
+    assertThat(coalescer.add(master, remote, request, delivery)).isTrue();
+    assertThat(coalescer.add(stable, remote, request, delivery)).isTrue();
+    verify(metrics, never()).incrementCoalesced();
+    verify(executor, times(2)).schedule(any(Runnable.class), anyLong(), any(TimeUnit.class));
+  }
+
+  @Test
+  public void eventsOfTypesNotSupersededNotCoalesced() {
+    CommentAddedEvent first =
+        changeEvent(CommentAddedEvent.class, COMMENT_ADDED, "refs/heads/master");
+    CommentAddedEvent second =
+        changeEvent(CommentAddedEvent.class, COMMENT_ADDED, "refs/heads/master");
+
+    assertThat(coalescer.add(first, remote, request, delivery)).isFalse();
+    assertThat(coalescer.add(second, remote, request, delivery)).isFalse();
+    verify(metrics, never()).incrementCoalesced();
+  }
+
+  @Test
+  public void heldEventsDeliveredOnStop() {
+    RefUpdatedEvent master = refUpdated("refs/heads/master");
+    RefUpdatedEvent stable = refUpdated("refs/heads/stable");
+    coalescer.add(master, remote, request, delivery);
+    coalescer.add(stable, remote, request, delivery);
+
+    coalescer.stop();
+    verify(delivery).deliver(master, remote, request);
+    verify(delivery).deliver(stable, remote, request);
+
+    ArgumentCaptor<Runnable> flush = ArgumentCaptor.forClass(Runnable.class);
+    verify(executor, times(2))
+        .schedule(flush.capture(), eq((long) WINDOW), eq(TimeUnit.MILLISECONDS));
+    flush.getAllValues().forEach(Runnable::run);
+    verify(delivery, times(2)).deliver(any(), any(), any());
+  }
+
+  @Test
+  public void eventNotCoalescedOnceStopped() {
+    coalescer.stop();
+
+    assertThat(coalescer.add(refUpdated("refs/heads/master"), remote, request, delivery))
+        .isFalse();
+    verify(executor, never()).schedule(any(Runnable.class), anyLong(), any(TimeUnit.class));
+  }
+
+  private static <T extends ChangeEvent> T changeEvent(Class<T> clazz, String type, String branch) {
+    T event = mock(clazz);
+    when(event.getProjectNameKey()).thenReturn(PROJECT_NAME);
+    when(event.getType()).thenReturn(type);
+    when(event.getChangeKey()).thenReturn(CHANGE_ID);
+    when(event.getRefName()).thenReturn(branch);
+    return event;
+  }
+
+  private static RefUpdatedEvent refUpdated(String ref) {
+    RefUpdatedEvent event = mock(RefUpdatedEvent.class);
+    when(event.getProjectNameKey()).thenReturn(PROJECT_NAME);
+    when(event.getType()).thenReturn(REF_UPDATED);
+    when(event.getRefName()).thenReturn(ref);
+    return event;
+  }
+}
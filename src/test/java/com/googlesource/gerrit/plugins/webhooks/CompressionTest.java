@@ -0,0 +1,43 @@
+// Copyright (C) 2026 The Android Open Source Project
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.googlesource.gerrit.plugins.webhooks;
+
+import static com.google.common.truth.Truth.assertThat;
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import com.google.common.io.ByteStreams;
+import java.io.InputStream;
+import java.util.zip.GZIPInputStream;
+import org.junit.Test;
+
+public class CompressionTest {
+  private static final String BODY = "{\"type\":\"ref-updated\"}";
+
+  @Test
+  public void uncompressedPayloadIsShared() {
+    EventProcessor.Request request = new EventProcessor.Request(BODY);
+    assertThat(request.getPayload(Compression.NONE)).isSameInstanceAs(request.getPayload());
+  }
+
+  @Test
+  public void gzipPayloadIsCompressedOnce() throws Exception {
+    EventProcessor.Request request = new EventProcessor.Request(BODY);
+    assertThat(request.getPayload(Compression.GZIP))
+        .isSameInstanceAs(request.getPayload(Compression.GZIP));
+    try (InputStream in = new GZIPInputStream(request.getPayload(Compression.GZIP).openStream())) {
+      assertThat(new String(ByteStreams.toByteArray(in), UTF_8)).isEqualTo(BODY);
+    }
+  }
+}
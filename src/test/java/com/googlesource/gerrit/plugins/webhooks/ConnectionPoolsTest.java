@@ -0,0 +1,173 @@
+// Copyright (C) 2026 The Android Open Source Project
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.googlesource.gerrit.plugins.webhooks;
+
+import static com.google.common.truth.Truth.assertThat;
+import static org.mockito.Mockito.when;
+
+import com.google.common.collect.ImmutableList;
+import com.google.gerrit.entities.Project;
+import java.util.concurrent.ScheduledExecutorService;
+import org.apache.http.HttpException;
+import org.apache.http.client.methods.HttpPost;
+import org.apache.http.client.protocol.HttpClientContext;
+import org.apache.http.client.utils.URIUtils;
+import org.apache.http.config.Registry;
+import org.apache.http.config.RegistryBuilder;
+import org.apache.http.conn.routing.HttpRoute;
+import org.apache.http.conn.socket.ConnectionSocketFactory;
+import org.apache.http.conn.socket.PlainConnectionSocketFactory;
+import org.apache.http.impl.conn.DefaultRoutePlanner;
+import org.apache.http.impl.conn.DefaultSchemePortResolver;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+
+@RunWith(MockitoJUnitRunner.class)
+public class ConnectionPoolsTest {
+  private static final String FOO_URL = "http://foo.org/hook";
+  private static final String OTHER_FOO_URL = "http://foo.org/other";
+  private static final int DEFAULT_MAX_PER_ROUTE = 100;
+  private static final Project.NameKey FOO = Project.nameKey("foo");
+  private static final Project.NameKey BAR = Project.nameKey("bar");
+
+  @Mock private Configuration cfg;
+
+  @Mock private ScheduledExecutorService executor;
+
+  @Mock private WebhooksMetrics metrics;
+
+  @Mock private RemoteConfig first;
+
+  @Mock private RemoteConfig second;
+
+  @Mock private RemoteConfig updated;
+
+  private SharedRemotes sharedRemotes;
+
+  private ConnectionPools pools;
+
+  private PoolingHttpClientConnectionManager pool;
+
+  @Before
+  public void setup() {
+    when(cfg.getMaxConnectionsPerRoute()).thenReturn(DEFAULT_MAX_PER_ROUTE);
+    when(cfg.getMaxConnections()).thenReturn(2 * DEFAULT_MAX_PER_ROUTE);
+    sharedRemotes = new SharedRemotes();
+    pools = new ConnectionPools(cfg, executor, metrics, sharedRemotes);
+    Registry<ConnectionSocketFactory> registry =
+        RegistryBuilder.<ConnectionSocketFactory>create()
+            .register("http", PlainConnectionSocketFactory.getSocketFactory())
+            .build();
+    pool = pools.create(registry);
+  }
+
+  @After
+  public void tearDown() {
+    pools.stop();
+  }
+
+  @Test
+  public void routeMatchesRoutePlannedByClient() throws HttpException {
+    DefaultRoutePlanner planner = new DefaultRoutePlanner(DefaultSchemePortResolver.INSTANCE);
+    for (String url :
+        new String[] {"https://foo.org/hook", "http://foo.org:8080/hook", "HTTPS://Foo.org/"}) {
+      HttpPost post = new HttpPost(url);
+      HttpRoute planned =
+          planner.determineRoute(
+              URIUtils.extractHost(post.getURI()), post, HttpClientContext.create());
+      assertThat(ConnectionPools.route(url)).isEqualTo(planned);
+    }
+  }
+
+  @Test
+  public void limitSetForRemoteAppliedToItsHost() {
+    when(first.getMaxConnectionsPerRoute()).thenReturn(5);
+    when(first.getUrl()).thenReturn(FOO_URL);
+    pools.configure(first);
+
+    assertThat(pool.getMaxPerRoute(ConnectionPools.route(FOO_URL))).isEqualTo(5);
+  }
+
+  @Test
+  public void highestLimitOfRemotesSharingHostApplies() {
+    when(first.getMaxConnectionsPerRoute()).thenReturn(8);
+    when(first.getUrl()).thenReturn(FOO_URL);
+    when(second.getMaxConnectionsPerRoute()).thenReturn(5);
+    when(second.getUrl()).thenReturn(OTHER_FOO_URL);
+    sharedRemotes.update(FOO, ImmutableList.of(first));
+    sharedRemotes.update(BAR, ImmutableList.of(second));
+    pools.configure(first);
+    pools.configure(second);
+    pools.configure(first);
+
+    assertThat(pool.getMaxPerRoute(ConnectionPools.route(FOO_URL))).isEqualTo(8);
+  }
+
+  @Test
+  public void defaultLimitKeptWhenRemoteSetsNone() {
+    when(first.getUrl()).thenReturn(FOO_URL);
+    pools.configure(first);
+
+    assertThat(pool.getMaxPerRoute(ConnectionPools.route(FOO_URL)))
+        .isEqualTo(DEFAULT_MAX_PER_ROUTE);
+  }
+
+  @Test
+  public void updatedLimitOfRemoteApplies() {
+    when(first.getMaxConnectionsPerRoute()).thenReturn(8);
+    when(first.getUrl()).thenReturn(FOO_URL);
+    sharedRemotes.update(FOO, ImmutableList.of(first));
+    pools.configure(first);
+    when(updated.getMaxConnectionsPerRoute()).thenReturn(5);
+    when(updated.getUrl()).thenReturn(FOO_URL);
+    sharedRemotes.update(FOO, ImmutableList.of(updated));
+    pools.configure(updated);
+
+    assertThat(pool.getMaxPerRoute(ConnectionPools.route(FOO_URL))).isEqualTo(5);
+  }
+
+  @Test
+  public void defaultLimitRestoredWhenRemoteNoLongerSetsOne() {
+    when(first.getMaxConnectionsPerRoute()).thenReturn(8);
+    when(first.getUrl()).thenReturn(FOO_URL);
+    sharedRemotes.update(FOO, ImmutableList.of(first));
+    pools.configure(first);
+    when(updated.getUrl()).thenReturn(FOO_URL);
+    sharedRemotes.update(FOO, ImmutableList.of(updated));
+    pools.configure(updated);
+
+    assertThat(pool.getMaxPerRoute(ConnectionPools.route(FOO_URL)))
+        .isEqualTo(DEFAULT_MAX_PER_ROUTE);
+  }
+
+  @Test
+  public void limitAppliedToPoolsCreatedLater() {
+    when(first.getMaxConnectionsPerRoute()).thenReturn(5);
+    when(first.getUrl()).thenReturn(FOO_URL);
+    pools.configure(first);
+
+    PoolingHttpClientConnectionManager later =
+        pools.create(
+            RegistryBuilder.<ConnectionSocketFactory>create()
+                .register("http", PlainConnectionSocketFactory.getSocketFactory())
+                .build());
+    assertThat(later.getMaxPerRoute(ConnectionPools.route(FOO_URL))).isEqualTo(5);
+  }
+}
@@ -0,0 +1,175 @@
+// Copyright (C) 2026 The Android Open Source Project
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.googlesource.gerrit.plugins.webhooks;
+
+import static com.google.common.truth.Truth.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.google.common.collect.ImmutableList;
+import com.google.gerrit.entities.Project;
+import com.google.gerrit.server.events.ProjectCreatedEvent;
+import java.io.IOException;
+import java.util.Optional;
+import java.util.OptionalInt;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.junit.runner.RunWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+
+@RunWith(MockitoJUnitRunner.class)
+public class DeadLettersTest {
+  private static final Project.NameKey PROJECT = Project.nameKey("p");
+  private static final String REMOTE = "foo";
+  private static final String OTHER_REMOTE = "bar";
+  private static final String URL = "http://foo.com";
+  private static final String OTHER_URL = "http://bar.com";
+  private static final int MAX_DEAD_LETTERS = 2;
+
+  @Rule public TemporaryFolder tmp = new TemporaryFolder();
+
+  @Mock private Configuration cfg;
+
+  @Mock private ScheduledExecutorService executor;
+
+  @Mock private RemotesCache remotesCache;
+
+  @Mock private PostTask.Factory taskFactory;
+
+  @Mock private WebhooksMetrics metrics;
+
+  @Mock private ProjectCreatedEvent event;
+
+  @Mock private RemoteConfig remote;
+
+  @Mock private RemoteConfig otherRemote;
+
+  @Mock private ProjectRemotes projectRemotes;
+
+  @Mock private PostTask task;
+
+  private DeadLetters deadLetters;
+
+  @Before
+  public void setup() {
+    when(cfg.getMaxDeadLetters()).thenReturn(MAX_DEAD_LETTERS);
+    when(event.getProjectNameKey()).thenReturn(PROJECT);
+    when(event.getType()).thenReturn("project-created");
+    when(remote.getName()).thenReturn(REMOTE);
+    deadLetters =
+        new DeadLetters(
+            cfg, tmp.getRoot().toPath(), executor, remotesCache, () -> taskFactory, metrics);
+  }
+
+  @After
+  public void tearDown() {
+    deadLetters.stop();
+  }
+
+  @Test
+  public void givenUpDeliveryKept() throws IOException {
+    deadLetters.add(event, remote, new EventProcessor.Request("body"), 5, "503");
+
+    ImmutableList<DeadLetter> letters = deadLetters.list(PROJECT, REMOTE);
+    assertThat(letters).hasSize(1);
+    DeadLetter letter = deadLetters.get(PROJECT, REMOTE, letters.get(0).getId()).get();
+    assertThat(letter.getAttempts()).isEqualTo(5);
+    assertThat(letter.getReason()).isEqualTo("503");
+    assertThat(letter.getDelivery().getEventType()).isEqualTo("project-created");
+    assertThat(letter.getDelivery().getContent().getBody()).isEqualTo("body");
+  }
+
+  @Test
+  public void oldestDeadLetterDroppedBeyondMax() throws IOException {
+    for (int i = 0; i < MAX_DEAD_LETTERS + 1; i++) {
+      deadLetters.add(event, remote, new EventProcessor.Request("body-" + i), 1, "");
+    }
+
+    ImmutableList<DeadLetter> letters = deadLetters.list(PROJECT, REMOTE);
+    assertThat(letters).hasSize(MAX_DEAD_LETTERS);
+    assertThat(letters.get(0).getDelivery().getContent().getBody()).isEqualTo("body-1");
+  }
+
+  @Test
+  public void purgedDeadLettersRemoved() throws IOException {
+    deadLetters.add(event, remote, new EventProcessor.Request("body"), 1, "");
+
+    assertThat(deadLetters.purge(PROJECT, REMOTE, null)).isEqualTo(1);
+    assertThat(deadLetters.list(PROJECT, REMOTE)).isEmpty();
+  }
+
+  @Test
+  public void noDeadLettersForOtherRemote() throws IOException {
+    deadLetters.add(event, remote, new EventProcessor.Request("body"), 1, "");
+
+    assertThat(deadLetters.list(PROJECT, "bar")).isEmpty();
+  }
+
+  @Test
+  public void deadLetterReplayedOnlyOnce() throws Exception {
+    when(remotesCache.get(PROJECT)).thenReturn(projectRemotes);
+    when(projectRemotes.getRemote(REMOTE)).thenReturn(Optional.of(remote));
+    when(remote.getUrl()).thenReturn(URL);
+    when(taskFactory.create(any(), eq(remote), any())).thenReturn(task);
+    deadLetters.add(event, remote, new EventProcessor.Request("body"), 1, "");
+
+    assertThat(deadLetters.replay(PROJECT, REMOTE, null)).isEqualTo(OptionalInt.of(1));
+    assertThat(deadLetters.replay(PROJECT, REMOTE, null)).isEqualTo(OptionalInt.of(1));
+    ArgumentCaptor<Runnable> replays = ArgumentCaptor.forClass(Runnable.class);
+    verify(executor, times(2)).schedule(replays.capture(), anyLong(), eq(TimeUnit.NANOSECONDS));
+    replays.getAllValues().forEach(Runnable::run);
+
+    verify(task, times(1)).schedule();
+    assertThat(deadLetters.list(PROJECT, REMOTE)).isEmpty();
+  }
+
+  @Test
+  public void replaysPacedPerRemote() throws Exception {
+    when(cfg.getDeadLetterReplayRate()).thenReturn(1);
+    deadLetters.stop();
+    deadLetters =
+        new DeadLetters(
+            cfg, tmp.getRoot().toPath(), executor, remotesCache, () -> taskFactory, metrics);
+    when(remotesCache.get(PROJECT)).thenReturn(projectRemotes);
+    when(projectRemotes.getRemote(REMOTE)).thenReturn(Optional.of(remote));
+    when(projectRemotes.getRemote(OTHER_REMOTE)).thenReturn(Optional.of(otherRemote));
+    when(remote.getUrl()).thenReturn(URL);
+    when(otherRemote.getName()).thenReturn(OTHER_REMOTE);
+    when(otherRemote.getUrl()).thenReturn(OTHER_URL);
+    deadLetters.add(event, remote, new EventProcessor.Request("first"), 1, "");
+    deadLetters.add(event, remote, new EventProcessor.Request("second"), 1, "");
+    deadLetters.add(event, otherRemote, new EventProcessor.Request("other"), 1, "");
+
+    deadLetters.replay(PROJECT, REMOTE, null);
+    deadLetters.replay(PROJECT, OTHER_REMOTE, null);
+    ArgumentCaptor<Long> delays = ArgumentCaptor.forClass(Long.class);
+    verify(executor, times(3))
+        .schedule(any(Runnable.class), delays.capture(), eq(TimeUnit.NANOSECONDS));
+    assertThat(delays.getAllValues().get(0)).isEqualTo(0L);
+    assertThat(delays.getAllValues().get(1)).isGreaterThan(TimeUnit.MILLISECONDS.toNanos(900));
+    assertThat(delays.getAllValues().get(2)).isEqualTo(0L);
+  }
+}
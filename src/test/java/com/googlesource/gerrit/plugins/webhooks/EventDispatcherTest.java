@@ -0,0 +1,153 @@
+// Copyright (C) 2026 The Android Open Source Project
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.googlesource.gerrit.plugins.webhooks;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+import com.google.gerrit.entities.Project;
+import com.google.gerrit.server.events.ProjectCreatedEvent;
+import com.google.gerrit.server.project.NoSuchProjectException;
+import java.util.Optional;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+
+@RunWith(MockitoJUnitRunner.class)
+public class EventDispatcherTest {
+  private static final Project.NameKey PROJECT_NAME = Project.nameKey("p");
+  private static final String PROJECT_CREATED = "project-created";
+
+  @Mock private ProjectCreatedEvent projectCreated;
+
+  @Mock private RemotesCache remotesCache;
+
+  @Mock private PostTask.Factory taskFactory;
+
+  @Mock private PostTask postTask;
+
+  @Mock private Batcher batcher;
+
+  @Mock private Coalescer coalescer;
+
+  @Mock private RemoteConfig remote;
+
+  @Mock private EventProcessor processor;
+
+  @Mock private EventProcessor.Request content;
+
+  private EventDispatcher dispatcher;
+
+  @Before
+  public void setup() throws NoSuchProjectException {
+    when(projectCreated.getProjectNameKey()).thenReturn(PROJECT_NAME);
+    when(projectCreated.getType()).thenReturn(PROJECT_CREATED);
+    when(remote.getEventTypes()).thenReturn(ImmutableSet.of());
+    when(remote.getBatchFormat()).thenReturn(BatchFormat.NONE);
+    when(processor.process(eq(projectCreated), eq(remote))).thenReturn(Optional.of(content));
+    when(taskFactory.create(eq(projectCreated), eq(remote), eq(content))).thenReturn(postTask);
+    dispatcher = new EventDispatcher(remotesCache, taskFactory, batcher, coalescer, processor);
+  }
+
+  @Test
+  public void noRemotesTaskNotScheduled() throws Exception {
+    when(remotesCache.get(PROJECT_NAME))
+        .thenReturn(new ProjectRemotes(PROJECT_NAME, ImmutableSet.of(), ImmutableList.of()));
+    dispatcher.dispatch(projectCreated);
+    verifyNoInteractions(taskFactory);
+    verifyNoInteractions(postTask);
+  }
+
+  @Test
+  public void remoteTaskScheduled() throws Exception {
+    when(remotesCache.get(PROJECT_NAME))
+        .thenReturn(new ProjectRemotes(PROJECT_NAME, ImmutableSet.of(), ImmutableList.of(remote)));
+
+    dispatcher.dispatch(projectCreated);
+    verify(taskFactory, times(1)).create(eq(projectCreated), eq(remote), eq(content));
+    verify(postTask, times(1)).schedule();
+  }
+
+  @Test
+  public void batchedRemoteRequestAddedToBatch() throws Exception {
+    when(remote.getBatchFormat()).thenReturn(BatchFormat.NDJSON);
+    when(remotesCache.get(PROJECT_NAME))
+        .thenReturn(new ProjectRemotes(PROJECT_NAME, ImmutableSet.of(), ImmutableList.of(remote)));
+
+    dispatcher.dispatch(projectCreated);
+    verify(batcher, times(1)).add(eq(projectCreated), eq(remote), eq(content));
+    verifyNoInteractions(taskFactory);
+  }
+
+  @Test
+  public void coalescingRemoteRequestHeldByCoalescer() throws Exception {
+    when(remote.getCoalesceWindow()).thenReturn(1000);
+    when(coalescer.add(eq(projectCreated), eq(remote), eq(content), any())).thenReturn(true);
+    when(remotesCache.get(PROJECT_NAME))
+        .thenReturn(new ProjectRemotes(PROJECT_NAME, ImmutableSet.of(), ImmutableList.of(remote)));
+
+    dispatcher.dispatch(projectCreated);
+    verifyNoInteractions(taskFactory);
+  }
+
+  @Test
+  public void notCoalescedRequestScheduled() throws Exception {
+    when(remote.getCoalesceWindow()).thenReturn(1000);
+    when(coalescer.add(eq(projectCreated), eq(remote), eq(content), any())).thenReturn(false);
+    when(remotesCache.get(PROJECT_NAME))
+        .thenReturn(new ProjectRemotes(PROJECT_NAME, ImmutableSet.of(), ImmutableList.of(remote)));
+
+    dispatcher.dispatch(projectCreated);
+    verify(postTask, times(1)).schedule();
+  }
+
+  @Test
+  public void remoteNotSubscribedToEventTaskNotScheduled() throws Exception {
+    when(remote.getEventTypes()).thenReturn(ImmutableSet.of("ref-updated"));
+    when(remotesCache.get(PROJECT_NAME))
+        .thenReturn(new ProjectRemotes(PROJECT_NAME, ImmutableSet.of(), ImmutableList.of(remote)));
+
+    dispatcher.dispatch(projectCreated);
+    verifyNoInteractions(processor);
+    verifyNoInteractions(taskFactory);
+  }
+
+  @Test
+  public void nonExistingProjectNotProcessed() throws Exception {
+    when(remotesCache.get(PROJECT_NAME)).thenThrow(NoSuchProjectException.class);
+    dispatcher.dispatch(projectCreated);
+    verifyNoInteractions(taskFactory);
+    verifyNoInteractions(postTask);
+  }
+
+  @Test
+  public void noScheduleOnEmptyBody() throws Exception {
+    when(remotesCache.get(PROJECT_NAME))
+        .thenReturn(new ProjectRemotes(PROJECT_NAME, ImmutableSet.of(), ImmutableList.of(remote)));
+    when(processor.process(eq(projectCreated), eq(remote))).thenReturn(Optional.empty());
+
+    dispatcher.dispatch(projectCreated);
+    verifyNoInteractions(taskFactory);
+    verifyNoInteractions(postTask);
+  }
+}
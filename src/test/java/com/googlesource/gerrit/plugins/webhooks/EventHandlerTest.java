@@ -14,22 +14,13 @@
 
 package com.googlesource.gerrit.plugins.webhooks;
 
-import static org.mockito.ArgumentMatchers.eq;
-import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.when;
 
-import com.google.common.collect.ImmutableList;
-import com.google.common.collect.ImmutableSet;
 import com.google.gerrit.entities.Project;
-import com.google.gerrit.server.config.PluginConfigFactory;
 import com.google.gerrit.server.events.Event;
 import com.google.gerrit.server.events.ProjectCreatedEvent;
-import com.google.gerrit.server.project.NoSuchProjectException;
-import java.util.Optional;
-import java.util.regex.Pattern;
-import org.eclipse.jgit.lib.Config;
 import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
@@ -39,103 +30,50 @@ import org.mockito.junit.MockitoJUnitRunner;
 @RunWith(MockitoJUnitRunner.class)
 public class EventHandlerTest {
   private static final Project.NameKey PROJECT_NAME = Project.nameKey("p");
-  private static final String PLUGIN = "webhooks";
-  private static final String REMOTE = "remote";
-  private static final String FOO = "foo";
-  private static final String FOO_URL = "foo-url";
-
-  @Mock private Configuration global;
+  private static final String PROJECT_CREATED = "project-created";
 
   @Mock private ProjectCreatedEvent projectCreated;
 
-  @Mock private PluginConfigFactory configFactory;
-
-  @Mock private RemoteConfig.Factory remoteFactory;
-
-  @Mock private PostTask.Factory taskFactory;
-
-  @Mock private PostTask postTask;
-
-  @Mock private RemoteConfig remote;
+  @Mock private SubscriptionIndex subscriptions;
 
-  @Mock private Config config;
-
-  @Mock private EventProcessor processor;
-
-  @Mock private EventProcessor.Request content;
+  @Mock private IngestQueue ingestQueue;
 
   private EventHandler eventHandler;
 
   @Before
-  public void setup() throws NoSuchProjectException {
+  public void setup() {
     when(projectCreated.getProjectNameKey()).thenReturn(PROJECT_NAME);
-    when(configFactory.getProjectPluginConfigWithInheritance(PROJECT_NAME, PLUGIN))
-        .thenReturn(config);
-    when(remoteFactory.create(eq(config), eq(FOO))).thenReturn(remote);
-    when(processor.process(eq(projectCreated), eq(remote))).thenReturn(Optional.of(content));
-    when(taskFactory.create(eq(projectCreated), eq(remote), eq(content))).thenReturn(postTask);
-    eventHandler =
-        new EventHandler(global, configFactory, PLUGIN, remoteFactory, taskFactory, processor);
+    when(projectCreated.getType()).thenReturn(PROJECT_CREATED);
+    when(subscriptions.isSubscribed(PROJECT_CREATED)).thenReturn(true);
+    when(subscriptions.isSubscribed(PROJECT_CREATED, PROJECT_NAME)).thenReturn(true);
+    eventHandler = new EventHandler(subscriptions, ingestQueue);
   }
 
   @Test
-  public void remoteUrlUndefinedTaskNotScheduled() {
-    when(config.getSubsections(eq(REMOTE))).thenReturn(ImmutableSet.of(FOO));
+  public void subscribedEventEnqueued() {
     eventHandler.onEvent(projectCreated);
-    verifyNoInteractions(taskFactory);
-    verifyNoInteractions(postTask);
-  }
-
-  @Test
-  public void remoteUrlDefinedTaskScheduled() {
-    when(config.getSubsections(eq(REMOTE))).thenReturn(ImmutableSet.of(FOO));
-    when(remote.getUrl()).thenReturn(FOO_URL);
-
-    eventHandler.onEvent(projectCreated);
-    verify(taskFactory, times(1)).create(eq(projectCreated), eq(remote), eq(content));
-    verify(postTask, times(1)).schedule();
+    verify(ingestQueue).offer(projectCreated);
   }
 
   @Test
   public void nonProjectEventNotProcessed() {
     Event nonProjectEvent = new Event("non-project-event") {};
     eventHandler.onEvent(nonProjectEvent);
-    verifyNoInteractions(remoteFactory);
-    verifyNoInteractions(taskFactory);
-    verifyNoInteractions(postTask);
+    verifyNoInteractions(subscriptions);
+    verifyNoInteractions(ingestQueue);
   }
 
   @Test
-  public void allowedUrlTaskScheduled() {
-    when(config.getSubsections(eq(REMOTE))).thenReturn(ImmutableSet.of(FOO));
-    when(global.getAllowedUrlPatterns()).thenReturn(ImmutableList.of(Pattern.compile(FOO_URL)));
-    when(remote.getUrl()).thenReturn(FOO_URL);
-
+  public void unsubscribedEventNotProcessed() {
+    when(subscriptions.isSubscribed(PROJECT_CREATED)).thenReturn(false);
     eventHandler.onEvent(projectCreated);
-    verify(taskFactory, times(1)).create(eq(projectCreated), eq(remote), eq(content));
-    verify(postTask, times(1)).schedule();
+    verifyNoInteractions(ingestQueue);
   }
 
   @Test
-  public void allowedUrlTaskNotScheduled() {
-    when(config.getSubsections(eq(REMOTE))).thenReturn(ImmutableSet.of(FOO));
-    when(global.getAllowedUrlPatterns())
-        .thenReturn(ImmutableList.of(Pattern.compile("does-not-match")));
-    when(remote.getUrl()).thenReturn(FOO_URL);
-
-    eventHandler.onEvent(projectCreated);
-    verifyNoInteractions(taskFactory);
-    verifyNoInteractions(postTask);
-  }
-
-  @Test
-  public void noScheduleOnEmptyBody() throws Exception {
-    when(config.getSubsections(eq(REMOTE))).thenReturn(ImmutableSet.of(FOO));
-    when(remote.getUrl()).thenReturn(FOO_URL);
-    when(processor.process(eq(projectCreated), eq(remote))).thenReturn(Optional.empty());
-
+  public void unsubscribedProjectNotProcessed() {
+    when(subscriptions.isSubscribed(PROJECT_CREATED, PROJECT_NAME)).thenReturn(false);
     eventHandler.onEvent(projectCreated);
-    verifyNoInteractions(taskFactory);
-    verifyNoInteractions(postTask);
+    verifyNoInteractions(ingestQueue);
   }
 }
@@ -0,0 +1,65 @@
+// Copyright (C) 2026 The Android Open Source Project
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.googlesource.gerrit.plugins.webhooks;
+
+import static com.google.common.truth.Truth.assertThat;
+import static org.junit.Assume.assumeTrue;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.google.gerrit.server.git.WorkQueue;
+import java.util.concurrent.ScheduledExecutorService;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+
+@RunWith(MockitoJUnitRunner.class)
+public class ExecutorProviderTest {
+  private static final String PLUGIN = "webhooks";
+  private static final int THREAD_POOL_SIZE = 2;
+
+  @Mock private WorkQueue workQueue;
+
+  @Mock private Configuration cfg;
+
+  @Mock private ScheduledExecutorService queue;
+
+  @Test
+  public void queueShutDownOnStop() {
+    when(cfg.getThreadPoolSize()).thenReturn(THREAD_POOL_SIZE);
+    when(workQueue.createQueue(THREAD_POOL_SIZE, PLUGIN)).thenReturn(queue);
+    ExecutorProvider provider = new ExecutorProvider(workQueue, cfg, PLUGIN);
+    assertThat(provider.get()).isSameInstanceAs(queue);
+
+    provider.stop();
+    verify(queue).shutdown();
+  }
+
+  @Test
+  public void virtualThreadsShutDownOnStop() {
+    assumeTrue(Runtime.version().feature() >= 21);
+    when(cfg.getVirtualThreads()).thenReturn(true);
+    when(workQueue.createQueue(1, PLUGIN)).thenReturn(queue);
+    ExecutorProvider provider = new ExecutorProvider(workQueue, cfg, PLUGIN);
+    ScheduledExecutorService executor = provider.get();
+    assertThat(executor).isInstanceOf(VirtualThreadExecutor.class);
+
+    provider.stop();
+    verify(queue).shutdown();
+    when(queue.isShutdown()).thenReturn(true);
+    assertThat(executor.isShutdown()).isTrue();
+  }
+}
@@ -0,0 +1,157 @@
+// Copyright (C) 2026 The Android Open Source Project
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.googlesource.gerrit.plugins.webhooks;
+
+import static com.google.common.truth.Truth.assertThat;
+import static java.nio.charset.StandardCharsets.ISO_8859_1;
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import com.googlesource.gerrit.plugins.webhooks.HttpResponseHandler.HttpResult;
+import java.net.http.HttpClient;
+import java.net.http.HttpHeaders;
+import java.net.http.HttpResponse.BodySubscriber;
+import java.net.http.HttpResponse.ResponseInfo;
+import java.nio.ByteBuffer;
+import java.time.Duration;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.Flow;
+import org.apache.http.HttpResponse;
+import org.apache.http.HttpVersion;
+import org.apache.http.entity.StringEntity;
+import org.apache.http.message.BasicHttpResponse;
+import org.junit.Test;
+
+public class HttpResponseHandlerTest {
+  @Test
+  public void successfulResponseBodyDiscarded() {
+    HttpResult result = new HttpResponseHandler(4).handleResponse(response(200, "accepted"));
+    assertThat(result.successful).isTrue();
+    assertThat(result.message).isEmpty();
+  }
+
+  @Test
+  public void failedResponseBodyTruncated() {
+    HttpResult result = new HttpResponseHandler(4).handleResponse(response(500, "internal error"));
+    assertThat(result.successful).isFalse();
+    assertThat(result.message).isEqualTo("inte");
+  }
+
+  @Test
+  public void failedResponseBodyDecodedWithCharset() {
+    BasicHttpResponse response = new BasicHttpResponse(HttpVersion.HTTP_1_1, 500, null);
+    response.setEntity(new StringEntity("d\u00e9j\u00e0", ISO_8859_1));
+    assertThat(new HttpResponseHandler(16).handleResponse(response).message)
+        .isEqualTo("d\u00e9j\u00e0");
+  }
+
+  @Test
+  public void asyncFailedResponseBodyTruncated() throws Exception {
+    assertThat(asyncBody(new HttpResponseHandler(4), 500, null, "internal error".getBytes(UTF_8)))
+        .isEqualTo("inte");
+  }
+
+  @Test
+  public void asyncSuccessfulResponseBodyDiscarded() throws Exception {
+    assertThat(asyncBody(new HttpResponseHandler(4), 200, null, "accepted".getBytes(UTF_8)))
+        .isEmpty();
+  }
+
+  @Test
+  public void asyncFailedResponseBodyDecodedWithCharset() throws Exception {
+    String body = "d\u00e9j\u00e0";
+    assertThat(
+            asyncBody(
+                new HttpResponseHandler(16),
+                500,
+                "text/plain; charset=ISO-8859-1",
+                body.getBytes(ISO_8859_1)))
+        .isEqualTo(body);
+    assertThat(asyncBody(new HttpResponseHandler(16), 500, "text/plain", body.getBytes(UTF_8)))
+        .isEqualTo(body);
+  }
+
+  @Test
+  public void retryAfterInSeconds() {
+    assertThat(HttpResponseHandler.parseRetryAfter(503, "120"))
+        .isEqualTo(Optional.of(Duration.ofSeconds(120)));
+  }
+
+  @Test
+  public void retryAfterAsDate() {
+    String date =
+        DateTimeFormatter.RFC_1123_DATE_TIME.format(
+            ZonedDateTime.now(ZoneOffset.UTC).plusMinutes(10));
+    Duration delay = HttpResponseHandler.parseRetryAfter(429, date).get();
+    assertThat(delay).isGreaterThan(Duration.ofMinutes(9));
+    assertThat(delay).isAtMost(Duration.ofMinutes(10));
+  }
+
+  @Test
+  public void retryAfterIgnoredForOtherStatusOrInvalidValue() {
+    assertThat(HttpResponseHandler.parseRetryAfter(500, "120")).isEqualTo(Optional.empty());
+    assertThat(HttpResponseHandler.parseRetryAfter(503, "soon")).isEqualTo(Optional.empty());
+    assertThat(HttpResponseHandler.parseRetryAfter(503, null)).isEqualTo(Optional.empty());
+  }
+
+  private static String asyncBody(
+      HttpResponseHandler handler, int sc, String contentType, byte[] body) throws Exception {
+    HttpHeaders headers =
+        HttpHeaders.of(
+            contentType != null ? Map.of("Content-Type", List.of(contentType)) : Map.of(),
+            (name, value) -> true);
+    BodySubscriber<String> subscriber =
+        handler
+            .asBodyHandler()
+            .apply(
+                new ResponseInfo() {
+                  @Override
+                  public int statusCode() {
+                    return sc;
+                  }
+
+                  @Override
+                  public HttpHeaders headers() {
+                    return headers;
+                  }
+
+                  @Override
+                  public HttpClient.Version version() {
+                    return HttpClient.Version.HTTP_1_1;
+                  }
+                });
+    subscriber.onSubscribe(
+        new Flow.Subscription() {
+          @Override
+          public void request(long n) {}
+
+          @Override
+          public void cancel() {}
+        });
+    subscriber.onNext(List.of(ByteBuffer.wrap(body)));
+    subscriber.onComplete();
+    return subscriber.getBody().toCompletableFuture().get();
+  }
+
+  private static HttpResponse response(int sc, String body) {
+    BasicHttpResponse response = new BasicHttpResponse(HttpVersion.HTTP_1_1, sc, null);
+    response.setEntity(new StringEntity(body, UTF_8));
+    return response;
+  }
+}
@@ -0,0 +1,177 @@
+// Copyright (C) 2026 The Android Open Source Project
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+
+package com.googlesource.gerrit.plugins.webhooks;
+
+import static com.google.common.truth.Truth.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+import com.google.common.collect.ImmutableMap;
+import com.google.inject.Provider;
+import com.googlesource.gerrit.plugins.webhooks.HttpResponseHandler.HttpResult;
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpHeaders;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+
+@RunWith(MockitoJUnitRunner.class)
+public class HttpSessionTest {
+  private static final String URL = "http://foo.org/hook";
+
+  @Mock private Configuration cfg;
+
+  @Mock private Provider<CloseableHttpClient> defaultClientProvider;
+
+  @Mock private Provider<CloseableHttpClient> sslVerifyingClientProvider;
+
+  @Mock private AsyncHttpClientFactory asyncClientFactory;
+
+  @Mock private ConnectionPools pools;
+
+  @Mock private RemoteConfig remote;
+
+  @Mock private HttpClient asyncClient;
+
+  @Mock private HttpResponse<String> response;
+
+  @Test
+  public void asyncPostSendsPayloadAndHeaders() throws Exception {
+    when(remote.getCompression()).thenReturn(Compression.GZIP);
+    HttpSession session = newAsyncSession();
+    respond(200, "", Map.of());
+
+    HttpResult result =
+        session
+            .postAsync(
+                remote, new EventProcessor.Request("{}", ImmutableMap.of("X-Event", "created")))
+            .get();
+
+    assertThat(result.successful).isTrue();
+    HttpRequest post = sentRequest();
+    assertThat(post.method()).isEqualTo("POST");
+    assertThat(post.uri()).isEqualTo(URI.create(URL));
+    assertThat(post.timeout()).isEqualTo(Optional.of(Duration.ofMillis(3000)));
+    assertThat(post.headers().firstValue("Content-Type"))
+        .isEqualTo(Optional.of("application/json; charset=utf-8"));
+    assertThat(post.headers().firstValue("Content-Encoding")).isEqualTo(Optional.of("gzip"));
+    assertThat(post.headers().firstValue("X-Event")).isEqualTo(Optional.of("created"));
+  }
+
+  @Test
+  public void asyncPostReturnsFailureWithRetryAfter() throws Exception {
+    when(remote.getCompression()).thenReturn(Compression.NONE);
+    HttpSession session = newAsyncSession();
+    respond(503, "unavailable", Map.of("Retry-After", List.of("5")));
+
+    HttpResult result = session.postAsync(remote, new EventProcessor.Request("{}")).get();
+
+    assertThat(result.successful).isFalse();
+    assertThat(result.statusCode).isEqualTo(503);
+    assertThat(result.message).isEqualTo("unavailable");
+    assertThat(result.retryAfter).isEqualTo(Optional.of(Duration.ofSeconds(5)));
+    assertThat(sentRequest().headers().firstValue("Content-Encoding"))
+        .isEqualTo(Optional.empty());
+  }
+
+  @Test
+  public void asyncPostFailsWhenClientFails() {
+    when(remote.getCompression()).thenReturn(Compression.NONE);
+    HttpSession session = newAsyncSession();
+    when(asyncClient.<String>sendAsync(any(), any()))
+        .thenReturn(CompletableFuture.failedFuture(new IOException("reset")));
+
+    CompletableFuture<HttpResult> result =
+        session.postAsync(remote, new EventProcessor.Request("{}"));
+
+    Throwable failure = result.handle((r, e) -> e).join();
+    assertThat(failure).isInstanceOf(CompletionException.class);
+    assertThat(failure).hasCauseThat().isInstanceOf(IOException.class);
+  }
+
+  @Test
+  public void http2UsesJdkClientWithBlockingEngine() {
+    when(cfg.getDeliveryEngine()).thenReturn(DeliveryEngine.BLOCKING);
+    when(remote.getHttp2()).thenReturn(true);
+    when(remote.getSslVerify()).thenReturn(true);
+    when(asyncClientFactory.get(true, true)).thenReturn(asyncClient);
+
+    assertThat(newSession().isAsync()).isTrue();
+    verifyNoInteractions(defaultClientProvider, sslVerifyingClientProvider, pools);
+  }
+
+  @Test
+  public void http1UsesApacheClientWithBlockingEngine() {
+    when(cfg.getDeliveryEngine()).thenReturn(DeliveryEngine.BLOCKING);
+    when(remote.getHttp2()).thenReturn(false);
+    when(remote.getSslVerify()).thenReturn(true);
+
+    assertThat(newSession().isAsync()).isFalse();
+    verify(sslVerifyingClientProvider).get();
+    verify(pools).configure(remote);
+    verifyNoInteractions(asyncClientFactory);
+  }
+
+  private HttpSession newAsyncSession() {
+    when(cfg.getDeliveryEngine()).thenReturn(DeliveryEngine.ASYNC);
+    when(remote.getUrl()).thenReturn(URL);
+    when(remote.getConnectionTimeout()).thenReturn(1000);
+    when(remote.getSocketTimeout()).thenReturn(2000);
+    when(asyncClientFactory.get(false, false)).thenReturn(asyncClient);
+    HttpSession session = newSession();
+    assertThat(session.isAsync()).isTrue();
+    return session;
+  }
+
+  private HttpSession newSession() {
+    return new HttpSession(
+        cfg,
+        defaultClientProvider,
+        sslVerifyingClientProvider,
+        asyncClientFactory,
+        pools,
+        remote);
+  }
+
+  private void respond(int statusCode, String body, Map<String, List<String>> headers) {
+    when(response.statusCode()).thenReturn(statusCode);
+    when(response.body()).thenReturn(body);
+    when(response.headers()).thenReturn(HttpHeaders.of(headers, (name, value) -> true));
+    when(asyncClient.<String>sendAsync(any(), any()))
+        .thenReturn(CompletableFuture.completedFuture(response));
+  }
+
+  private HttpRequest sentRequest() {
+    ArgumentCaptor<HttpRequest> post = ArgumentCaptor.forClass(HttpRequest.class);
+    verify(asyncClient).sendAsync(post.capture(), any());
+    return post.getValue();
+  }
+}
@@ -0,0 +1,169 @@
+// Copyright (C) 2026 The Android Open Source Project
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.googlesource.gerrit.plugins.webhooks;
+
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+import com.google.gerrit.entities.Project;
+import com.google.gerrit.server.events.ProjectCreatedEvent;
+import com.google.gerrit.server.events.RefUpdatedEvent;
+import java.util.concurrent.CountDownLatch;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+
+@RunWith(MockitoJUnitRunner.class)
+public class IngestQueueTest {
+  private static final String PLUGIN = "webhooks";
+  private static final Project.NameKey PROJECT_NAME = Project.nameKey("p");
+  private static final int THREADS = 2;
+
+  @Mock private ProjectCreatedEvent projectCreated;
+
+  @Mock private RefUpdatedEvent refUpdated;
+
+  @Mock private EventDispatcher dispatcher;
+
+  @Mock private WebhooksMetrics metrics;
+
+  @Mock private Configuration cfg;
+
+  private IngestQueue queue;
+
+  @Before
+  public void setup() {
+    when(projectCreated.getProjectNameKey()).thenReturn(PROJECT_NAME);
+  }
+
+  @After
+  public void tearDown() {
+    if (queue != null) {
+      queue.stop();
+    }
+  }
+
+  @Test
+  public void eventDispatchedOnIngestThread() {
+    start(10, OverflowPolicy.DISCARD_NEWEST);
+    queue.offer(projectCreated);
+    verify(dispatcher, timeout(5000)).dispatch(projectCreated);
+  }
+
+  @Test
+  public void fullQueueCallerRuns() {
+    start(0, OverflowPolicy.CALLER_RUNS);
+    queue.offer(projectCreated);
+    verify(dispatcher).dispatch(projectCreated);
+    verify(metrics, never()).incrementIngestDropped();
+  }
+
+  @Test
+  public void fullQueueDiscardsNewest() {
+    start(0, OverflowPolicy.DISCARD_NEWEST);
+    queue.offer(projectCreated);
+    verify(metrics).incrementIngestDropped();
+    verifyNoInteractions(dispatcher);
+  }
+
+  @Test
+  public void pendingEventsDispatchedOnStop() throws Exception {
+    CountDownLatch dispatching = new CountDownLatch(1);
+    CountDownLatch release = new CountDownLatch(1);
+    doAnswer(
+            invocation -> {
+              dispatching.countDown();
+              release.await();
+              return null;
+            })
+        .when(dispatcher)
+        .dispatch(projectCreated);
+    when(refUpdated.getProjectNameKey()).thenReturn(PROJECT_NAME);
+    start(10, OverflowPolicy.DISCARD_NEWEST);
+    queue.offer(projectCreated);
+    dispatching.await();
+    // queued behind the event of the same project
+    queue.offer(refUpdated);
+
+    // the ingest thread only finishes its dispatch once the queue is stopping
+    Thread stopping = new Thread(queue::stop);
+    stopping.start();
+    while (stopping.getState() != Thread.State.TIMED_WAITING) {
+      Thread.yield();
+    }
+    release.countDown();
+    stopping.join();
+    verify(dispatcher).dispatch(refUpdated);
+  }
+
+  @Test
+  public void eventOfferedWhileStoppingDispatched() {
+    start(10, OverflowPolicy.DISCARD_NEWEST);
+    // the queue stops after the offer checked that it is running
+    when(refUpdated.getProjectNameKey())
+        .then(
+            invocation -> {
+              Thread stopping = new Thread(queue::stop);
+              stopping.start();
+              stopping.join();
+              return PROJECT_NAME;
+            });
+    queue.offer(refUpdated);
+    verify(dispatcher).dispatch(refUpdated);
+  }
+
+  @Test
+  public void eventsOfDifferentProjectsDispatchedConcurrently() throws Exception {
+    CountDownLatch release = new CountDownLatch(1);
+    doAnswer(
+            invocation -> {
+              release.await();
+              return null;
+            })
+        .when(dispatcher)
+        .dispatch(projectCreated);
+    when(refUpdated.getProjectNameKey()).thenReturn(otherWorkerProject());
+    start(10, OverflowPolicy.DISCARD_NEWEST);
+    queue.offer(projectCreated);
+    queue.offer(refUpdated);
+    verify(dispatcher, timeout(5000)).dispatch(refUpdated);
+    release.countDown();
+  }
+
+  private static Project.NameKey otherWorkerProject() {
+    for (int i = 0; ; i++) {
+      Project.NameKey project = Project.nameKey("p" + i);
+      if (Math.floorMod(project.hashCode(), THREADS)
+          != Math.floorMod(PROJECT_NAME.hashCode(), THREADS)) {
+        return project;
+      }
+    }
+  }
+
+  private void start(int capacity, OverflowPolicy policy) {
+    when(cfg.getIngestThreads()).thenReturn(THREADS);
+    when(cfg.getIngestQueueSize()).thenReturn(capacity);
+    when(cfg.getIngestOverflowPolicy()).thenReturn(policy);
+    queue = new IngestQueue(dispatcher, metrics, cfg, PLUGIN);
+    queue.start();
+  }
+}
@@ -0,0 +1,118 @@
+// Copyright (C) 2026 The Android Open Source Project
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.googlesource.gerrit.plugins.webhooks;
+
+import static com.google.common.truth.Truth.assertThat;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.nio.file.StandardOpenOption.APPEND;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class OutboxJournalTest {
+  private static final long SEGMENT_SIZE = 64;
+
+  @Rule public TemporaryFolder tmp = new TemporaryFolder();
+
+  private Path dir;
+
+  @Before
+  public void setup() {
+    dir = tmp.getRoot().toPath().resolve("outbox");
+  }
+
+  @Test
+  public void pendingEntriesReplayedOnOpen() throws IOException {
+    OutboxJournal journal = open();
+    long first = journal.append(bytes("first"));
+    long second = journal.append(bytes("second"));
+    journal.ack(first);
+    journal.close();
+
+    List<OutboxJournal.Entry> pending = new OutboxJournal(dir, SEGMENT_SIZE).open();
+    assertThat(pending).hasSize(1);
+    assertThat(pending.get(0).id).isEqualTo(second);
+    assertThat(new String(pending.get(0).data, UTF_8)).isEqualTo("second");
+  }
+
+  @Test
+  public void idsNotReusedAfterOpen() throws IOException {
+    OutboxJournal journal = open();
+    long id = journal.append(bytes("first"));
+    journal.ack(id);
+    journal.close();
+
+    assertThat(open().append(bytes("second"))).isGreaterThan(id);
+  }
+
+  @Test
+  public void tornRecordDiscarded() throws IOException {
+    OutboxJournal journal = open();
+    long id = journal.append(bytes("first"));
+    journal.close();
+    Path segment = segments().get(segments().size() - 1);
+    Files.write(segment, new byte[] {0, 0, 1}, APPEND);
+
+    List<OutboxJournal.Entry> pending = reopen();
+    assertThat(pending).hasSize(1);
+    assertThat(pending.get(0).id).isEqualTo(id);
+  }
+
+  @Test
+  public void compactionRemovesAcknowledgedSegments() throws IOException {
+    OutboxJournal journal = open();
+    long kept = journal.append(bytes("kept"));
+    for (int i = 0; i < 5; i++) {
+      journal.ack(journal.append(bytes("acknowledged-" + i)));
+    }
+    assertThat(segments().size()).isGreaterThan(2);
+
+    journal.compact();
+    assertThat(segments()).hasSize(1);
+    journal.close();
+
+    List<OutboxJournal.Entry> pending = reopen();
+    assertThat(pending).hasSize(1);
+    assertThat(pending.get(0).id).isEqualTo(kept);
+  }
+
+  private OutboxJournal open() throws IOException {
+    OutboxJournal journal = new OutboxJournal(dir, SEGMENT_SIZE);
+    journal.open();
+    return journal;
+  }
+
+  private List<OutboxJournal.Entry> reopen() throws IOException {
+    return new OutboxJournal(dir, SEGMENT_SIZE).open();
+  }
+
+  private List<Path> segments() throws IOException {
+    try (Stream<Path> files = Files.list(dir)) {
+      return files.sorted().collect(Collectors.toList());
+    }
+  }
+
+  private static byte[] bytes(String s) {
+    return s.getBytes(UTF_8);
+  }
+}
@@ -0,0 +1,136 @@
+// Copyright (C) 2026 The Android Open Source Project
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.googlesource.gerrit.plugins.webhooks;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+import com.google.gerrit.entities.Project;
+import com.google.gerrit.server.events.ProjectCreatedEvent;
+import java.nio.file.Path;
+import java.util.Optional;
+import java.util.concurrent.ScheduledExecutorService;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.junit.runner.RunWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+
+@RunWith(MockitoJUnitRunner.class)
+public class OutboxTest {
+  private static final Project.NameKey PROJECT = Project.nameKey("p");
+  private static final String REMOTE = "foo";
+  private static final long SEGMENT_SIZE = 1024;
+
+  @Rule public TemporaryFolder tmp = new TemporaryFolder();
+
+  @Mock private Configuration cfg;
+
+  @Mock private ScheduledExecutorService executor;
+
+  @Mock private RemotesCache remotesCache;
+
+  @Mock private ProjectRemotes projectRemotes;
+
+  @Mock private PostTask.Factory taskFactory;
+
+  @Mock private PostTask task;
+
+  @Mock private DeadLetters deadLetters;
+
+  @Mock private WebhooksMetrics metrics;
+
+  @Mock private ProjectCreatedEvent event;
+
+  @Mock private RemoteConfig remote;
+
+  private Path dataDir;
+
+  @Before
+  public void setup() {
+    when(cfg.getOutbox()).thenReturn(true);
+    when(cfg.getOutboxSegmentSize()).thenReturn(SEGMENT_SIZE);
+    dataDir = tmp.getRoot().toPath();
+  }
+
+  @Test
+  public void recordedDeliveryReplayedOnStart() throws Exception {
+    long id = record();
+    when(taskFactory.create(any(), eq(remote), any())).thenReturn(task);
+
+    replay();
+    verify(task).replay(id);
+  }
+
+  @Test
+  public void deliveryFailingToReplayKeptAsDeadLetterAndAcked() throws Exception {
+    record();
+    when(taskFactory.create(any(), eq(remote), any())).thenThrow(new IllegalStateException());
+
+    replay();
+    verify(deadLetters).add(any(), eq(remote), any(), eq(0), anyString());
+    start().stop();
+    verify(executor, times(1)).execute(any());
+  }
+
+  @Test
+  public void undecodableDeliveryAcked() throws Exception {
+    OutboxJournal journal = new OutboxJournal(dataDir.resolve("outbox"), SEGMENT_SIZE);
+    journal.open();
+    journal.append(new byte[] {1});
+    journal.close();
+
+    replay();
+    verifyNoInteractions(taskFactory, deadLetters);
+    start().stop();
+    verify(executor, times(1)).execute(any());
+  }
+
+  private long record() throws Exception {
+    when(event.getType()).thenReturn("project-created");
+    when(event.getProjectNameKey()).thenReturn(PROJECT);
+    when(remote.getName()).thenReturn(REMOTE);
+    when(remotesCache.get(PROJECT)).thenReturn(projectRemotes);
+    when(projectRemotes.getRemote(REMOTE)).thenReturn(Optional.of(remote));
+    Outbox outbox = start();
+    long id = outbox.enqueue(event, remote, new EventProcessor.Request("body"));
+    outbox.stop();
+    return id;
+  }
+
+  private void replay() {
+    Outbox outbox = start();
+    ArgumentCaptor<Runnable> replay = ArgumentCaptor.forClass(Runnable.class);
+    verify(executor).execute(replay.capture());
+    replay.getValue().run();
+    outbox.stop();
+  }
+
+  private Outbox start() {
+    Outbox outbox =
+        new Outbox(
+            cfg, dataDir, executor, remotesCache, () -> taskFactory, deadLetters, metrics);
+    outbox.start();
+    return outbox;
+  }
+}
@@ -0,0 +1,117 @@
+// Copyright (C) 2026 The Android Open Source Project
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.googlesource.gerrit.plugins.webhooks;
+
+import static com.google.common.truth.Truth.assertThat;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.mockito.Mockito.when;
+
+import com.google.common.collect.ImmutableMap;
+import java.io.File;
+import java.io.IOException;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+
+@RunWith(MockitoJUnitRunner.class)
+public class PendingPayloadsTest {
+  private static final String BODY = "{\"type\":\"ref-updated\"}";
+
+  @Rule public TemporaryFolder tmp = new TemporaryFolder();
+
+  @Mock private Configuration cfg;
+
+  @Mock private WebhooksMetrics metrics;
+
+  private PendingPayloads payloads;
+
+  @Before
+  public void setup() {
+    // room for a single payload
+    when(cfg.getPendingPayloadBudget()).thenReturn((long) BODY.length());
+    payloads = new PendingPayloads(cfg, tmp.getRoot().toPath(), metrics);
+    payloads.start();
+  }
+
+  @Test
+  public void payloadWithinBudgetKeptInMemory() {
+    assertThat(payloads.hold(new EventProcessor.Request(BODY)).isSpilled()).isFalse();
+  }
+
+  @Test
+  public void requestFromBodyCountsItsEncodedBytesOnly() {
+    String body = "h\u00e9llo";
+    EventProcessor.Request request = new EventProcessor.Request(body);
+
+    assertThat(request.getHeapSize()).isEqualTo(body.getBytes(UTF_8).length);
+    assertThat(request.getBody()).isEqualTo(body);
+  }
+
+  @Test
+  public void payloadBeyondBudgetSpilledAndReadBack() throws IOException {
+    payloads.hold(new EventProcessor.Request(BODY));
+    PendingPayloads.Held held =
+        payloads.hold(new EventProcessor.Request(BODY, ImmutableMap.of("X-Foo", "bar")));
+
+    assertThat(held.isSpilled()).isTrue();
+    EventProcessor.Request read = held.getRequest();
+    assertThat(read.getBody()).isEqualTo(BODY);
+    assertThat(read.getPayload().asCharSource(UTF_8).read()).isEqualTo(BODY);
+    assertThat(read.headers).containsExactly("X-Foo", "bar");
+  }
+
+  @Test
+  public void releasedPayloadsFreeBudgetAndFiles() {
+    PendingPayloads.Held inMemory = payloads.hold(new EventProcessor.Request(BODY));
+    PendingPayloads.Held spilled = payloads.hold(new EventProcessor.Request(BODY));
+    inMemory.release();
+    spilled.release();
+
+    assertThat(payloads.hold(new EventProcessor.Request(BODY)).isSpilled()).isFalse();
+    assertThat(new File(tmp.getRoot(), "pending-payloads").list()).isEmpty();
+  }
+
+  @Test
+  public void sharedRequestCountedOnce() {
+    EventProcessor.Request shared = new EventProcessor.Request(BODY);
+    PendingPayloads.Held first = payloads.hold(shared);
+    PendingPayloads.Held second = payloads.hold(shared);
+    assertThat(first.isSpilled()).isFalse();
+    assertThat(second.isSpilled()).isFalse();
+
+    // the budget has room for a single payload
+    assertThat(payloads.hold(new EventProcessor.Request(BODY)).isSpilled()).isTrue();
+  }
+
+  @Test
+  public void sharedRequestSpilledOnceAndKeptUntilLastRelease() throws IOException {
+    payloads.hold(new EventProcessor.Request(BODY));
+    EventProcessor.Request shared = new EventProcessor.Request(BODY);
+    PendingPayloads.Held first = payloads.hold(shared);
+    PendingPayloads.Held second = payloads.hold(shared);
+    assertThat(second.isSpilled()).isTrue();
+    assertThat(payloads.hold(first.getRequest()).getRequest()).isSameInstanceAs(first.getRequest());
+    File dir = new File(tmp.getRoot(), "pending-payloads");
+    assertThat(dir.list()).hasLength(1);
+
+    first.release();
+    first.release();
+    assertThat(second.getRequest().getBody()).isEqualTo(BODY);
+  }
+}
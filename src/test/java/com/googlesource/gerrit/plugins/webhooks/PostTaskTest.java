@@ -14,18 +14,32 @@
 
 package com.googlesource.gerrit.plugins.webhooks;
 
+import static com.google.common.truth.Truth.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.longThat;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.when;
 
+import com.google.common.collect.ImmutableList;
 import com.google.gerrit.entities.Project;
 import com.google.gerrit.server.events.ProjectCreatedEvent;
 import com.googlesource.gerrit.plugins.webhooks.HttpResponseHandler.HttpResult;
 import java.io.IOException;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.Semaphore;
 import java.util.concurrent.TimeUnit;
 import javax.net.ssl.SSLException;
 import org.junit.Before;
@@ -42,6 +56,7 @@ public class PostTaskTest {
   private static final HttpResult ERR_RESULT = new HttpResult(false, "");
   private static final int RETRY_INTERVAL = 100;
   private static final int MAX_TRIES = 3;
+  private static final long OUTBOX_ID = 42;
 
   @Mock private ProjectCreatedEvent projectCreated;
 
@@ -51,20 +66,53 @@ public class PostTaskTest {
 
   @Mock private HttpSession.Factory sessionFactory;
 
+  @Mock private PostTask.Factory taskFactory;
+
+  @Mock private PostTask splitTask;
+
   @Mock private ScheduledThreadPoolExecutor executor;
 
   @Mock private EventProcessor.Request content;
 
+  @Mock private WebhooksMetrics metrics;
+
+  @Mock private Outbox outbox;
+
+  @Mock private DeadLetters deadLetters;
+
+  @Mock private Configuration cfg;
+
+  private final SharedRemotes sharedRemotes = new SharedRemotes();
+
+  private PendingPayloads payloads;
+
   private PostTask task;
 
   @Before
   public void setup() {
     when(remote.getRetryInterval()).thenReturn(RETRY_INTERVAL);
+    when(remote.getRetryBackoff()).thenReturn(RetryBackoff.FIXED);
     when(remote.getMaxTries()).thenReturn(MAX_TRIES);
     when(remote.getUrl()).thenReturn(WEBHOOK_URL);
     when(sessionFactory.create(eq(remote))).thenReturn(session);
     when(projectCreated.getProjectNameKey()).thenReturn(Project.nameKey("test"));
-    task = new PostTask(executor, sessionFactory, projectCreated, remote, content);
+    when(remote.getPriority(any())).thenReturn(Priority.NORMAL);
+    payloads = new PendingPayloads(cfg, Path.of("pending"), metrics);
+    task =
+        new PostTask(
+            executor,
+            sessionFactory,
+            () -> taskFactory,
+            new Bulkheads(executor, cfg, metrics, sharedRemotes),
+            new CircuitBreakers(metrics, sharedRemotes),
+            outbox,
+            deadLetters,
+            new RateLimiters(metrics, sharedRemotes),
+            new PriorityLanes(executor, cfg, metrics),
+            payloads,
+            projectCreated,
+            remote,
+            content);
   }
 
   @Test
@@ -74,6 +122,131 @@ public class PostTaskTest {
     verifyNoInteractions(executor);
   }
 
+  @Test
+  public void acknowledgedInOutboxOnSuccess() throws IOException {
+    when(outbox.enqueue(projectCreated, remote, content)).thenReturn(OUTBOX_ID);
+    when(session.post(eq(remote), eq(content))).thenReturn(OK_RESULT);
+    task.schedule();
+    task.run();
+    verify(outbox).ack(OUTBOX_ID);
+  }
+
+  @Test
+  public void notAcknowledgedInOutboxOnRetry() throws IOException {
+    when(outbox.enqueue(projectCreated, remote, content)).thenReturn(OUTBOX_ID);
+    when(session.post(eq(remote), eq(content))).thenReturn(ERR_RESULT);
+    task.schedule();
+    task.run();
+    verify(outbox, never()).ack(OUTBOX_ID);
+  }
+
+  @Test
+  public void rateLimitedPostWaitsWithoutSpendingTry() throws IOException {
+    when(remote.getRateLimit()).thenReturn(1);
+    when(remote.getRateLimitBurst()).thenReturn(1);
+    RateLimiters rateLimiters = new RateLimiters(metrics, sharedRemotes);
+    PostTask first = newTask(rateLimiters);
+    PostTask second = newTask(rateLimiters);
+    when(session.post(eq(remote), eq(content))).thenReturn(OK_RESULT);
+    first.run();
+    second.run();
+    verify(session, times(1)).post(eq(remote), eq(content));
+    verify(executor).schedule(eq(second), longThat(wait -> wait > 0), eq(TimeUnit.NANOSECONDS));
+  }
+
+  @Test
+  public void droppedPostDoesNotSpendToken() throws IOException {
+    when(remote.getMaxConcurrentPosts()).thenReturn(1);
+    when(remote.getOverflowPolicy()).thenReturn(OverflowPolicy.DISCARD_NEWEST);
+    when(remote.getRateLimit()).thenReturn(1);
+    when(remote.getRateLimitBurst()).thenReturn(1);
+    Bulkheads bulkheads = new Bulkheads(executor, cfg, metrics, sharedRemotes);
+    RateLimiters rateLimiters = new RateLimiters(metrics, sharedRemotes);
+    Bulkhead bulkhead = bulkheads.get(remote);
+    assertThat(bulkhead.admit(() -> {})).isTrue();
+    newTask(bulkheads, rateLimiters).run();
+    bulkhead.release();
+
+    when(session.post(eq(remote), eq(content))).thenReturn(OK_RESULT);
+    newTask(bulkheads, rateLimiters).run();
+    verify(session, times(1)).post(eq(remote), eq(content));
+    verifyNoInteractions(executor);
+  }
+
+  @Test
+  public void asyncPostAcknowledgedOnceCompleted() throws IOException {
+    CompletableFuture<HttpResult> response = new CompletableFuture<>();
+    when(outbox.enqueue(projectCreated, remote, content)).thenReturn(OUTBOX_ID);
+    when(session.isAsync()).thenReturn(true);
+    when(session.postAsync(eq(remote), eq(content))).thenReturn(response);
+    task.schedule();
+    task.run();
+    verify(outbox, never()).ack(OUTBOX_ID);
+
+    response.complete(OK_RESULT);
+    verify(outbox).ack(OUTBOX_ID);
+    verify(session, never()).post(any(), any());
+  }
+
+  @Test
+  public void asyncPostFailureReleasesBulkheadAndBreaker() {
+    when(remote.getMaxConcurrentPosts()).thenReturn(1);
+    when(remote.getOverflowPolicy()).thenReturn(OverflowPolicy.DISCARD_NEWEST);
+    Bulkheads bulkheads = new Bulkheads(executor, cfg, metrics, sharedRemotes);
+    CircuitBreakers breakers = new CircuitBreakers(metrics, sharedRemotes);
+    PostTask asyncTask = newTask(bulkheads, breakers, new RateLimiters(metrics, sharedRemotes));
+    CompletableFuture<HttpResult> response = new CompletableFuture<>();
+    when(session.isAsync()).thenReturn(true);
+    when(session.postAsync(eq(remote), eq(content))).thenReturn(response);
+    asyncTask.run();
+    Bulkhead bulkhead = bulkheads.get(remote);
+    assertThat(bulkhead.admit(() -> {})).isFalse();
+
+    response.completeExceptionally(new IOException());
+    assertThat(bulkhead.admit(() -> {})).isTrue();
+    assertThat(breakers.get(remote).getConsecutiveFailures()).isEqualTo(1);
+    verify(executor).schedule(asyncTask, RETRY_INTERVAL, TimeUnit.MILLISECONDS);
+  }
+
+  @Test
+  public void openCircuitPostRetriedWithoutSpendingTry() throws IOException {
+    when(remote.getCircuitBreakerThreshold()).thenReturn(1);
+    when(remote.getCircuitBreakerOpenInterval()).thenReturn(60000);
+    CircuitBreakers breakers = new CircuitBreakers(metrics, sharedRemotes);
+    breakers.get(remote).onFailure();
+    PostTask rejected =
+        newTask(
+            new Bulkheads(executor, cfg, metrics, sharedRemotes),
+            breakers,
+            new RateLimiters(metrics, sharedRemotes));
+    for (int i = 0; i < MAX_TRIES + 1; i++) {
+      rejected.run();
+    }
+    verify(session, never()).post(any(), any());
+    verify(deadLetters, never()).add(any(), any(), any(), anyInt(), any());
+    verify(executor, times(MAX_TRIES + 1))
+        .schedule(
+            eq(rejected),
+            longThat(delay -> delay >= 59000 && delay <= 60000 + RETRY_INTERVAL),
+            eq(TimeUnit.MILLISECONDS));
+  }
+
+  @Test
+  public void rejectedBatchSplitInNewTasks() throws IOException {
+    Batch batch =
+        new Batch(
+            BatchFormat.NDJSON,
+            ImmutableList.of(projectCreated, projectCreated),
+            ImmutableList.of(new EventProcessor.Request("1"), new EventProcessor.Request("2")));
+    when(session.post(eq(remote), any()))
+        .thenReturn(new HttpResult(400, "rejected", Optional.empty()));
+    when(taskFactory.create(any(Batch.class), eq(remote))).thenReturn(splitTask);
+    newTask(batch).run();
+    verify(taskFactory, times(2)).create(any(Batch.class), eq(remote));
+    verify(splitTask, times(2)).schedule();
+    verifyNoInteractions(executor);
+  }
+
   @Test
   public void noRescheduleOnNonRecoverableException() throws IOException {
     when(session.post(eq(remote), eq(content))).thenThrow(SSLException.class);
@@ -81,6 +254,13 @@ public class PostTaskTest {
     verifyNoInteractions(executor);
   }
 
+  @Test
+  public void deadLetterKeptOnNonRecoverableException() throws IOException {
+    when(session.post(eq(remote), eq(content))).thenThrow(SSLException.class);
+    task.run();
+    verify(deadLetters).add(eq(projectCreated), eq(remote), eq(content), eq(1), any());
+  }
+
   @Test
   public void rescheduleOnError() throws IOException {
     when(session.post(eq(remote), eq(content))).thenReturn(ERR_RESULT);
@@ -88,6 +268,15 @@ public class PostTaskTest {
     verify(executor, times(1)).schedule(task, RETRY_INTERVAL, TimeUnit.MILLISECONDS);
   }
 
+  @Test
+  public void rescheduleHonorsRetryAfter() throws IOException {
+    when(remote.getMaxRetryInterval()).thenReturn(60000);
+    when(session.post(eq(remote), eq(content)))
+        .thenReturn(new HttpResult(503, "", Optional.of(Duration.ofSeconds(5))));
+    task.run();
+    verify(executor, times(1)).schedule(task, 5000, TimeUnit.MILLISECONDS);
+  }
+
   @Test
   public void rescheduleOnRecoverableException() throws IOException {
     when(session.post(eq(remote), eq(content))).thenThrow(IOException.class);
@@ -108,13 +297,87 @@ public class PostTaskTest {
     verify(executor, times(MAX_TRIES - 1)).schedule(task, RETRY_INTERVAL, TimeUnit.MILLISECONDS);
   }
 
+  @Test
+  public void failedPostRetriedOnlyByRescheduling() throws Exception {
+    when(cfg.getMaxConnections()).thenReturn(1);
+    when(cfg.getMaxConnectionsPerRoute()).thenReturn(1);
+    when(remote.getConnectionTimeout()).thenReturn(5000);
+    when(remote.getSocketTimeout()).thenReturn(5000);
+    when(remote.getCompression()).thenReturn(Compression.NONE);
+    ConnectionPools pools = new ConnectionPools(cfg, executor, metrics, sharedRemotes);
+    try (ServerSocket server = new ServerSocket(0, 50, InetAddress.getLoopbackAddress())) {
+      Semaphore attempts = new Semaphore(0);
+      Thread endpoint =
+          new Thread(
+              () -> {
+                while (true) {
+                  // every connection is reset without a response
+                  try (Socket socket = server.accept()) {
+                    socket.setSoLinger(true, 0);
+                    attempts.release();
+                  } catch (IOException e) {
+                    return;
+                  }
+                }
+              });
+      endpoint.setDaemon(true);
+      endpoint.start();
+      when(remote.getUrl())
+          .thenReturn(String.format("http://127.0.0.1:%d/hook", server.getLocalPort()));
+      HttpSession http =
+          new HttpSession(
+              cfg, new DefaultHttpClientProvider(cfg, pools), null, null, pools, remote);
+      when(session.post(eq(remote), any()))
+          .then(invocation -> http.post(remote, invocation.getArgument(1)));
+      PostTask failing =
+          new PostTask(
+              executor,
+              sessionFactory,
+              () -> taskFactory,
+              new Bulkheads(executor, cfg, metrics, sharedRemotes),
+              new CircuitBreakers(metrics, sharedRemotes),
+              outbox,
+              deadLetters,
+              new RateLimiters(metrics, sharedRemotes),
+              new PriorityLanes(executor, cfg, metrics),
+              payloads,
+              projectCreated,
+              remote,
+              // large enough for the reset to interrupt sending it, which the HTTP client would
+              // retry on its own
+              new EventProcessor.Request("x".repeat(1 << 20)));
+
+      for (int tries = 1; tries <= 2; tries++) {
+        failing.run();
+        assertThat(attempts.tryAcquire(5, TimeUnit.SECONDS)).isTrue();
+        assertThat(attempts.tryAcquire(200, TimeUnit.MILLISECONDS)).isFalse();
+        verify(executor, times(tries)).schedule(failing, RETRY_INTERVAL, TimeUnit.MILLISECONDS);
+      }
+    } finally {
+      pools.stop();
+    }
+  }
+
   @Test
   public void executorSurvivesNonRecoverableExceptions()
       throws IOException, InterruptedException, ExecutionException {
     ScheduledThreadPoolExecutor singleThreadExecutor = new ScheduledThreadPoolExecutor(1);
     try {
       PostTask singleThreadTask =
-          new PostTask(singleThreadExecutor, sessionFactory, projectCreated, remote, content);
+          new PostTask(
+              singleThreadExecutor,
+              sessionFactory,
+              () -> taskFactory,
+              new Bulkheads(singleThreadExecutor, cfg, metrics, sharedRemotes),
+              new CircuitBreakers(metrics, sharedRemotes),
+              outbox,
+              deadLetters,
+              new RateLimiters(metrics, sharedRemotes),
+              new PriorityLanes(singleThreadExecutor, cfg, metrics),
+              payloads,
+              projectCreated,
+              remote,
+              content);
 
       // schedule erroneous task for the first time
       when(session.post(eq(remote), eq(content))).thenThrow(RuntimeException.class);
@@ -133,4 +396,46 @@ public class PostTaskTest {
       singleThreadExecutor.shutdownNow();
     }
   }
+
+  private PostTask newTask(Batch batch) {
+    return new PostTask(
+        executor,
+        sessionFactory,
+        () -> taskFactory,
+        new Bulkheads(executor, cfg, metrics, sharedRemotes),
+        new CircuitBreakers(metrics, sharedRemotes),
+        outbox,
+        deadLetters,
+        new RateLimiters(metrics, sharedRemotes),
+        new PriorityLanes(executor, cfg, metrics),
+        payloads,
+        batch,
+        remote);
+  }
+
+  private PostTask newTask(RateLimiters rateLimiters) {
+    return newTask(new Bulkheads(executor, cfg, metrics, sharedRemotes), rateLimiters);
+  }
+
+  private PostTask newTask(Bulkheads bulkheads, RateLimiters rateLimiters) {
+    return newTask(bulkheads, new CircuitBreakers(metrics, sharedRemotes), rateLimiters);
+  }
+
+  private PostTask newTask(
+      Bulkheads bulkheads, CircuitBreakers breakers, RateLimiters rateLimiters) {
+    return new PostTask(
+        executor,
+        sessionFactory,
+        () -> taskFactory,
+        bulkheads,
+        breakers,
+        outbox,
+        deadLetters,
+        rateLimiters,
+        new PriorityLanes(executor, cfg, metrics),
+        payloads,
+        projectCreated,
+        remote,
+        content);
+  }
 }
@@ -0,0 +1,101 @@
+// Copyright (C) 2026 The Android Open Source Project
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.googlesource.gerrit.plugins.webhooks;
+
+import static com.google.common.truth.Truth.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ScheduledExecutorService;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+
+@RunWith(MockitoJUnitRunner.class)
+public class PriorityLanesTest {
+  @Mock private ScheduledExecutorService executor;
+
+  @Mock private Configuration cfg;
+
+  @Mock private WebhooksMetrics metrics;
+
+  private final List<Runnable> tokens = new ArrayList<>();
+  private final List<String> ran = new ArrayList<>();
+  private PriorityLanes lanes;
+
+  @Before
+  public void setup() {
+    for (Priority priority : Priority.values()) {
+      when(cfg.getPriorityWeight(priority)).thenReturn(priority.getDefaultWeight());
+    }
+    doAnswer(
+            invocation -> {
+              tokens.add(invocation.getArgument(0));
+              return null;
+            })
+        .when(executor)
+        .execute(any());
+    lanes = new PriorityLanes(executor, cfg, metrics);
+  }
+
+  @Test
+  public void highPriorityTaskOvertakesQueuedLowPriorityTasks() {
+    queue(Priority.LOW, "low1");
+    queue(Priority.LOW, "low2");
+    queue(Priority.HIGH, "high");
+
+    runTokens(1);
+    assertThat(ran).containsExactly("high");
+    runTokens(2);
+    assertThat(ran).containsExactly("high", "low1", "low2").inOrder();
+  }
+
+  @Test
+  public void lowPriorityTasksGetTheirShare() {
+    for (int i = 0; i < 10; i++) {
+      queue(Priority.HIGH, "high");
+    }
+    queue(Priority.LOW, "low");
+
+    runTokens(Priority.HIGH.getDefaultWeight() + Priority.LOW.getDefaultWeight());
+    assertThat(ran).contains("low");
+  }
+
+  @Test
+  public void eachTaskRunsOnce() {
+    queue(Priority.NORMAL, "normal");
+    queue(Priority.HIGH, "high");
+    queue(Priority.LOW, "low");
+
+    runTokens(tokens.size());
+    assertThat(ran).containsExactly("high", "normal", "low").inOrder();
+    assertThat(lanes.getQueued(Priority.NORMAL)).isEqualTo(0);
+  }
+
+  private void queue(Priority priority, String name) {
+    lanes.execute(priority, () -> ran.add(name));
+  }
+
+  private void runTokens(int count) {
+    for (int i = 0; i < count; i++) {
+      tokens.remove(0).run();
+    }
+  }
+}
@@ -0,0 +1,85 @@
+// Copyright (C) 2026 The Android Open Source Project
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.googlesource.gerrit.plugins.webhooks;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import com.google.common.base.Ticker;
+import java.util.concurrent.TimeUnit;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+
+@RunWith(MockitoJUnitRunner.class)
+public class RateLimiterTest {
+  private static final int RATE = 2;
+  private static final int BURST = 3;
+  private static final long INTERVAL_NANOS = TimeUnit.SECONDS.toNanos(1) / RATE;
+
+  @Mock private WebhooksMetrics metrics;
+
+  private long nanos;
+  private RateLimiter limiter;
+
+  @Before
+  public void setup() {
+    Ticker ticker =
+        new Ticker() {
+          @Override
+          public long read() {
+            return nanos;
+          }
+        };
+    limiter = new RateLimiter(metrics, ticker);
+    limiter.configure(RATE, BURST);
+  }
+
+  @Test
+  public void burstGoesThroughAtOnce() {
+    for (int i = 0; i < BURST; i++) {
+      assertThat(limiter.reserve()).isEqualTo(0);
+    }
+    assertThat(limiter.reserve()).isEqualTo(INTERVAL_NANOS);
+  }
+
+  @Test
+  public void waitingPostsReserveTokensInOrder() {
+    for (int i = 0; i < BURST; i++) {
+      limiter.reserve();
+    }
+    assertThat(limiter.reserve()).isEqualTo(INTERVAL_NANOS);
+    assertThat(limiter.reserve()).isEqualTo(2 * INTERVAL_NANOS);
+  }
+
+  @Test
+  public void tokensRefilledOverTime() {
+    for (int i = 0; i < BURST; i++) {
+      limiter.reserve();
+    }
+    nanos += INTERVAL_NANOS;
+    assertThat(limiter.reserve()).isEqualTo(0);
+    assertThat(limiter.reserve()).isEqualTo(INTERVAL_NANOS);
+  }
+
+  @Test
+  public void unlimitedWhenRateNotSet() {
+    limiter.configure(0, BURST);
+    for (int i = 0; i < 10 * BURST; i++) {
+      assertThat(limiter.reserve()).isEqualTo(0);
+    }
+  }
+}
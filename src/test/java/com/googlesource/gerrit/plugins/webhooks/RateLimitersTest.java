@@ -0,0 +1,67 @@
+// Copyright (C) 2026 The Android Open Source Project
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.googlesource.gerrit.plugins.webhooks;
+
+import static com.google.common.truth.Truth.assertThat;
+import static org.mockito.Mockito.when;
+
+import com.google.common.collect.ImmutableList;
+import com.google.gerrit.entities.Project;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+
+@RunWith(MockitoJUnitRunner.class)
+public class RateLimitersTest {
+  private static final String URL = "http://foo.org/";
+  private static final Project.NameKey FOO = Project.nameKey("foo");
+
+  @Mock private WebhooksMetrics metrics;
+
+  @Mock private RemoteConfig remote;
+
+  @Mock private RemoteConfig updated;
+
+  private SharedRemotes sharedRemotes;
+  private RateLimiters rateLimiters;
+
+  @Before
+  public void setup() {
+    when(remote.getUrl()).thenReturn(URL);
+    sharedRemotes = new SharedRemotes();
+    sharedRemotes.update(FOO, ImmutableList.of(remote));
+    rateLimiters = new RateLimiters(metrics, sharedRemotes);
+  }
+
+  @Test
+  public void updatedRateOfRemoteApplies() {
+    when(remote.getRateLimit()).thenReturn(1000);
+    when(remote.getRateLimitBurst()).thenReturn(1000);
+    RateLimiter limiter = rateLimiters.get(remote);
+    assertThat(limiter.reserve()).isEqualTo(0);
+    assertThat(limiter.reserve()).isEqualTo(0);
+
+    when(updated.getUrl()).thenReturn(URL);
+    when(updated.getRateLimit()).thenReturn(1);
+    when(updated.getRateLimitBurst()).thenReturn(1);
+    sharedRemotes.update(FOO, ImmutableList.of(updated));
+    assertThat(rateLimiters.get(updated)).isSameInstanceAs(limiter);
+
+    assertThat(limiter.reserve()).isEqualTo(0);
+    assertThat(limiter.reserve()).isGreaterThan(0L);
+  }
+}
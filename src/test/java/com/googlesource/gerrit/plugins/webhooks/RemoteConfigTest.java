@@ -0,0 +1,121 @@
+// Copyright (C) 2026 The Android Open Source Project
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.googlesource.gerrit.plugins.webhooks;
+
+import static com.google.common.truth.Truth.assertThat;
+import static com.googlesource.gerrit.plugins.webhooks.Configuration.UNSET_CONFIG_INT;
+import static com.googlesource.gerrit.plugins.webhooks.RemoteConfig.REMOTE;
+import static org.mockito.Mockito.when;
+
+import com.google.common.collect.ImmutableList;
+import org.eclipse.jgit.lib.Config;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+
+@RunWith(MockitoJUnitRunner.class)
+public class RemoteConfigTest {
+  private static final String FOO = "foo";
+  private static final String REF_UPDATED = "ref-updated";
+  private static final String PATCHSET_CREATED = "patchset-created";
+  private static final String COMMENT_ADDED = "comment-added";
+
+  @Mock private Configuration global;
+
+  private Config config;
+
+  @Before
+  public void setup() {
+    when(global.getAllowedEvents()).thenReturn(new String[] {});
+    when(global.getMaxAllowedTries()).thenReturn(UNSET_CONFIG_INT);
+    when(global.getRetryBackoff()).thenReturn(RetryBackoff.FIXED);
+    when(global.getOverflowPolicy()).thenReturn(OverflowPolicy.CALLER_RUNS);
+    when(global.getBatchFormat()).thenReturn(BatchFormat.JSON_ARRAY);
+    when(global.getCompression()).thenReturn(Compression.NONE);
+    when(global.getCoalesceEvents()).thenReturn(new String[] {REF_UPDATED});
+    when(global.getHighPriorityEvents()).thenReturn(new String[] {});
+    when(global.getLowPriorityEvents()).thenReturn(new String[] {});
+    config = new Config();
+    config.setString(REMOTE, FOO, "url", "http://foo.org/");
+  }
+
+  @Test
+  public void globalDefaultsInheritedUnlessSetForRemote() {
+    when(global.getMaxTries()).thenReturn(5);
+    when(global.getSocketTimeout()).thenReturn(5000);
+    config.setInt(REMOTE, FOO, RemoteConfig.MAX_TRIES, 7);
+    config.setString(REMOTE, FOO, RemoteConfig.RETRY_BACKOFF, "exponential");
+
+    RemoteConfig remote = remote();
+    assertThat(remote.getMaxTries()).isEqualTo(7);
+    assertThat(remote.getSocketTimeout()).isEqualTo(5000);
+    assertThat(remote.getRetryBackoff()).isEqualTo(RetryBackoff.EXPONENTIAL);
+    assertThat(remote.getOverflowPolicy()).isEqualTo(OverflowPolicy.CALLER_RUNS);
+  }
+
+  @Test
+  public void remoteValuesCappedByMaxAllowed() {
+    when(global.getMaxAllowedConnectionTimeout()).thenReturn(1000);
+    when(global.getMaxAllowedTries()).thenReturn(3);
+    config.setInt(REMOTE, FOO, RemoteConfig.CONNECTION_TIMEOUT, 5000);
+    config.setInt(REMOTE, FOO, RemoteConfig.MAX_TRIES, 10);
+
+    RemoteConfig remote = remote();
+    assertThat(remote.getConnectionTimeout()).isEqualTo(1000);
+    assertThat(remote.getMaxTries()).isEqualTo(3);
+  }
+
+  @Test
+  public void allEventsWhenNoneConfigured() {
+    assertThat(remote().getEventTypes()).isEmpty();
+  }
+
+  @Test
+  public void eventsRestrictedToGloballyAllowedOnes() {
+    when(global.getAllowedEvents()).thenReturn(new String[] {REF_UPDATED, PATCHSET_CREATED});
+    config.setStringList(REMOTE, FOO, "event", ImmutableList.of(REF_UPDATED, COMMENT_ADDED));
+
+    assertThat(remote().getEventTypes()).containsExactly(REF_UPDATED);
+  }
+
+  @Test
+  public void globallyAllowedEventsWhenNoneConfigured() {
+    when(global.getAllowedEvents()).thenReturn(new String[] {REF_UPDATED, PATCHSET_CREATED});
+
+    assertThat(remote().getEventTypes()).containsExactly(REF_UPDATED, PATCHSET_CREATED);
+  }
+
+  @Test
+  public void eventListsReplaceGlobalOnes() {
+    assertThat(remote().getCoalesceEvents()).containsExactly(REF_UPDATED);
+
+    config.setStringList(
+        REMOTE, FOO, RemoteConfig.COALESCE_EVENT, ImmutableList.of(PATCHSET_CREATED));
+    assertThat(remote().getCoalesceEvents()).containsExactly(PATCHSET_CREATED);
+  }
+
+  @Test
+  public void rateLimitBurstDefaultsToRateLimit() {
+    config.setInt(REMOTE, FOO, RemoteConfig.RATE_LIMIT, 10);
+
+    assertThat(remote().getRateLimitBurst()).isEqualTo(10);
+  }
+
+  private RemoteConfig remote() {
+    return new RemoteConfig(global, config, FOO);
+  }
+}
@@ -0,0 +1,111 @@
+// Copyright (C) 2026 The Android Open Source Project
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.googlesource.gerrit.plugins.webhooks;
+
+import static com.google.common.truth.Truth.assertThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.when;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+import com.google.gerrit.entities.Project;
+import com.google.gerrit.server.config.PluginConfigFactory;
+import com.google.gerrit.server.project.NoSuchProjectException;
+import com.google.gerrit.server.project.ProjectCache;
+import java.util.Optional;
+import java.util.regex.Pattern;
+import org.eclipse.jgit.lib.Config;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+
+@RunWith(MockitoJUnitRunner.class)
+public class RemotesCacheTest {
+  private static final Project.NameKey PROJECT_NAME = Project.nameKey("p");
+  private static final String PLUGIN = "webhooks";
+  private static final String REMOTE = "remote";
+  private static final String FOO = "foo";
+  private static final String FOO_URL = "foo-url";
+  private static final String BAR = "bar";
+
+  @Mock private Configuration global;
+
+  @Mock private PluginConfigFactory configFactory;
+
+  @Mock private ProjectCache projectCache;
+
+  @Mock private RemoteConfig.Factory remoteFactory;
+
+  @Mock private RemoteConfig remote;
+
+  @Mock private Config config;
+
+  @Before
+  public void setup() throws NoSuchProjectException {
+    when(configFactory.getProjectPluginConfigWithInheritance(PROJECT_NAME, PLUGIN))
+        .thenReturn(config);
+    when(config.getSubsections(eq(REMOTE))).thenReturn(ImmutableSet.of(FOO));
+    when(remoteFactory.create(eq(config), eq(FOO))).thenReturn(remote);
+    when(remote.getEventTypes()).thenReturn(ImmutableSet.of());
+    when(projectCache.get(PROJECT_NAME)).thenReturn(Optional.empty());
+  }
+
+  @Test
+  public void remoteUrlUndefinedRemoteSkipped() throws Exception {
+    assertThat(loader().load(PROJECT_NAME).getRemotes()).isEmpty();
+  }
+
+  @Test
+  public void remoteUrlDefinedRemoteLoaded() throws Exception {
+    when(remote.getUrl()).thenReturn(FOO_URL);
+    assertThat(loader().load(PROJECT_NAME).getRemotes()).containsExactly(remote);
+  }
+
+  @Test
+  public void allowedUrlRemoteLoaded() throws Exception {
+    when(global.getAllowedUrlPatterns()).thenReturn(ImmutableList.of(Pattern.compile(FOO_URL)));
+    when(remote.getUrl()).thenReturn(FOO_URL);
+    assertThat(loader().load(PROJECT_NAME).getRemotes()).containsExactly(remote);
+  }
+
+  @Test
+  public void notAllowedUrlRemoteSkipped() throws Exception {
+    when(global.getAllowedUrlPatterns())
+        .thenReturn(ImmutableList.of(Pattern.compile("does-not-match")));
+    when(remote.getUrl()).thenReturn(FOO_URL);
+    assertThat(loader().load(PROJECT_NAME).getRemotes()).isEmpty();
+  }
+
+  @Test
+  public void malformedRemoteSkippedOthersLoaded() throws Exception {
+    when(config.getSubsections(eq(REMOTE))).thenReturn(ImmutableSet.of(BAR, FOO));
+    when(remoteFactory.create(eq(config), eq(BAR)))
+        .thenThrow(new IllegalArgumentException("Invalid integer value: remote.bar.maxTries=x"));
+    when(remote.getUrl()).thenReturn(FOO_URL);
+    assertThat(loader().load(PROJECT_NAME).getRemotes()).containsExactly(remote);
+  }
+
+  private RemotesCache.Loader loader() {
+    return new RemotesCache.Loader(
+        new AllowedUrlMatcher(global),
+        configFactory,
+        projectCache,
+        PLUGIN,
+        remoteFactory,
+        new SharedRemotes());
+  }
+}
@@ -0,0 +1,45 @@
+// Copyright (C) 2026 The Android Open Source Project
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.googlesource.gerrit.plugins.webhooks;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import com.google.common.collect.Range;
+import org.junit.Test;
+
+public class RetryBackoffTest {
+  private static final int RETRY_INTERVAL = 1000;
+  private static final int MAX_RETRY_INTERVAL = 5000;
+
+  @Test
+  public void fixedAlwaysReturnsRetryInterval() {
+    assertThat(RetryBackoff.FIXED.delay(RETRY_INTERVAL, MAX_RETRY_INTERVAL, 1))
+        .isEqualTo(RETRY_INTERVAL);
+    assertThat(RetryBackoff.FIXED.delay(RETRY_INTERVAL, MAX_RETRY_INTERVAL, 10))
+        .isEqualTo(RETRY_INTERVAL);
+  }
+
+  @Test
+  public void exponentialIsJitteredUpToCappedCeiling() {
+    for (int i = 0; i < 100; i++) {
+      assertThat(RetryBackoff.EXPONENTIAL.delay(RETRY_INTERVAL, MAX_RETRY_INTERVAL, 1))
+          .isAtMost(RETRY_INTERVAL);
+      assertThat(RetryBackoff.EXPONENTIAL.delay(RETRY_INTERVAL, MAX_RETRY_INTERVAL, 3))
+          .isAtMost(4 * RETRY_INTERVAL);
+      assertThat(RetryBackoff.EXPONENTIAL.delay(RETRY_INTERVAL, MAX_RETRY_INTERVAL, 100))
+          .isIn(Range.closed(0L, (long) MAX_RETRY_INTERVAL));
+    }
+  }
+}
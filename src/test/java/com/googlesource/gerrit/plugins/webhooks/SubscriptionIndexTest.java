@@ -0,0 +1,122 @@
+// Copyright (C) 2026 The Android Open Source Project
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+
+package com.googlesource.gerrit.plugins.webhooks;
+
+import static com.google.common.truth.Truth.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.google.common.collect.FluentIterable;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.ImmutableSortedSet;
+import com.google.gerrit.entities.Project;
+import com.google.gerrit.server.git.WorkQueue;
+import com.google.gerrit.server.project.ProjectCache;
+import com.google.gerrit.server.project.ProjectState;
+import java.util.Optional;
+import java.util.concurrent.ScheduledExecutorService;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+
+@RunWith(MockitoJUnitRunner.class)
+public class SubscriptionIndexTest {
+  private static final Project.NameKey PARENT = Project.nameKey("parent");
+  private static final Project.NameKey CHILD = Project.nameKey("child");
+  private static final Project.NameKey OTHER = Project.nameKey("other");
+  private static final String REF_UPDATED = "ref-updated";
+
+  @Mock private ProjectCache projectCache;
+
+  @Mock private RemotesCache remotesCache;
+
+  @Mock private WorkQueue workQueue;
+
+  @Mock private ScheduledExecutorService defaultQueue;
+
+  @Mock private ProjectState parentState;
+
+  @Mock private ProjectState childState;
+
+  @Mock private ProjectState otherState;
+
+  @Mock private RemoteConfig remote;
+
+  private SubscriptionIndex index;
+
+  @Before
+  public void setup() throws Exception {
+    when(workQueue.getDefaultQueue()).thenReturn(defaultQueue);
+    when(defaultQueue.submit(any(Runnable.class)))
+        .then(
+            invocation -> {
+              invocation.<Runnable>getArgument(0).run();
+              return null;
+            });
+    when(projectCache.all()).thenReturn(ImmutableSortedSet.of(PARENT, CHILD, OTHER));
+    when(projectCache.get(PARENT)).thenReturn(Optional.of(parentState));
+    when(projectCache.get(CHILD)).thenReturn(Optional.of(childState));
+    when(projectCache.get(OTHER)).thenReturn(Optional.of(otherState));
+    when(parentState.getNameKey()).thenReturn(PARENT);
+    when(parentState.parents()).thenReturn(FluentIterable.of());
+    when(childState.parents()).thenReturn(FluentIterable.of(parentState));
+    when(otherState.parents()).thenReturn(FluentIterable.of());
+    when(remote.getEventTypes()).thenReturn(ImmutableSet.of(REF_UPDATED));
+    when(remotesCache.get(any())).then(invocation -> noRemotes(invocation.getArgument(0)));
+    index = new SubscriptionIndex(projectCache, remotesCache, workQueue);
+    index.start();
+  }
+
+  @Test
+  public void unsubscribedEventNotSubscribed() {
+    assertThat(index.isSubscribed(REF_UPDATED)).isFalse();
+  }
+
+  @Test
+  public void updatedProjectAndChildrenReindexed() throws Exception {
+    when(remotesCache.get(PARENT)).thenReturn(remotes(PARENT));
+    when(remotesCache.get(CHILD)).thenReturn(remotes(CHILD));
+    index.onConfigUpdated(PARENT);
+
+    assertThat(index.isSubscribed(REF_UPDATED, PARENT)).isTrue();
+    assertThat(index.isSubscribed(REF_UPDATED, CHILD)).isTrue();
+    verify(remotesCache, times(1)).get(OTHER);
+    verify(projectCache, times(1)).all();
+  }
+
+  @Test
+  public void childUpdatedWithoutParent() throws Exception {
+    when(remotesCache.get(CHILD)).thenReturn(remotes(CHILD));
+    index.onConfigUpdated(CHILD);
+
+    assertThat(index.isSubscribed(REF_UPDATED, CHILD)).isTrue();
+    assertThat(index.isSubscribed(REF_UPDATED, PARENT)).isFalse();
+    verify(remotesCache, times(1)).get(PARENT);
+  }
+
+  private ProjectRemotes remotes(Project.NameKey project) {
+    return new ProjectRemotes(project, ImmutableSet.of(), ImmutableList.of(remote));
+  }
+
+  private static ProjectRemotes noRemotes(Project.NameKey project) {
+    return new ProjectRemotes(project, ImmutableSet.of(), ImmutableList.of());
+  }
+}
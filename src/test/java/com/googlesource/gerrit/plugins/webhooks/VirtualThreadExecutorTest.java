@@ -0,0 +1,109 @@
+// Copyright (C) 2026 The Android Open Source Project
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+
+package com.googlesource.gerrit.plugins.webhooks;
+
+import static com.google.common.truth.Truth.assertThat;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+
+@RunWith(MockitoJUnitRunner.class)
+public class VirtualThreadExecutorTest {
+
+  @Mock private ScheduledExecutorService scheduler;
+
+  @Mock private ExecutorService executor;
+
+  @Mock private Runnable task;
+
+  @Test
+  public void delayedRunnableHandedOverToExecutor() throws Exception {
+    ScheduledThreadPoolExecutor realScheduler = new ScheduledThreadPoolExecutor(1);
+    try {
+      VirtualThreadExecutor virtual = new VirtualThreadExecutor(realScheduler, executor);
+      virtual.schedule(task, 10, TimeUnit.MILLISECONDS).get();
+      verify(executor).execute(task);
+      verify(task, never()).run();
+    } finally {
+      realScheduler.shutdownNow();
+    }
+  }
+
+  @Test
+  public void delayedCallableResultAvailable() throws Exception {
+    ScheduledThreadPoolExecutor realScheduler = new ScheduledThreadPoolExecutor(1);
+    try {
+      VirtualThreadExecutor virtual = new VirtualThreadExecutor(realScheduler, executor);
+      assertThat(virtual.schedule(() -> "done", 10, TimeUnit.MILLISECONDS).get())
+          .isEqualTo("done");
+    } finally {
+      realScheduler.shutdownNow();
+    }
+  }
+
+  @Test
+  public void shutdownStopsSchedulerAndExecutor() {
+    VirtualThreadExecutor virtual = new VirtualThreadExecutor(scheduler, executor);
+    virtual.shutdown();
+    verify(scheduler).shutdown();
+    verify(executor).shutdown();
+  }
+
+  @Test
+  public void shutdownOnlyOnceBothAreShutDown() {
+    when(scheduler.isShutdown()).thenReturn(true);
+    when(executor.isShutdown()).thenReturn(false);
+    assertThat(new VirtualThreadExecutor(scheduler, executor).isShutdown()).isFalse();
+  }
+
+  @Test
+  public void shutdownNowReturnsPendingTasksOfBoth() {
+    Runnable delayed = () -> {};
+    Runnable running = () -> {};
+    when(scheduler.shutdownNow()).thenReturn(List.of(delayed));
+    when(executor.shutdownNow()).thenReturn(List.of(running));
+    assertThat(new VirtualThreadExecutor(scheduler, executor).shutdownNow())
+        .containsExactly(delayed, running);
+  }
+
+  @Test
+  public void virtualThreadsNamedAfterPrefix() throws Exception {
+    Optional<ExecutorService> virtual =
+        VirtualThreadExecutor.newVirtualThreadPerTaskExecutor("webhooks-");
+    // empty on the JVMs without virtual threads
+    if (virtual.isPresent()) {
+      try {
+        CompletableFuture<String> name = new CompletableFuture<>();
+        virtual.get().execute(() -> name.complete(Thread.currentThread().getName()));
+        assertThat(name.get(10, TimeUnit.SECONDS)).startsWith("webhooks-");
+      } finally {
+        virtual.get().shutdownNow();
+      }
+    }
+  }
+}
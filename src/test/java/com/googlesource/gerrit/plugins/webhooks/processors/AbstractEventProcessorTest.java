@@ -17,6 +17,7 @@ package com.googlesource.gerrit.plugins.webhooks.processors;
 import static com.google.common.truth.Truth.assertThat;
 import static org.mockito.Mockito.when;
 
+import com.google.common.collect.ImmutableSet;
 import com.google.gerrit.entities.Project;
 import com.google.gerrit.server.events.ProjectCreatedEvent;
 import com.google.gerrit.server.events.ProjectEvent;
@@ -62,7 +63,7 @@ public class AbstractEventProcessorTest {
 
   @Test
   public void eventsNotSpecifiedAllEventsShouldProcess() throws Exception {
-    when(remote.getEvents()).thenReturn(new String[] {});
+    when(remote.getEventTypes()).thenReturn(ImmutableSet.of());
     boolean actual = processor.shouldProcess(PROJECT_CREATED, remote);
     assertThat(actual).isTrue();
 
@@ -72,14 +73,14 @@ public class AbstractEventProcessorTest {
 
   @Test
   public void specifiedEventTypesShouldProcess() throws Exception {
-    when(remote.getEvents()).thenReturn(new String[] {"project-created"});
+    when(remote.getEventTypes()).thenReturn(ImmutableSet.of("project-created"));
     boolean actual = processor.shouldProcess(PROJECT_CREATED, remote);
     assertThat(actual).isTrue();
   }
 
   @Test
   public void nonSpecifiedProjectEventTypesNotProcess() throws Exception {
-    when(remote.getEvents()).thenReturn(new String[] {"project-created"});
+    when(remote.getEventTypes()).thenReturn(ImmutableSet.of("project-created"));
     boolean actual = processor.shouldProcess(REF_UPDATED, remote);
     assertThat(actual).isFalse();
   }
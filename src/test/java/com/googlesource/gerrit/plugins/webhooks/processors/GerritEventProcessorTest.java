@@ -0,0 +1,107 @@
+// Copyright (C) 2026 The Android Open Source Project
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.googlesource.gerrit.plugins.webhooks.processors;
+
+import static com.google.common.truth.Truth.assertThat;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.mockito.Mockito.when;
+
+import com.google.common.base.Suppliers;
+import com.google.common.collect.ImmutableSet;
+import com.google.gerrit.server.data.RefUpdateAttribute;
+import com.google.gerrit.server.events.ProjectCreatedEvent;
+import com.google.gerrit.server.events.RefUpdatedEvent;
+import com.googlesource.gerrit.plugins.webhooks.EventProcessor;
+import com.googlesource.gerrit.plugins.webhooks.FieldProjection;
+import com.googlesource.gerrit.plugins.webhooks.RemoteConfig;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+
+@RunWith(MockitoJUnitRunner.class)
+public class GerritEventProcessorTest {
+  private static final String CANONICAL_WEB_URL = "http://gerrit/";
+
+  @Mock private RemoteConfig foo;
+
+  @Mock private RemoteConfig bar;
+
+  private GerritEventProcessor processor;
+
+  @Before
+  public void setup() {
+    when(foo.getEventTypes()).thenReturn(ImmutableSet.of());
+    when(bar.getEventTypes()).thenReturn(ImmutableSet.of());
+    when(foo.getFieldProjection()).thenReturn(FieldProjection.ALL);
+    when(bar.getFieldProjection()).thenReturn(FieldProjection.ALL);
+    processor = new GerritEventProcessor(CANONICAL_WEB_URL);
+  }
+
+  @Test
+  public void eventSerializedOnceForAllRemotes() throws Exception {
+    ProjectCreatedEvent event = new ProjectCreatedEvent();
+    event.projectName = "p";
+
+    EventProcessor.Request fooRequest = processor.process(event, foo).get();
+    EventProcessor.Request barRequest = processor.process(event, bar).get();
+
+    assertThat(barRequest).isSameInstanceAs(fooRequest);
+    assertThat(fooRequest.headers).containsEntry("X-Origin-Url", CANONICAL_WEB_URL);
+    assertThat(fooRequest.getPayload().asCharSource(UTF_8).read()).isEqualTo(fooRequest.getBody());
+    assertThat(fooRequest.getBody()).contains("\"projectName\":\"p\"");
+  }
+
+  @Test
+  public void distinctEventsSerializedSeparately() throws Exception {
+    ProjectCreatedEvent first = new ProjectCreatedEvent();
+    first.projectName = "p";
+    ProjectCreatedEvent second = new ProjectCreatedEvent();
+    second.projectName = "p";
+
+    assertThat(processor.process(second, foo).get())
+        .isNotSameInstanceAs(processor.process(first, foo).get());
+  }
+
+  @Test
+  public void onlyProjectedFieldsSerialized() throws Exception {
+    when(bar.getFieldProjection()).thenReturn(FieldProjection.compile("type", "projectName"));
+    ProjectCreatedEvent event = new ProjectCreatedEvent();
+    event.projectName = "p";
+    event.headName = "refs/heads/master";
+
+    assertThat(processor.process(event, bar).get().getBody())
+        .isEqualTo("{\"type\":\"project-created\",\"projectName\":\"p\"}");
+    assertThat(processor.process(event, foo).get().getBody()).contains("\"headName\"");
+  }
+
+  @Test
+  public void attributesNotProjectedNotResolved() throws Exception {
+    when(foo.getFieldProjection()).thenReturn(FieldProjection.compile("refUpdate.refName"));
+    RefUpdateAttribute refUpdate = new RefUpdateAttribute();
+    refUpdate.refName = "refs/heads/master";
+    refUpdate.newRev = "0000000000000000000000000000000000000001";
+    RefUpdatedEvent event = new RefUpdatedEvent();
+    event.refUpdate = Suppliers.ofInstance(refUpdate);
+    event.submitter =
+        () -> {
+          throw new AssertionError("submitter resolved");
+        };
+
+    assertThat(processor.process(event, foo).get().getBody())
+        .isEqualTo("{\"refUpdate\":{\"refName\":\"refs/heads/master\"}}");
+  }
+}
@@ -20,6 +20,7 @@ import static com.googlesource.gerrit.plugins.webhooks.Configuration.DEFAULT_MAX
 import static com.googlesource.gerrit.plugins.webhooks.Configuration.DEFAULT_RETRY_INTERVAL;
 import static com.googlesource.gerrit.plugins.webhooks.Configuration.DEFAULT_SSL_VERIFY;
 import static com.googlesource.gerrit.plugins.webhooks.Configuration.DEFAULT_TIMEOUT_MS;
+import static javax.servlet.http.HttpServletResponse.SC_CONFLICT;
 import static javax.servlet.http.HttpServletResponse.SC_OK;
 
 import com.google.common.collect.ImmutableList;
@@ -122,6 +123,23 @@ public class GetRemoteIT extends LightweightPluginDaemonTest {
     pushAndVerifyList(listAll, webhooksConfig, expected);
   }
 
+  @Test
+  public void malformedRemote() throws Exception {
+    git().fetch().setRefSpecs(new RefSpec(REFS_CONFIG + ":" + REFS_CONFIG)).call();
+    testRepo.reset(REFS_CONFIG);
+
+    String listAll = String.format("/config/server/webhooks~projects/%s/remotes/", project.get());
+    String getBar = String.format("/config/server/webhooks~projects/%s/remotes/bar", project.get());
+    String webhooksConfig =
+        "[remote \"foo\"]\n  url = https://foo.org/\n"
+            + "[remote \"bar\"]\n  url = https://bar.org/\n  maxTries = x\n";
+    Map<String, RemoteInfo> expected = new HashMap<>();
+    expected.put("foo", newRemoteInfo("https://foo.org/"));
+    pushAndVerifyList(listAll, webhooksConfig, expected);
+
+    assertThat(adminRestSession.get(getBar).getStatusCode()).isEqualTo(SC_CONFLICT);
+  }
+
   private void pushAndVerifyList(
       String endpoint, String webhooksConfig, Map<String, RemoteInfo> expected) throws Exception {
     push(webhooksConfig);